@@ -0,0 +1,200 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.WritableTypeId;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.ser.ContainerSerializer;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.PropertyWriter;
+import com.fasterxml.jackson.databind.ser.std.BeanSerializerBase;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Serializer for JImmutableList properties annotated with JsonJImmutableColumnar.  The list
+ * is written as an object containing one array per property of the element bean.  Values
+ * are written using the bean's own property writers so their names, serializers, and null
+ * handling match the normal row form.  Lists without the annotation are handled by the
+ * wrapped serializer.  Polymorphic elements cannot be written as columns so the annotation
+ * is rejected when the elements have a type serializer, just as it is when reading.
+ */
+public class ColumnarListSerializer
+    extends ContainerSerializer<Iterable<?>>
+    implements ContextualSerializer
+{
+    private final ContainerSerializer<Iterable<?>> rows;
+    private final boolean typedElements;
+    private final PropertyWriter[] columns;
+
+    ColumnarListSerializer(ContainerSerializer<Iterable<?>> rows,
+                           boolean typedElements)
+    {
+        this(rows, typedElements, null);
+    }
+
+    private ColumnarListSerializer(ContainerSerializer<Iterable<?>> rows,
+                                   boolean typedElements,
+                                   PropertyWriter[] columns)
+    {
+        super(Iterable.class, false);
+        this.rows = rows;
+        this.typedElements = typedElements;
+        this.columns = columns;
+    }
+
+    @Override
+    public JavaType getContentType()
+    {
+        return rows.getContentType();
+    }
+
+    @Override
+    public JsonSerializer<?> getContentSerializer()
+    {
+        return rows.getContentSerializer();
+    }
+
+    @Override
+    public boolean isEmpty(SerializerProvider provider,
+                           Iterable<?> value)
+    {
+        return rows.isEmpty(provider, value);
+    }
+
+    @Override
+    public boolean hasSingleElement(Iterable<?> value)
+    {
+        return columns == null && rows.hasSingleElement(value);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    protected ContainerSerializer<?> _withValueTypeSerializer(TypeSerializer vts)
+    {
+        return new ColumnarListSerializer((ContainerSerializer<Iterable<?>>)rows.withValueTypeSerializer(vts), vts != null);
+    }
+
+    @Override
+    public JsonSerializer<?> createContextual(SerializerProvider prov,
+                                              BeanProperty property)
+        throws JsonMappingException
+    {
+        if (property == null || property.getAnnotation(JsonJImmutableColumnar.class) == null) {
+            return ((ContextualSerializer)rows).createContextual(prov, property);
+        }
+        final JavaType rowType = rows.getContentType();
+        final JsonSerializer<Object> rowSerializer = prov.findValueSerializer(rowType, property);
+        if (typedElements || !(rowSerializer instanceof BeanSerializerBase) || rowSerializer.isUnwrappingSerializer()) {
+            throw JsonMappingException.from(prov, "columnar collection must be a JImmutableList of beans (" + rowType.getRawClass().getName() + ")");
+        }
+        final List<PropertyWriter> columns = new ArrayList<>();
+        final Iterator<PropertyWriter> properties = ((BeanSerializerBase)rowSerializer).properties();
+        while (properties.hasNext()) {
+            columns.add(properties.next());
+        }
+        return new ColumnarListSerializer(rows, typedElements, columns.toArray(new PropertyWriter[0]));
+    }
+
+    @Override
+    public void serialize(Iterable<?> value,
+                          JsonGenerator gen,
+                          SerializerProvider provider)
+        throws IOException
+    {
+        if (columns == null) {
+            rows.serialize(value, gen, provider);
+            return;
+        }
+        gen.setCurrentValue(value);
+        gen.writeStartObject();
+        writeColumns(value, gen, provider);
+        gen.writeEndObject();
+    }
+
+    @Override
+    public void serializeWithType(Iterable<?> value,
+                                  JsonGenerator gen,
+                                  SerializerProvider provider,
+                                  TypeSerializer typeSer)
+        throws IOException
+    {
+        if (columns == null) {
+            rows.serializeWithType(value, gen, provider, typeSer);
+            return;
+        }
+        gen.setCurrentValue(value);
+        final WritableTypeId typeId = typeSer.writeTypePrefix(gen, typeSer.typeId(value, JsonToken.START_OBJECT));
+        writeColumns(value, gen, provider);
+        typeSer.writeTypeSuffix(gen, typeId);
+    }
+
+    private void writeColumns(Iterable<?> value,
+                              JsonGenerator gen,
+                              SerializerProvider provider)
+        throws IOException
+    {
+        for (Object row : value) {
+            if (row == null) {
+                throw JsonMappingException.from(provider, "columnar collection cannot contain null elements");
+            }
+        }
+        for (PropertyWriter column : columns) {
+            gen.writeFieldName(column.getName());
+            gen.writeStartArray();
+            for (Object row : value) {
+                try {
+                    column.serializeAsElement(row, gen, provider);
+                } catch (IOException ex) {
+                    throw ex;
+                } catch (Exception ex) {
+                    throw JsonMappingException.from(provider, "unable to write column " + column.getName(), ex);
+                }
+            }
+            gen.writeEndArray();
+        }
+    }
+}
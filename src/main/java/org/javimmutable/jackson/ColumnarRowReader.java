@@ -0,0 +1,184 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationConfig;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.deser.BeanDeserializer;
+import com.fasterxml.jackson.databind.deser.CreatorProperty;
+import com.fasterxml.jackson.databind.deser.SettableBeanProperty;
+import com.fasterxml.jackson.databind.deser.ValueInstantiator;
+
+import javax.annotation.concurrent.Immutable;
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Builds the beans of a columnar list from values decoded column by column.  The bean
+ * deserializer's properties, creator, and ignored names are resolved once when the list
+ * deserializer is contextualized so each value can be decoded straight from the parser by
+ * its property's own deserializer and each row built without any intermediate tree.
+ */
+@Immutable
+class ColumnarRowReader
+{
+    private final BeanDeserializer bean;
+    private final Class<?> rowClass;
+    private final ValueInstantiator instantiator;
+    private final SettableBeanProperty[] creatorProperties;
+    private final boolean ignoreUnknown;
+    private final Set<String> ignored;
+
+    private ColumnarRowReader(BeanDeserializer bean,
+                              Class<?> rowClass,
+                              ValueInstantiator instantiator,
+                              SettableBeanProperty[] creatorProperties,
+                              boolean ignoreUnknown,
+                              Set<String> ignored)
+    {
+        this.bean = bean;
+        this.rowClass = rowClass;
+        this.instantiator = instantiator;
+        this.creatorProperties = creatorProperties;
+        this.ignoreUnknown = ignoreUnknown;
+        this.ignored = ignored;
+    }
+
+    /**
+     * Returns a reader for the bean type or null if its deserializer builds beans in a way
+     * that cannot be driven property by property (builders or delegating creators).
+     */
+    static ColumnarRowReader forDeserializer(JavaType rowType,
+                                             JsonDeserializer<?> valueDeserializer,
+                                             DeserializationConfig config)
+    {
+        if (!(valueDeserializer instanceof BeanDeserializer)) {
+            return null;
+        }
+        final BeanDeserializer bean = (BeanDeserializer)valueDeserializer;
+        final ValueInstantiator instantiator = bean.getValueInstantiator();
+        SettableBeanProperty[] creatorProperties = null;
+        if (instantiator.canCreateFromObjectWith()) {
+            final SettableBeanProperty[] arguments = instantiator.getFromObjectArguments(config);
+            creatorProperties = new SettableBeanProperty[arguments.length];
+            for (int i = 0; i < arguments.length; ++i) {
+                // the bean deserializer holds the resolved versions of its creator properties
+                final SettableBeanProperty resolved = bean.findProperty(arguments[i].getName());
+                creatorProperties[i] = (resolved != null) ? resolved : arguments[i];
+            }
+        } else if (!instantiator.canCreateUsingDefault()) {
+            return null;
+        }
+        final JsonIgnoreProperties.Value ignorals = config.getDefaultPropertyIgnorals(rowType.getRawClass(), config.introspectClassAnnotations(rowType).getClassInfo());
+        return new ColumnarRowReader(bean, rowType.getRawClass(), instantiator, creatorProperties, ignorals.getIgnoreUnknown(), ignorals.findIgnoredForDeserialization());
+    }
+
+    /**
+     * Returns the property for a column or null after skipping a column that has none.
+     * Unknown columns are handled like unknown properties of a single bean.
+     */
+    SettableBeanProperty column(String name,
+                                JsonParser parser,
+                                DeserializationContext context)
+        throws IOException
+    {
+        final SettableBeanProperty property = ignored.contains(name) ? null : bean.findProperty(name);
+        if (property == null) {
+            if (ignoreUnknown || ignored.contains(name)) {
+                parser.skipChildren();
+            } else {
+                context.handleUnknownProperty(parser, bean, rowClass, name);
+            }
+        }
+        return property;
+    }
+
+    /**
+     * Builds the bean for one row.  Creator arguments without a column get the value that
+     * the bean deserializer would use for a missing property.
+     */
+    Object row(List<SettableBeanProperty> properties,
+               List<List<Object>> columns,
+               int index,
+               DeserializationContext context)
+        throws IOException
+    {
+        final Object row;
+        if (creatorProperties == null) {
+            row = instantiator.createUsingDefault(context);
+        } else {
+            final Object[] arguments = new Object[creatorProperties.length];
+            final boolean[] assigned = new boolean[creatorProperties.length];
+            for (int c = 0; c < properties.size(); ++c) {
+                final SettableBeanProperty property = properties.get(c);
+                if (property instanceof CreatorProperty) {
+                    arguments[property.getCreatorIndex()] = columns.get(c).get(index);
+                    assigned[property.getCreatorIndex()] = true;
+                }
+            }
+            for (int i = 0; i < arguments.length; ++i) {
+                if (!assigned[i]) {
+                    arguments[i] = missingValue(creatorProperties[i], context);
+                }
+            }
+            row = instantiator.createFromObjectWith(context, arguments);
+        }
+        for (int c = 0; c < properties.size(); ++c) {
+            final SettableBeanProperty property = properties.get(c);
+            if (!(property instanceof CreatorProperty)) {
+                property.set(row, columns.get(c).get(index));
+            }
+        }
+        return row;
+    }
+
+    private static Object missingValue(SettableBeanProperty property,
+                                       DeserializationContext context)
+        throws JsonMappingException
+    {
+        if (property.getInjectableValueId() != null) {
+            return context.findInjectableValue(property.getInjectableValueId(), property, null);
+        }
+        final JsonDeserializer<Object> deserializer = property.getValueDeserializer();
+        return (deserializer == null) ? null : deserializer.getNullValue(context);
+    }
+}
@@ -0,0 +1,232 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+
+/**
+ * Base class for the compact collections produced by the deserializers.  Each one is a
+ * dynamic proxy for one of the JImmutable interfaces so it implements every version of that
+ * interface.  Methods that only read the collection are answered from the compact form.  Any
+ * other method (including structural modifications) is passed to a standard collection built
+ * for that one call and then discarded, so a compact collection never holds a boxed copy of
+ * its contents.  The operation for each interface method is worked out once and cached.
+ */
+@ThreadSafe
+abstract class CompactProxy
+    implements InvocationHandler
+{
+    enum Operation
+    {
+        SIZE,
+        IS_EMPTY,
+        IS_NON_EMPTY,
+        LOOKUP,
+        VIEW,
+        ITERATOR,
+        SPLITERATOR,
+        STREAM,
+        FOR_EACH,
+        EQUALS,
+        HASH_CODE,
+        TO_STRING,
+        STANDARD
+    }
+
+    /**
+     * Returns the CompactProxy of the specified class behind value or null if value is not one of ours.
+     */
+    static <H extends CompactProxy> H of(Object value,
+                                         Class<H> handlerClass)
+    {
+        if (value != null && Proxy.isProxyClass(value.getClass())) {
+            final InvocationHandler handler = Proxy.getInvocationHandler(value);
+            if (handlerClass.isInstance(handler)) {
+                return handlerClass.cast(handler);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Creates a proxy for the interface that forwards every call to handler.
+     */
+    static <T> T proxy(Class<T> interfaceClass,
+                       CompactProxy handler)
+    {
+        return interfaceClass.cast(Proxy.newProxyInstance(interfaceClass.getClassLoader(), new Class<?>[]{interfaceClass}, handler));
+    }
+
+    abstract int size();
+
+    /**
+     * Returns the read-only java.util view (a List, Set, or Map) of the contents.
+     */
+    abstract Object view();
+
+    /**
+     * Answers the interface's element lookup method (get or contains).
+     */
+    abstract Object lookup(Object[] args);
+
+    /**
+     * Returns true if other is the same kind of JImmutable collection with the same contents.
+     */
+    abstract boolean sameContents(Object other);
+
+    /**
+     * Returns a standard collection with the same contents.  A new one is built for every call.
+     */
+    abstract Object standard();
+
+    /**
+     * Returns the cache of operations for the subclass's interface methods.
+     */
+    abstract ConcurrentMap<Method, Operation> operations();
+
+    /**
+     * Returns the operation for a method not covered by the common ones or STANDARD.
+     */
+    abstract Operation classifyLookup(Method method);
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public Object invoke(Object proxy,
+                         Method method,
+                         Object[] args)
+        throws Throwable
+    {
+        switch (operation(method)) {
+            case SIZE:
+                return size();
+            case IS_EMPTY:
+                return size() == 0;
+            case IS_NON_EMPTY:
+                return size() != 0;
+            case LOOKUP:
+                return lookup(args);
+            case VIEW:
+                return view();
+            case ITERATOR:
+                return ((Collection<?>)view()).iterator();
+            case SPLITERATOR:
+                return ((Collection<?>)view()).spliterator();
+            case STREAM:
+                return ((Collection<?>)view()).stream();
+            case FOR_EACH:
+                ((Collection<Object>)view()).forEach((Consumer<Object>)args[0]);
+                return null;
+            case EQUALS:
+                return proxy == args[0] || sameContents(args[0]);
+            case HASH_CODE:
+                return view().hashCode();
+            case TO_STRING:
+                return view().toString();
+            default:
+                try {
+                    return method.invoke(standard(), args);
+                } catch (InvocationTargetException ex) {
+                    throw ex.getCause();
+                }
+        }
+    }
+
+    private Operation operation(Method method)
+    {
+        final ConcurrentMap<Method, Operation> operations = operations();
+        Operation operation = operations.get(method);
+        if (operation == null) {
+            operation = classify(method);
+            operations.putIfAbsent(method, operation);
+        }
+        return operation;
+    }
+
+    /**
+     * Iteration methods are only answered from the view when the interface declares them with
+     * the plain java types.  Versions of the interface that return their own iterator types
+     * are served by the standard collection instead.
+     */
+    private Operation classify(Method method)
+    {
+        final String name = method.getName();
+        final Class<?>[] params = method.getParameterTypes();
+        final Class<?> returnType = method.getReturnType();
+        final boolean collectionView = view() instanceof Collection;
+        if (params.length == 0) {
+            switch (name) {
+                case "size":
+                    return (returnType == int.class) ? Operation.SIZE : Operation.STANDARD;
+                case "isEmpty":
+                    return Operation.IS_EMPTY;
+                case "isNonEmpty":
+                    return Operation.IS_NON_EMPTY;
+                case "getList":
+                case "getSet":
+                case "getMap":
+                    return returnType.isInstance(view()) ? Operation.VIEW : Operation.STANDARD;
+                case "iterator":
+                    return (collectionView && returnType.isAssignableFrom(Iterator.class)) ? Operation.ITERATOR : Operation.STANDARD;
+                case "spliterator":
+                    return (collectionView && returnType.isAssignableFrom(Spliterator.class)) ? Operation.SPLITERATOR : Operation.STANDARD;
+                case "stream":
+                    return (collectionView && returnType.isAssignableFrom(Stream.class)) ? Operation.STREAM : Operation.STANDARD;
+                case "hashCode":
+                    return Operation.HASH_CODE;
+                case "toString":
+                    return Operation.TO_STRING;
+            }
+        } else if (params.length == 1) {
+            if (name.equals("equals") && params[0] == Object.class) {
+                return Operation.EQUALS;
+            }
+            if (name.equals("forEach") && params[0] == Consumer.class && collectionView) {
+                return Operation.FOR_EACH;
+            }
+        }
+        return classifyLookup(method);
+    }
+}
@@ -0,0 +1,226 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.Function;
+
+/**
+ * Collects enum constants (and optionally a value for each) in a bitset indexed by ordinal.
+ * Adding a constant a second time only replaces its value so duplicates in the input cost
+ * nothing, and the constants can then be visited in ordinal order without sorting or turned
+ * into an OrdinalSet or OrdinalMap.
+ */
+@NotThreadSafe
+final class EnumBuffer
+{
+    private final Object[] constants;
+    private final long[] present;
+    private final Object[] values;
+    private int count;
+
+    EnumBuffer(Object[] constants,
+               boolean withValues)
+    {
+        this.constants = constants;
+        this.present = new long[(constants.length + 63) >>> 6];
+        this.values = withValues ? new Object[constants.length] : null;
+    }
+
+    /**
+     * Adds the constant and its value.  Returns false without changing anything if key
+     * is not one of our constants (for example null) so the caller can handle it directly.
+     */
+    boolean add(Object key,
+                Object value)
+    {
+        final int ordinal = ordinalOf(key, constants);
+        if (ordinal < 0) {
+            return false;
+        }
+        if (!isSet(present, ordinal)) {
+            present[ordinal >>> 6] |= 1L << ordinal;
+            count += 1;
+        }
+        if (values != null) {
+            values[ordinal] = value;
+        }
+        return true;
+    }
+
+    /**
+     * Returns the lowest ordinal at or after from that has been added or -1 if there are none.
+     */
+    int nextOrdinal(int from)
+    {
+        return nextOrdinal(present, from);
+    }
+
+    /**
+     * Returns the number of distinct constants added.
+     */
+    int count()
+    {
+        return count;
+    }
+
+    Object[] constants()
+    {
+        return constants;
+    }
+
+    /**
+     * Returns a copy of the bitset without any trailing empty words.
+     */
+    long[] words()
+    {
+        int length = present.length;
+        while (length > 0 && present[length - 1] == 0) {
+            length -= 1;
+        }
+        return Arrays.copyOf(present, length);
+    }
+
+    /**
+     * Returns a copy of the values up to the highest ordinal added.
+     */
+    Object[] values()
+    {
+        int length = constants.length;
+        while (length > 0 && !isSet(present, length - 1)) {
+            length -= 1;
+        }
+        return Arrays.copyOf(values, length);
+    }
+
+    /**
+     * Returns the ordinal of value if it is one of the constants or -1 if it is not (for example null).
+     */
+    static int ordinalOf(Object value,
+                         Object[] constants)
+    {
+        if (!(value instanceof Enum)) {
+            return -1;
+        }
+        final int ordinal = ((Enum<?>)value).ordinal();
+        return (ordinal < constants.length && constants[ordinal] == value) ? ordinal : -1;
+    }
+
+    static boolean isSet(long[] words,
+                         int ordinal)
+    {
+        final int index = ordinal >>> 6;
+        return index < words.length && (words[index] & (1L << ordinal)) != 0;
+    }
+
+    /**
+     * Returns the lowest ordinal at or after from that is set in words or -1 if there are none.
+     */
+    static int nextOrdinal(long[] words,
+                           int from)
+    {
+        int index = from >>> 6;
+        if (index >= words.length) {
+            return -1;
+        }
+        long word = words[index] & (-1L << from);
+        while (true) {
+            if (word != 0) {
+                return (index << 6) + Long.numberOfTrailingZeros(word);
+            }
+            if (++index == words.length) {
+                return -1;
+            }
+            word = words[index];
+        }
+    }
+
+    Object constant(int ordinal)
+    {
+        return constants[ordinal];
+    }
+
+    Object value(int ordinal)
+    {
+        return values[ordinal];
+    }
+
+    /**
+     * Returns the items ordered by the ordinal of the enum constant that key returns for each
+     * of them or null if the keys are not all distinct constants of a single enum.  Items are
+     * placed directly into their ordinal's slot so no comparisons are needed.
+     */
+    static <T> Object[] sortByOrdinal(Collection<T> items,
+                                      Function<T, Object> key)
+    {
+        Class<?> enumClass = null;
+        int maxOrdinal = -1;
+        for (T item : items) {
+            final Object constant = key.apply(item);
+            if (!(constant instanceof Enum)) {
+                return null;
+            }
+            final Class<?> constantClass = ((Enum<?>)constant).getDeclaringClass();
+            if (enumClass == null) {
+                enumClass = constantClass;
+            } else if (constantClass != enumClass) {
+                return null;
+            }
+            maxOrdinal = Math.max(maxOrdinal, ((Enum<?>)constant).ordinal());
+        }
+        final Object[] slots = new Object[maxOrdinal + 1];
+        for (T item : items) {
+            final int ordinal = ((Enum<?>)key.apply(item)).ordinal();
+            if (slots[ordinal] != null) {
+                return null;
+            }
+            slots[ordinal] = item;
+        }
+        if (slots.length == items.size()) {
+            return slots;
+        }
+        final Object[] sorted = new Object[items.size()];
+        int count = 0;
+        for (Object slot : slots) {
+            if (slot != null) {
+                sorted[count++] = slot;
+            }
+        }
+        return sorted;
+    }
+}
@@ -39,21 +39,30 @@ import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.DeserializationConfig;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.JsonDeserializer;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.deser.ContextualDeserializer;
+import com.fasterxml.jackson.databind.deser.SettableBeanProperty;
 import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
 import com.fasterxml.jackson.databind.jsontype.TypeDeserializer;
 import com.fasterxml.jackson.databind.type.CollectionLikeType;
+import com.fasterxml.jackson.databind.util.ClassUtil;
 import org.javimmutable.collections.Insertable;
+import org.javimmutable.collections.JImmutableList;
+import org.javimmutable.collections.JImmutableSet;
+import org.javimmutable.collections.util.JImmutables;
 import org.javimmutable.jackson.orderings.JsonJImmutableInsertOrder;
 import org.javimmutable.jackson.orderings.JsonJImmutableSorted;
 
 import javax.annotation.concurrent.Immutable;
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
 
 /**
  * Deserializer to populate an empty Insertable object in a generic way.
@@ -64,6 +73,9 @@ public class InsertableDeserializer<T extends Insertable>
     extends StdDeserializer<T>
     implements ContextualDeserializer
 {
+    @SuppressWarnings("unchecked")
+    private static final Comparator<Object> SORTED_VALUE_ORDER = (a, b) -> ((Comparable<Object>)a).compareTo(b);
+
     private final CollectionLikeType collectionType;
     private final JsonDeserializer valueDeserializer;
     private final TypeDeserializer typeDeserializer;
@@ -71,6 +83,12 @@ public class InsertableDeserializer<T extends Insertable>
     private final T empty;
     private final T sortedEmpty;
     private final T insertOrderEmpty;
+    private final ScalarKind primitiveKind;
+    private final JImmutableProjection projection;
+    private final boolean sortedValues;
+    private final ColumnarRowReader columnar;
+    private final JImmutableLimits limits;
+    private final Object[] enumConstants;
 
     public InsertableDeserializer(CollectionLikeType collectionType,
                                   JsonDeserializer valueDeserializer,
@@ -79,6 +97,35 @@ public class InsertableDeserializer<T extends Insertable>
                                   T empty,
                                   T sortedEmpty,
                                   T insertOrderEmpty)
+    {
+        this(collectionType, valueDeserializer, typeDeserializer, acceptSingleValue, empty, sortedEmpty, insertOrderEmpty, JImmutableLimits.NONE);
+    }
+
+    public InsertableDeserializer(CollectionLikeType collectionType,
+                                  JsonDeserializer valueDeserializer,
+                                  TypeDeserializer typeDeserializer,
+                                  boolean acceptSingleValue,
+                                  T empty,
+                                  T sortedEmpty,
+                                  T insertOrderEmpty,
+                                  JImmutableLimits limits)
+    {
+        this(collectionType, valueDeserializer, typeDeserializer, acceptSingleValue, empty, sortedEmpty, insertOrderEmpty, null, null, false, null, limits, null);
+    }
+
+    private InsertableDeserializer(CollectionLikeType collectionType,
+                                   JsonDeserializer valueDeserializer,
+                                   TypeDeserializer typeDeserializer,
+                                   boolean acceptSingleValue,
+                                   T empty,
+                                   T sortedEmpty,
+                                   T insertOrderEmpty,
+                                   ScalarKind primitiveKind,
+                                   JImmutableProjection projection,
+                                   boolean sortedValues,
+                                   ColumnarRowReader columnar,
+                                   JImmutableLimits limits,
+                                   Object[] enumConstants)
     {
         super(collectionType);
         this.collectionType = collectionType;
@@ -88,6 +135,20 @@ public class InsertableDeserializer<T extends Insertable>
         this.empty = empty;
         this.sortedEmpty = sortedEmpty;
         this.insertOrderEmpty = insertOrderEmpty;
+        this.primitiveKind = primitiveKind;
+        this.projection = projection;
+        this.sortedValues = sortedValues;
+        this.columnar = columnar;
+        this.limits = limits;
+        this.enumConstants = enumConstants;
+    }
+
+    /**
+     * Returns the limits applied to collections read by this deserializer.
+     */
+    public JImmutableLimits getLimits()
+    {
+        return limits;
     }
 
     @Override
@@ -107,13 +168,72 @@ public class InsertableDeserializer<T extends Insertable>
 
         T empty = selectEmptyForProperty(property, context.getParser());
         boolean acceptSingleValue = context.isEnabled(DeserializationFeature.ACCEPT_SINGLE_VALUE_AS_ARRAY);
-        return new InsertableDeserializer<>(collectionType, valueDeserializer, typeDeserializer, acceptSingleValue, empty, sortedEmpty, insertOrderEmpty);
+        ScalarKind primitiveKind = selectPrimitiveKindForProperty(property, valueDeserializer, typeDeserializer, context.getParser());
+        JImmutableProjection projection = (property == null) ? null : JImmutableProjection.forAnnotation(property.getAnnotation(JsonJImmutableProjection.class));
+        boolean sortedValues = (empty == sortedEmpty) && collectionType.isTypeOrSubTypeOf(JImmutableSet.class);
+        ColumnarRowReader columnar = selectColumnarForProperty(property, valueDeserializer, typeDeserializer, context);
+        JImmutableLimits limits = (property == null) ? this.limits : this.limits.withAnnotation(property.getAnnotation(JsonJImmutableLimits.class));
+        return new InsertableDeserializer<>(collectionType, valueDeserializer, typeDeserializer, acceptSingleValue, empty, sortedEmpty, insertOrderEmpty, primitiveKind, projection, sortedValues, columnar, limits, selectEnumConstants(empty, typeDeserializer));
+    }
+
+    /**
+     * Hash and sorted sets of an enum type are collected by ordinal before being built.
+     * Insert order sets have to see the values in their original order.
+     */
+    private Object[] selectEnumConstants(T empty,
+                                         TypeDeserializer typeDeserializer)
+    {
+        final JavaType valueType = collectionType.getContentType();
+        if (!valueType.isEnumType() || typeDeserializer != null || empty == insertOrderEmpty || !collectionType.isTypeOrSubTypeOf(JImmutableSet.class)) {
+            return null;
+        }
+        return valueType.getRawClass().getEnumConstants();
+    }
+
+    private ColumnarRowReader selectColumnarForProperty(BeanProperty property,
+                                                        JsonDeserializer<?> valueDeserializer,
+                                                        TypeDeserializer typeDeserializer,
+                                                        DeserializationContext context)
+        throws JsonMappingException
+    {
+        if (property == null || property.getAnnotation(JsonJImmutableColumnar.class) == null) {
+            return null;
+        }
+        final JavaType rowType = collectionType.getContentType();
+        final ColumnarRowReader reader = ColumnarRowReader.forDeserializer(rowType, valueDeserializer, context.getConfig());
+        if (!collectionType.isTypeOrSubTypeOf(JImmutableList.class) || typeDeserializer != null || reader == null) {
+            throw new JsonMappingException(context.getParser(), "columnar collection must be a JImmutableList of beans (" + rowType.getRawClass().getName() + ")");
+        }
+        return reader;
+    }
+
+    private ScalarKind selectPrimitiveKindForProperty(BeanProperty property,
+                                                      JsonDeserializer<?> valueDeserializer,
+                                                      TypeDeserializer typeDeserializer,
+                                                      JsonParser parser)
+        throws JsonMappingException
+    {
+        if (property == null || property.getAnnotation(JsonJImmutablePrimitive.class) == null) {
+            return null;
+        }
+        final JavaType valueType = collectionType.getContentType();
+        final ScalarKind kind = ScalarKind.forType(valueType);
+        if (kind == null || kind == ScalarKind.STRING || !collectionType.isTypeOrSubTypeOf(JImmutableList.class)) {
+            throw new JsonMappingException(parser, "primitive collection must be a JImmutableList of Integer, Long, or Double (" + valueType.getRawClass().getName() + ")");
+        }
+        if (typeDeserializer != null || !ClassUtil.isJacksonStdImpl(valueDeserializer)) {
+            return null;
+        }
+        return kind;
     }
 
     private T selectEmptyForProperty(BeanProperty property,
                                      JsonParser parser)
         throws JsonMappingException
     {
+        if (property == null) {
+            return empty;
+        }
         if (property.getAnnotation(JsonJImmutableInsertOrder.class) != null) {
             return insertOrderEmpty;
         }
@@ -132,34 +252,97 @@ public class InsertableDeserializer<T extends Insertable>
                          DeserializationContext context)
         throws IOException, JsonProcessingException
     {
-        if (parser.isExpectedStartArrayToken()) {
-            return deserializeArrayValues(parser, context);
-        } else if (acceptSingleValue) {
-            return deserializeSingleValue(parser, context);
-        } else {
-            context.handleUnexpectedToken(collectionType.getRawClass(), parser);
-            throw new IOException("expected array start token");
+        return deserialize(parser, context, empty, true);
+    }
+
+    /**
+     * Inserts the incoming values into an existing collection.  Since the collections are
+     * persistent the result is a new version that shares all of its existing structure
+     * with intoValue, which is left unchanged.
+     */
+    @Override
+    public T deserialize(JsonParser parser,
+                         DeserializationContext context,
+                         T intoValue)
+        throws IOException
+    {
+        return deserialize(parser, context, intoValue, false);
+    }
+
+    @Override
+    public Boolean supportsUpdate(DeserializationConfig config)
+    {
+        return Boolean.TRUE;
+    }
+
+    private T deserialize(JsonParser parser,
+                          DeserializationContext context,
+                          T start,
+                          boolean startIsEmpty)
+        throws IOException
+    {
+        final LimitTracker tracker = LimitTracker.enter(limits, parser, context);
+        try {
+            if (parser.isExpectedStartArrayToken()) {
+                return deserializeArrayValues(parser, context, start, startIsEmpty, tracker);
+            } else if (columnar != null && parser.isExpectedStartObjectToken()) {
+                return deserializeColumns(parser, context, start, tracker);
+            } else if (acceptSingleValue) {
+                return deserializeSingleValue(parser, context, start, tracker);
+            } else {
+                context.handleUnexpectedToken(collectionType.getRawClass(), parser);
+                throw new IOException("expected array start token");
+            }
+        } finally {
+            tracker.exit(parser);
         }
     }
 
     @SuppressWarnings("unchecked")
     private T deserializeSingleValue(JsonParser parser,
-                                     DeserializationContext context)
+                                     DeserializationContext context,
+                                     T start,
+                                     LimitTracker tracker)
         throws IOException
     {
+        if (JImmutableProjection.select(projection, parser, context).getLimit() == 0) {
+            parser.skipChildren();
+            return start;
+        }
+        tracker.element(limits, parser, 1);
         Object value = deserializeToken(parser, context, parser.getCurrentToken());
-        return (T)empty.insert(value);
+        return (T)start.insert(value);
     }
 
     @SuppressWarnings("unchecked")
     private T deserializeArrayValues(JsonParser parser,
-                                     DeserializationContext context)
+                                     DeserializationContext context,
+                                     T start,
+                                     boolean startIsEmpty,
+                                     LimitTracker tracker)
         throws IOException
     {
-        T result = empty;
+        final int limit = JImmutableProjection.select(projection, parser, context).getLimit();
+        if (primitiveKind != null && startIsEmpty) {
+            return deserializePrimitiveValues(parser, context, limit, tracker);
+        }
+        if (enumConstants != null) {
+            return deserializeEnumValues(parser, context, start, startIsEmpty, limit, tracker);
+        }
+        if (sortedValues) {
+            return deserializeSortedValues(parser, context, start, limit, tracker);
+        }
 
+        T result = start;
+
+        int count = 0;
         JsonToken token;
         while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (count++ >= limit) {
+                parser.skipChildren();
+                continue;
+            }
+            tracker.element(limits, parser, count);
             Object value = deserializeToken(parser, context, token);
             result = (T)result.insert(value);
         }
@@ -167,6 +350,187 @@ public class InsertableDeserializer<T extends Insertable>
         return result;
     }
 
+    /**
+     * Sorted sets are buffered and inserted in ascending order without duplicates
+     * (keeping the first of any equal values, as insert() would).
+     * Appending in order always follows the rightmost path of the tree which touches
+     * far fewer nodes than inserting values in arbitrary order.
+     */
+    @SuppressWarnings("unchecked")
+    private T deserializeSortedValues(JsonParser parser,
+                                      DeserializationContext context,
+                                      T start,
+                                      int limit,
+                                      LimitTracker tracker)
+        throws IOException
+    {
+        final SortedBuffer<Object> buffer = new SortedBuffer<>(SORTED_VALUE_ORDER, true);
+
+        int count = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (count++ >= limit) {
+                parser.skipChildren();
+                continue;
+            }
+            tracker.element(limits, parser, count);
+            buffer.add(deserializeToken(parser, context, token));
+        }
+
+        T result = start;
+        for (Object value : buffer.sortedUniqueValues()) {
+            result = (T)result.insert(value);
+        }
+        return result;
+    }
+
+    /**
+     * Every column has to be seen before the first row can be built so each column's values
+     * are decoded straight from the parser by the deserializer of the bean property it names
+     * and kept until the end of the object.  The limits are checked as each value is read so
+     * oversized input stops as early as it would in the row form.  Rows are then built from
+     * the decoded values using the bean's own creator and setters (see ColumnarRowReader).
+     */
+    @SuppressWarnings("unchecked")
+    private T deserializeColumns(JsonParser parser,
+                                 DeserializationContext context,
+                                 T start,
+                                 LimitTracker tracker)
+        throws IOException
+    {
+        final int limit = JImmutableProjection.select(projection, parser, context).getLimit();
+        final List<SettableBeanProperty> properties = new ArrayList<>();
+        final List<List<Object>> columns = new ArrayList<>();
+        int rowCount = -1;
+        JsonToken token;
+        while ((token = parser.nextToken()) == JsonToken.FIELD_NAME) {
+            final String name = parser.getCurrentName();
+            if (parser.nextToken() != JsonToken.START_ARRAY) {
+                throw JsonMappingException.from(parser, "column " + name + " is not an array");
+            }
+            final SettableBeanProperty property = columnar.column(name, parser, context);
+            if (property == null) {
+                continue;
+            }
+            final List<Object> column = new ArrayList<>((rowCount > 0) ? Math.min(rowCount, limit) : 10);
+            int count = 0;
+            while (parser.nextToken() != JsonToken.END_ARRAY) {
+                count += 1;
+                if (rowCount >= 0 && count > rowCount) {
+                    throw JsonMappingException.from(parser, "column " + name + " has more than the expected " + rowCount + " values");
+                }
+                if (count > limit) {
+                    parser.skipChildren();
+                    continue;
+                }
+                if (rowCount < 0) {
+                    tracker.element(limits, parser, count);
+                } else {
+                    tracker.size(limits, parser);
+                }
+                column.add(property.deserialize(parser, context));
+            }
+            if (rowCount >= 0 && count != rowCount) {
+                throw JsonMappingException.from(parser, "column " + name + " has " + count + " values but expected " + rowCount);
+            }
+            rowCount = count;
+            properties.add(property);
+            columns.add(column);
+        }
+        if (token != JsonToken.END_OBJECT) {
+            context.handleUnexpectedToken(collectionType.getRawClass(), parser);
+            throw new IOException("expected field name");
+        }
+
+        T result = start;
+        final int rows = columns.isEmpty() ? 0 : columns.get(0).size();
+        for (int i = 0; i < rows; ++i) {
+            result = (T)result.insert(columnar.row(properties, columns, i, context));
+        }
+        return result;
+    }
+
+    /**
+     * Enum values are collected in a bitset so duplicates are free.  A new JImmutableSet
+     * (hash ordering) keeps the bitset itself as an OrdinalSet.  Otherwise the set is built
+     * in ordinal order, which is also the natural order used by sorted sets.
+     */
+    @SuppressWarnings("unchecked")
+    private T deserializeEnumValues(JsonParser parser,
+                                    DeserializationContext context,
+                                    T start,
+                                    boolean startIsEmpty,
+                                    int limit,
+                                    LimitTracker tracker)
+        throws IOException
+    {
+        final EnumBuffer buffer = new EnumBuffer(enumConstants, false);
+
+        T result = start;
+        boolean allConstants = true;
+        int count = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (count++ >= limit) {
+                parser.skipChildren();
+                continue;
+            }
+            tracker.element(limits, parser, count);
+            final Object value = deserializeToken(parser, context, token);
+            if (!buffer.add(value, null)) {
+                result = (T)result.insert(value);
+                allConstants = false;
+            }
+        }
+
+        if (allConstants && startIsEmpty && empty != sortedEmpty && collectionType.getRawClass() == JImmutableSet.class) {
+            return (T)OrdinalSet.build(buffer);
+        }
+        for (int ordinal = buffer.nextOrdinal(0); ordinal >= 0; ordinal = buffer.nextOrdinal(ordinal + 1)) {
+            result = (T)result.insert(buffer.constant(ordinal));
+        }
+        return result;
+    }
+
+    /**
+     * Numbers are collected into a primitive array and returned as a PrimitiveList.  Any other
+     * token (such as a null) switches to a standard list holding the values read so far.
+     */
+    @SuppressWarnings("unchecked")
+    private T deserializePrimitiveValues(JsonParser parser,
+                                         DeserializationContext context,
+                                         int limit,
+                                         LimitTracker tracker)
+        throws IOException
+    {
+        final PrimitiveList.Buffer buffer = PrimitiveList.buffer(primitiveKind);
+        JImmutableList.Builder<Object> builder = null;
+
+        int count = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (count++ >= limit) {
+                parser.skipChildren();
+                continue;
+            }
+            tracker.element(limits, parser, count);
+            if (builder == null && primitiveKind.accepts(token)) {
+                buffer.add(parser);
+                continue;
+            }
+            if (builder == null) {
+                builder = buffer.toBuilder();
+            }
+            if (primitiveKind.accepts(token)) {
+                builder.add(primitiveKind.read(parser));
+            } else {
+                builder.add(deserializeToken(parser, context, token));
+            }
+        }
+
+        return (T)((builder == null) ? buffer.build() : builder.build());
+    }
+
     private Object deserializeToken(JsonParser parser,
                                     DeserializationContext context,
                                     JsonToken token)
@@ -37,7 +37,6 @@ package org.javimmutable.jackson;
 
 import com.fasterxml.jackson.databind.BeanDescription;
 import com.fasterxml.jackson.databind.DeserializationConfig;
-import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.JsonDeserializer;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.KeyDeserializer;
@@ -60,6 +59,18 @@ import static org.javimmutable.collections.util.JImmutables.*;
 public class JImmutableDeserializers
     extends Deserializers.Base
 {
+    private final JImmutableLimits limits;
+
+    public JImmutableDeserializers()
+    {
+        this(JImmutableLimits.NONE);
+    }
+
+    public JImmutableDeserializers(JImmutableLimits limits)
+    {
+        this.limits = limits;
+    }
+
     @Override
     public JsonDeserializer<?> findMapLikeDeserializer(MapLikeType type,
                                                        DeserializationConfig config,
@@ -70,11 +81,7 @@ public class JImmutableDeserializers
         throws JsonMappingException
     {
         if (type.isTypeOrSubTypeOf(JImmutableMap.class)) {
-            final JavaType keyType = type.getKeyType();
-            if (!keyType.isTypeOrSubTypeOf(String.class)) {
-                throw new IllegalArgumentException("JImmutableMaps must have String keys (" + keyType.getRawClass().getName() + ")");
-            }
-            return new JImmutableMapDeserializer<>(type, keyDeserializer, elementDeserializer, elementTypeDeserializer, JImmutables::mapBuilder);
+            return new JImmutableMapDeserializer<>(type, keyDeserializer, elementDeserializer, elementTypeDeserializer, JImmutables::mapBuilder, limits);
         }
         return super.findMapLikeDeserializer(type, config, beanDesc, keyDeserializer, elementTypeDeserializer, elementDeserializer);
     }
@@ -89,9 +96,9 @@ public class JImmutableDeserializers
     {
         if (type.isTypeOrSubTypeOf(Insertable.class)) {
             if (type.isTypeOrSubTypeOf(JImmutableList.class)) {
-                return new InsertableDeserializer<>(type, elementDeserializer, elementTypeDeserializer, false, list(), list(), list());
+                return new InsertableDeserializer<>(type, elementDeserializer, elementTypeDeserializer, false, list(), list(), list(), limits);
             } else if (type.isTypeOrSubTypeOf(JImmutableSet.class)) {
-                return new InsertableDeserializer<>(type, elementDeserializer, elementTypeDeserializer, false, set(), sortedSet(), insertOrderSet());
+                return new InsertableDeserializer<>(type, elementDeserializer, elementTypeDeserializer, false, set(), sortedSet(), insertOrderSet(), limits);
             }
             throw new IllegalArgumentException("Class is not supported: " + type.getRawClass().getName());
         }
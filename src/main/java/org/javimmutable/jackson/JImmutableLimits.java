@@ -0,0 +1,141 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson;
+
+import javax.annotation.concurrent.Immutable;
+
+/**
+ * Limits applied while deserializing JImmutable collections so that oversized or malicious
+ * input fails with a JsonMappingException as soon as a limit is reached rather than after
+ * the whole payload has been decoded.  Limits can be set for every collection using
+ * {@link JImmutableModule#JImmutableModule(JImmutableLimits)} and adjusted for a single
+ * property using @JsonJImmutableLimits.
+ * <ul>
+ * <li>maxElements limits the number of elements or entries in any single collection.</li>
+ * <li>maxDepth limits how deeply JImmutable collections can be nested inside one another.</li>
+ * <li>maxBytes limits the estimated memory retained by all of the collections read by one
+ * call to the ObjectMapper.  The estimate is based on the amount of input consumed plus a
+ * fixed overhead per element so it is only approximate.</li>
+ * </ul>
+ */
+@Immutable
+public final class JImmutableLimits
+{
+    public static final JImmutableLimits NONE = new JImmutableLimits(Integer.MAX_VALUE, Integer.MAX_VALUE, Long.MAX_VALUE);
+
+    private final int maxElements;
+    private final int maxDepth;
+    private final long maxBytes;
+
+    private JImmutableLimits(int maxElements,
+                             int maxDepth,
+                             long maxBytes)
+    {
+        if (maxElements < 0) {
+            throw new IllegalArgumentException("maxElements must not be negative: " + maxElements);
+        }
+        if (maxDepth < 1) {
+            throw new IllegalArgumentException("maxDepth must be at least 1: " + maxDepth);
+        }
+        if (maxBytes < 0) {
+            throw new IllegalArgumentException("maxBytes must not be negative: " + maxBytes);
+        }
+        this.maxElements = maxElements;
+        this.maxDepth = maxDepth;
+        this.maxBytes = maxBytes;
+    }
+
+    public JImmutableLimits withMaxElements(int maxElements)
+    {
+        return new JImmutableLimits(maxElements, maxDepth, maxBytes);
+    }
+
+    public JImmutableLimits withMaxDepth(int maxDepth)
+    {
+        return new JImmutableLimits(maxElements, maxDepth, maxBytes);
+    }
+
+    public JImmutableLimits withMaxBytes(long maxBytes)
+    {
+        return new JImmutableLimits(maxElements, maxDepth, maxBytes);
+    }
+
+    public int getMaxElements()
+    {
+        return maxElements;
+    }
+
+    public int getMaxDepth()
+    {
+        return maxDepth;
+    }
+
+    public long getMaxBytes()
+    {
+        return maxBytes;
+    }
+
+    boolean isUnlimited()
+    {
+        return maxElements == Integer.MAX_VALUE && maxDepth == Integer.MAX_VALUE && maxBytes == Long.MAX_VALUE;
+    }
+
+    boolean hasMaxBytes()
+    {
+        return maxBytes != Long.MAX_VALUE;
+    }
+
+    /**
+     * Returns these limits with any values specified by the annotation replacing our own.
+     */
+    JImmutableLimits withAnnotation(JsonJImmutableLimits annotation)
+    {
+        if (annotation == null) {
+            return this;
+        }
+        JImmutableLimits limits = this;
+        if (annotation.maxElements() != Integer.MAX_VALUE) {
+            limits = limits.withMaxElements(annotation.maxElements());
+        }
+        if (annotation.maxDepth() != Integer.MAX_VALUE) {
+            limits = limits.withMaxDepth(annotation.maxDepth());
+        }
+        if (annotation.maxBytes() != Long.MAX_VALUE) {
+            limits = limits.withMaxBytes(annotation.maxBytes());
+        }
+        return limits;
+    }
+}
@@ -35,10 +35,12 @@
 
 package org.javimmutable.jackson;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.core.JsonParser;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.JsonToken;
 import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.DeserializationConfig;
 import com.fasterxml.jackson.databind.DeserializationContext;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.JsonDeserializer;
@@ -56,6 +58,9 @@ import org.javimmutable.jackson.orderings.JsonJImmutableSorted;
 
 import javax.annotation.concurrent.Immutable;
 import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.Comparator;
+import java.util.Map;
 import java.util.function.Supplier;
 
 /**
@@ -67,17 +72,51 @@ public class JImmutableMapDeserializer<T extends JImmutableMap<Object, Object>>
     extends StdDeserializer<T>
     implements ContextualDeserializer
 {
+    @SuppressWarnings("unchecked")
+    private static final Comparator<Map.Entry<Object, Object>> SORTED_KEY_ORDER = (a, b) -> ((Comparable<Object>)a.getKey()).compareTo(b.getKey());
+
     private final MapLikeType mapType;
     private final KeyDeserializer keyDeserializer;
     private final JsonDeserializer valueDeserializer;
     private final TypeDeserializer typeDeserializer;
     private final Supplier<JImmutableMap.Builder> builderFactory;
+    private final JImmutableProjection projection;
+    private final boolean sortedKeys;
+    private final JsonDeserializer pairKeyDeserializer;
+    private final JImmutableLimits limits;
+    private final Object[] keyConstants;
+    private final KeyDecoder keyDecoder;
 
     public JImmutableMapDeserializer(MapLikeType mapType,
                                      KeyDeserializer keyDeserializer,
                                      JsonDeserializer valueDeserializer,
                                      TypeDeserializer typeDeserializer,
                                      Supplier<JImmutableMap.Builder> builderFactory)
+    {
+        this(mapType, keyDeserializer, valueDeserializer, typeDeserializer, builderFactory, JImmutableLimits.NONE);
+    }
+
+    public JImmutableMapDeserializer(MapLikeType mapType,
+                                     KeyDeserializer keyDeserializer,
+                                     JsonDeserializer valueDeserializer,
+                                     TypeDeserializer typeDeserializer,
+                                     Supplier<JImmutableMap.Builder> builderFactory,
+                                     JImmutableLimits limits)
+    {
+        this(mapType, keyDeserializer, valueDeserializer, typeDeserializer, builderFactory, null, false, null, limits, null, null);
+    }
+
+    private JImmutableMapDeserializer(MapLikeType mapType,
+                                      KeyDeserializer keyDeserializer,
+                                      JsonDeserializer valueDeserializer,
+                                      TypeDeserializer typeDeserializer,
+                                      Supplier<JImmutableMap.Builder> builderFactory,
+                                      JImmutableProjection projection,
+                                      boolean sortedKeys,
+                                      JsonDeserializer pairKeyDeserializer,
+                                      JImmutableLimits limits,
+                                      Object[] keyConstants,
+                                      KeyDecoder keyDecoder)
     {
         super(mapType);
         this.mapType = mapType;
@@ -85,6 +124,20 @@ public class JImmutableMapDeserializer<T extends JImmutableMap<Object, Object>>
         this.valueDeserializer = valueDeserializer;
         this.typeDeserializer = typeDeserializer;
         this.builderFactory = builderFactory;
+        this.projection = projection;
+        this.sortedKeys = sortedKeys;
+        this.pairKeyDeserializer = pairKeyDeserializer;
+        this.limits = limits;
+        this.keyConstants = keyConstants;
+        this.keyDecoder = keyDecoder;
+    }
+
+    /**
+     * Returns the limits applied to collections read by this deserializer.
+     */
+    public JImmutableLimits getLimits()
+    {
+        return limits;
     }
 
     @Override
@@ -108,13 +161,35 @@ public class JImmutableMapDeserializer<T extends JImmutableMap<Object, Object>>
         }
 
         final Supplier<JImmutableMap.Builder> builderFactory = selectBuilderForProperty(property, context.getParser());
-        return new JImmutableMapDeserializer<>(mapType, keyDeserializer, valueDeserializer, typeDeserializer, builderFactory);
+        final JImmutableProjection projection = (property == null) ? null : JImmutableProjection.forAnnotation(property.getAnnotation(JsonJImmutableProjection.class));
+        final boolean sortedKeys = (property != null) && (property.getAnnotation(JsonJImmutableInsertOrder.class) == null) && (property.getAnnotation(JsonJImmutableSorted.class) != null);
+        final JsonFormat.Value format = findFormatOverrides(context, property, handledType());
+        final JsonDeserializer<?> pairKeyDeserializer = (format != null && format.getShape() == JsonFormat.Shape.ARRAY) ? context.findContextualValueDeserializer(mapType.getKeyType(), property) : null;
+        final JImmutableLimits limits = (property == null) ? this.limits : this.limits.withAnnotation(property.getAnnotation(JsonJImmutableLimits.class));
+        final KeyDecoder keyDecoder = KeyDecoder.forKeyDeserializer(keyDeserializer, mapType.getKeyType(), context);
+        return new JImmutableMapDeserializer<>(mapType, keyDeserializer, valueDeserializer, typeDeserializer, builderFactory, projection, sortedKeys, pairKeyDeserializer, limits, selectKeyConstants(property), keyDecoder);
+    }
+
+    /**
+     * Hash and sorted maps with enum keys are collected by ordinal before being built.
+     * Insert order maps have to see the keys in their original order.
+     */
+    private Object[] selectKeyConstants(BeanProperty property)
+    {
+        final JavaType keyType = mapType.getKeyType();
+        if (!keyType.isEnumType() || (property != null && property.getAnnotation(JsonJImmutableInsertOrder.class) != null)) {
+            return null;
+        }
+        return keyType.getRawClass().getEnumConstants();
     }
 
     private Supplier<JImmutableMap.Builder> selectBuilderForProperty(BeanProperty property,
                                                                      JsonParser parser)
         throws JsonMappingException
     {
+        if (property == null) {
+            return builderFactory;
+        }
         if (property.getAnnotation(JsonJImmutableInsertOrder.class) != null) {
             return JImmutableInsertOrderMap::builder;
         }
@@ -133,27 +208,187 @@ public class JImmutableMapDeserializer<T extends JImmutableMap<Object, Object>>
     public T deserialize(JsonParser parser,
                          DeserializationContext context)
         throws IOException, JsonProcessingException
+    {
+        final JImmutableMap.Builder<Object, Object> builder = builderFactory.get();
+        if (keyConstants != null) {
+            final EnumBuffer buffer = new EnumBuffer(keyConstants, true);
+            deserializeEntries(parser, context, (key, token) -> {
+                final Object value = deserializeValueToken(parser, context, token);
+                if (!buffer.add(key, value)) {
+                    builder.add(key, value);
+                }
+            });
+            // a new JImmutableMap (hash ordering) keeps the ordinal indexed values as an OrdinalMap
+            if (!sortedKeys && builder.size() == 0 && mapType.getRawClass() == JImmutableMap.class) {
+                return (T)OrdinalMap.build(buffer);
+            }
+            // enum keys reach the builder in ordinal (and therefore natural) order without duplicates
+            for (int ordinal = buffer.nextOrdinal(0); ordinal >= 0; ordinal = buffer.nextOrdinal(ordinal + 1)) {
+                builder.add(buffer.constant(ordinal), buffer.value(ordinal));
+            }
+        } else if (sortedKeys) {
+            final SortedBuffer<Map.Entry<Object, Object>> buffer = new SortedBuffer<>(SORTED_KEY_ORDER, false);
+            deserializeEntries(parser, context, (key, token) -> buffer.add(new AbstractMap.SimpleImmutableEntry<>(key, deserializeValueToken(parser, context, token))));
+            // keys reach the builder in ascending order with later duplicates replacing earlier ones
+            for (Map.Entry<Object, Object> entry : buffer.sortedUniqueValues()) {
+                builder.add(entry.getKey(), entry.getValue());
+            }
+        } else {
+            deserializeEntries(parser, context, (key, token) -> builder.add(key, deserializeValueToken(parser, context, token)));
+        }
+        return (T)builder.build();
+    }
+
+    /**
+     * Assigns the incoming entries to an existing map.  Since the maps are persistent the
+     * result is a new version that shares every untouched node with intoValue, which is
+     * left unchanged.  Values that are themselves JImmutable collections are merged
+     * recursively rather than replaced.
+     */
+    @SuppressWarnings("unchecked")
+    @Override
+    public T deserialize(JsonParser parser,
+                         DeserializationContext context,
+                         T intoValue)
+        throws IOException
+    {
+        final boolean mergeValues = typeDeserializer == null && isPersistent(valueDeserializer);
+        final JImmutableMap<Object, Object>[] result = new JImmutableMap[]{intoValue};
+        deserializeEntries(parser, context, (key, token) -> {
+            Object oldValue = mergeValues ? result[0].get(key) : null;
+            Object value;
+            if (oldValue == null || token == JsonToken.VALUE_NULL) {
+                value = deserializeValueToken(parser, context, token);
+            } else {
+                value = valueDeserializer.deserialize(parser, context, oldValue);
+            }
+            result[0] = result[0].assign(key, value);
+        });
+        return (T)result[0];
+    }
+
+    @Override
+    public Boolean supportsUpdate(DeserializationConfig config)
+    {
+        return Boolean.TRUE;
+    }
+
+    /**
+     * Only our own deserializers are known to return a new value when updating.
+     * Anything else (beans for example) would be modified in place which would
+     * also change the value held by the original map.
+     */
+    private static boolean isPersistent(JsonDeserializer<?> deserializer)
+    {
+        return (deserializer instanceof JImmutableMapDeserializer) || (deserializer instanceof InsertableDeserializer);
+    }
+
+    /**
+     * Reads every entry of the map (in object or array of pairs form) and passes each
+     * key accepted by the projection to the sink with the parser positioned on the first
+     * token of its value.  The sink must consume the value.
+     */
+    private void deserializeEntries(JsonParser parser,
+                                    DeserializationContext context,
+                                    EntrySink sink)
+        throws IOException
+    {
+        final JImmutableProjection projection = JImmutableProjection.select(this.projection, parser, context);
+        final LimitTracker tracker = LimitTracker.enter(limits, parser, context);
+        try {
+            if (pairKeyDeserializer != null) {
+                deserializePairs(parser, context, projection, tracker, sink);
+            } else {
+                deserializeFields(parser, context, projection, tracker, sink);
+            }
+        } finally {
+            tracker.exit(parser);
+        }
+    }
+
+    private void deserializeFields(JsonParser parser,
+                                   DeserializationContext context,
+                                   JImmutableProjection projection,
+                                   LimitTracker tracker,
+                                   EntrySink sink)
+        throws IOException
     {
         if (!parser.isExpectedStartObjectToken()) {
             context.handleUnexpectedToken(mapType.getRawClass(), parser);
             throw new IOException("expected array start token");
         }
+        int count = 0;
+        while (nextFieldName(parser, context)) {
+            if (count >= projection.getLimit() || !projection.allowsKey(parser.getCurrentName())) {
+                skipValue(parser);
+                continue;
+            }
+            count += 1;
+            tracker.element(limits, parser, count);
+            Object key = deserializeKeyToken(parser, context);
+            sink.accept(key, parser.nextToken());
+        }
+    }
 
-        final JImmutableMap.Builder<Object, Object> builder = builderFactory.get();
-        while (true) {
-            JsonToken token = parser.nextToken();
-            if (token == JsonToken.END_OBJECT) {
-                break;
+    private void deserializePairs(JsonParser parser,
+                                  DeserializationContext context,
+                                  JImmutableProjection projection,
+                                  LimitTracker tracker,
+                                  EntrySink sink)
+        throws IOException
+    {
+        if (!parser.isExpectedStartArrayToken()) {
+            context.handleUnexpectedToken(mapType.getRawClass(), parser);
+            throw new IOException("expected array start token");
+        }
+        int count = 0;
+        JsonToken token;
+        while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+            if (token != JsonToken.START_ARRAY) {
+                context.handleUnexpectedToken(mapType.getRawClass(), parser);
+                throw new IOException("expected array start token for key/value pair");
             }
-            if (token != JsonToken.FIELD_NAME) {
+            if (count >= projection.getLimit()) {
+                parser.skipChildren();
+                continue;
+            }
+            token = parser.nextToken();
+            final Object key = (token == JsonToken.VALUE_NULL) ? null : pairKeyDeserializer.deserialize(parser, context);
+            token = parser.nextToken();
+            if (projection.allowsKey(String.valueOf(key))) {
+                count += 1;
+                tracker.element(limits, parser, count);
+                sink.accept(key, token);
+            } else {
+                parser.skipChildren();
+            }
+            if (parser.nextToken() != JsonToken.END_ARRAY) {
                 context.handleUnexpectedToken(mapType.getRawClass(), parser);
-                throw new IOException("expected field name");
+                throw new IOException("expected array end token for key/value pair");
             }
-            Object key = deserializeKeyToken(parser, context);
-            Object value = deserializeValueToken(parser, context, parser.nextToken());
-            builder.add(key, value);
         }
-        return (T)builder.build();
+    }
+
+    private boolean nextFieldName(JsonParser parser,
+                                  DeserializationContext context)
+        throws IOException
+    {
+        JsonToken token = parser.nextToken();
+        if (token == JsonToken.END_OBJECT) {
+            return false;
+        }
+        if (token != JsonToken.FIELD_NAME) {
+            context.handleUnexpectedToken(mapType.getRawClass(), parser);
+            throw new IOException("expected field name");
+        }
+        return true;
+    }
+
+    private void skipValue(JsonParser parser)
+        throws IOException
+    {
+        parser.nextToken();
+        parser.skipChildren();
     }
 
     private Object deserializeKeyToken(JsonParser parser,
@@ -163,9 +398,14 @@ public class JImmutableMapDeserializer<T extends JImmutableMap<Object, Object>>
         final String field = parser.getCurrentName();
         if (keyDeserializer == null) {
             return field;
-        } else {
-            return keyDeserializer.deserializeKey(field, context);
         }
+        if (keyDecoder != null) {
+            final Object key = keyDecoder.decode(field);
+            if (key != null) {
+                return key;
+            }
+        }
+        return keyDeserializer.deserializeKey(field, context);
     }
 
     private Object deserializeValueToken(JsonParser parser,
@@ -183,4 +423,12 @@ public class JImmutableMapDeserializer<T extends JImmutableMap<Object, Object>>
         }
         return value;
     }
+
+    @FunctionalInterface
+    private interface EntrySink
+    {
+        void accept(Object key,
+                    JsonToken valueToken)
+            throws IOException;
+    }
 }
@@ -0,0 +1,194 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.WritableTypeId;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.ser.ContainerSerializer;
+import com.fasterxml.jackson.databind.ser.impl.PropertySerializerMap;
+import org.javimmutable.collections.JImmutableMap;
+
+import java.io.IOException;
+import java.util.Map;
+
+/**
+ * Serializer for JImmutableMap properties annotated with @JsonFormat(shape = ARRAY).
+ * The map is written as an array of [key, value] pairs and keys are written using
+ * their regular value serializers so numeric or structured keys keep their JSON type
+ * instead of being converted into field name strings.  Serializers for keys and for
+ * values without a static serializer are looked up once per class.
+ */
+public class JImmutableMapPairsSerializer
+    extends ContainerSerializer<JImmutableMap<?, ?>>
+{
+    private final BeanProperty property;
+    private final JavaType valueType;
+    private final TypeSerializer valueTypeSerializer;
+    private final JsonSerializer<Object> valueSerializer;
+    private PropertySerializerMap keySerializers;
+    private PropertySerializerMap valueSerializers;
+
+    @SuppressWarnings("unchecked")
+    JImmutableMapPairsSerializer(BeanProperty property,
+                                 JavaType valueType,
+                                 TypeSerializer valueTypeSerializer,
+                                 JsonSerializer<?> valueSerializer)
+    {
+        super(JImmutableMap.class, false);
+        this.property = property;
+        this.valueType = valueType;
+        this.valueTypeSerializer = valueTypeSerializer;
+        this.valueSerializer = (JsonSerializer<Object>)valueSerializer;
+        keySerializers = PropertySerializerMap.emptyForProperties();
+        valueSerializers = PropertySerializerMap.emptyForProperties();
+    }
+
+    @Override
+    public JavaType getContentType()
+    {
+        return valueType;
+    }
+
+    @Override
+    public JsonSerializer<?> getContentSerializer()
+    {
+        return valueSerializer;
+    }
+
+    @Override
+    public boolean isEmpty(SerializerProvider provider,
+                           JImmutableMap<?, ?> value)
+    {
+        return value.isEmpty();
+    }
+
+    @Override
+    public boolean hasSingleElement(JImmutableMap<?, ?> value)
+    {
+        return value.size() == 1;
+    }
+
+    @Override
+    protected JImmutableMapPairsSerializer _withValueTypeSerializer(TypeSerializer vts)
+    {
+        return new JImmutableMapPairsSerializer(property, valueType, vts, valueSerializer);
+    }
+
+    @Override
+    public void serialize(JImmutableMap<?, ?> value,
+                          JsonGenerator gen,
+                          SerializerProvider provider)
+        throws IOException
+    {
+        gen.setCurrentValue(value);
+        gen.writeStartArray();
+        writePairs(value, gen, provider);
+        gen.writeEndArray();
+    }
+
+    @Override
+    public void serializeWithType(JImmutableMap<?, ?> value,
+                                  JsonGenerator gen,
+                                  SerializerProvider provider,
+                                  TypeSerializer typeSer)
+        throws IOException
+    {
+        gen.setCurrentValue(value);
+        final WritableTypeId typeId = typeSer.writeTypePrefix(gen, typeSer.typeId(OrdinalMap.typeIdValue(value), JsonToken.START_ARRAY));
+        writePairs(value, gen, provider);
+        typeSer.writeTypeSuffix(gen, typeId);
+    }
+
+    private void writePairs(JImmutableMap<?, ?> value,
+                            JsonGenerator gen,
+                            SerializerProvider provider)
+        throws IOException
+    {
+        for (Map.Entry<?, ?> entry : value.getMap().entrySet()) {
+            gen.writeStartArray();
+            final Object key = entry.getKey();
+            if (key == null) {
+                provider.defaultSerializeNull(gen);
+            } else {
+                keySerializerFor(key.getClass(), provider).serialize(key, gen, provider);
+            }
+            final Object element = entry.getValue();
+            if (element == null) {
+                provider.defaultSerializeNull(gen);
+            } else {
+                final JsonSerializer<Object> serializer = (valueSerializer != null) ? valueSerializer : valueSerializerFor(element.getClass(), provider);
+                if (valueTypeSerializer == null) {
+                    serializer.serialize(element, gen, provider);
+                } else {
+                    serializer.serializeWithType(element, gen, provider, valueTypeSerializer);
+                }
+            }
+            gen.writeEndArray();
+        }
+    }
+
+    private JsonSerializer<Object> keySerializerFor(Class<?> type,
+                                                    SerializerProvider provider)
+        throws IOException
+    {
+        JsonSerializer<Object> serializer = keySerializers.serializerFor(type);
+        if (serializer == null) {
+            final PropertySerializerMap.SerializerAndMapResult result = keySerializers.findAndAddSecondarySerializer(type, provider, property);
+            keySerializers = result.map;
+            serializer = result.serializer;
+        }
+        return serializer;
+    }
+
+    private JsonSerializer<Object> valueSerializerFor(Class<?> type,
+                                                      SerializerProvider provider)
+        throws IOException
+    {
+        JsonSerializer<Object> serializer = valueSerializers.serializerFor(type);
+        if (serializer == null) {
+            final PropertySerializerMap.SerializerAndMapResult result = valueSerializers.findAndAddSecondarySerializer(type, provider, property);
+            valueSerializers = result.map;
+            serializer = result.serializer;
+        }
+        return serializer;
+    }
+}
@@ -35,19 +35,28 @@
 
 package org.javimmutable.jackson;
 
+import com.fasterxml.jackson.annotation.JsonFilter;
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.WritableTypeId;
 import com.fasterxml.jackson.databind.BeanProperty;
 import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.JsonMappingException;
 import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import com.fasterxml.jackson.databind.SerializerProvider;
 import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
 import com.fasterxml.jackson.databind.ser.ContainerSerializer;
 import com.fasterxml.jackson.databind.ser.ContextualSerializer;
 import com.fasterxml.jackson.databind.ser.std.MapSerializer;
+import com.fasterxml.jackson.databind.ser.std.StdKeySerializers;
 import org.javimmutable.collections.JImmutableMap;
 
 import java.io.IOException;
+import java.util.Collections;
 import java.util.Map;
 
 public class JImmutableMapSerializer
@@ -55,11 +64,28 @@ public class JImmutableMapSerializer
     implements ContextualSerializer
 {
     private final MapSerializer map;
+    private final TypeSerializer valueTypeSerializer;
+    private final ScalarKind valueKind;
 
     public JImmutableMapSerializer(MapSerializer map)
+    {
+        this(map, null, null);
+    }
+
+    public JImmutableMapSerializer(MapSerializer map,
+                                   TypeSerializer valueTypeSerializer)
+    {
+        this(map, valueTypeSerializer, null);
+    }
+
+    private JImmutableMapSerializer(MapSerializer map,
+                                    TypeSerializer valueTypeSerializer,
+                                    ScalarKind valueKind)
     {
         super(JImmutableMap.class, false);
         this.map = map;
+        this.valueTypeSerializer = valueTypeSerializer;
+        this.valueKind = valueKind;
     }
 
     @Override
@@ -74,16 +100,28 @@ public class JImmutableMapSerializer
         return map.getContentSerializer();
     }
 
+    /**
+     * Empty maps are recognized without creating a java.util.Map view.  Non-empty maps are
+     * passed to the MapSerializer since its content inclusion settings can make a map whose
+     * values are all suppressed count as empty.
+     */
+    @Override
+    public boolean isEmpty(SerializerProvider provider,
+                           JImmutableMap<?, ?> value)
+    {
+        return value.isEmpty() || (valueKind == null && map.isEmpty(provider, value.getMap()));
+    }
+
     @Override
     public boolean hasSingleElement(JImmutableMap<?, ?> value)
     {
-        return map.hasSingleElement(value.getMap());
+        return value.size() == 1;
     }
 
     @Override
     protected JImmutableMapSerializer _withValueTypeSerializer(TypeSerializer vts)
     {
-        return new JImmutableMapSerializer(map._withValueTypeSerializer(vts));
+        return new JImmutableMapSerializer(map._withValueTypeSerializer(vts), vts);
     }
 
     @Override
@@ -91,22 +129,84 @@ public class JImmutableMapSerializer
                                               BeanProperty property)
         throws JsonMappingException
     {
-        final JsonSerializer<?> mapSer = map.createContextual(prov, property);
-        return new JsonSerializer<Object>()
-        {
-            @SuppressWarnings("unchecked")
-            private final JsonSerializer<Map<?, ?>> callableSerializer = (JsonSerializer<Map<?, ?>>)mapSer;
+        // MapSerializer always returns another MapSerializer from createContextual()
+        final MapSerializer mapSer = (MapSerializer)map.createContextual(prov, property);
+        final JsonFormat.Value format = findFormatOverrides(prov, property, handledType());
+        if (format != null && format.getShape() == JsonFormat.Shape.ARRAY) {
+            return new JImmutableMapPairsSerializer(property, mapSer.getContentType(), valueTypeSerializer, mapSer.getContentSerializer());
+        }
+        return new JImmutableMapSerializer(mapSer, valueTypeSerializer, selectScalarKind(prov, property, mapSer));
+    }
 
-            @Override
-            public void serialize(Object value,
-                                  JsonGenerator gen,
-                                  SerializerProvider serializers)
-                throws IOException
-            {
-                JImmutableMap jm = (JImmutableMap)value;
-                callableSerializer.serialize(jm.getMap(), gen, serializers);
+    /**
+     * Maps with String keys and String or numeric values can be written directly when
+     * nothing configured for the property or the mapper could change the output of the
+     * MapSerializer.  The checks are deliberately conservative since anything they miss
+     * would silently change the output.
+     */
+    private ScalarKind selectScalarKind(SerializerProvider prov,
+                                        BeanProperty property,
+                                        MapSerializer contextual)
+    {
+        final ScalarKind kind = ScalarKind.forType(contextual.getContentType());
+        if (kind == null || valueTypeSerializer != null || !kind.isStandardSerializer(contextual.getContentSerializer())) {
+            return null;
+        }
+        if (!(contextual.getKeySerializer() instanceof StdKeySerializers.StringKeySerializer)) {
+            return null;
+        }
+        if (suppressesNulls(prov, contextual)) {
+            return null;
+        }
+        if (prov.getConfig().findConfigOverride(Map.class) != null) {
+            return null;
+        }
+        final JsonInclude.Value inclusion = findIncludeOverrides(prov, property, Map.class);
+        if (inclusion != null && !isIncludeAll(inclusion.getContentInclusion())) {
+            return null;
+        }
+        if (property != null) {
+            if ((property.getAnnotation(JsonInclude.class) != null) ||
+                (property.getAnnotation(JsonIgnoreProperties.class) != null) ||
+                (property.getAnnotation(JsonFilter.class) != null) ||
+                (property.getAnnotation(JsonFormat.class) != null)) {
+                return null;
+            }
+        }
+        return kind;
+    }
+
+    /**
+     * The contextual MapSerializer has already resolved the effective content inclusion from
+     * the property, the mapper defaults, and any legacy features so it is simply asked whether
+     * a map holding only a null value would be written as empty.
+     */
+    private static boolean suppressesNulls(SerializerProvider prov,
+                                           MapSerializer contextual)
+    {
+        return contextual.isEmpty(prov, Collections.singletonMap("", null));
+    }
+
+    private static boolean isIncludeAll(JsonInclude.Include include)
+    {
+        return include == JsonInclude.Include.ALWAYS || include == JsonInclude.Include.USE_DEFAULTS;
+    }
+
+    /**
+     * Returns the java.util.Map to hand to the MapSerializer.  When entries are to be ordered
+     * by key a SortedMap view is used so that MapSerializer does not copy the whole map into
+     * a TreeMap first.
+     */
+    private static Map<?, ?> mapForSerialization(JImmutableMap<?, ?> value,
+                                                 SerializerProvider provider)
+    {
+        if (provider.isEnabled(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS)) {
+            final Map<?, ?> sorted = SortedKeyView.of(value);
+            if (sorted != null) {
+                return sorted;
             }
-        };
+        }
+        return value.getMap();
     }
 
     @Override
@@ -115,6 +215,67 @@ public class JImmutableMapSerializer
                           SerializerProvider provider)
         throws IOException
     {
-        map.serialize(value.getMap(), gen, provider);
+        final Map<?, ?> javaMap = mapForSerialization(value, provider);
+        if (!canWriteDirectly(javaMap, provider)) {
+            map.serialize(javaMap, gen, provider);
+            return;
+        }
+        gen.setCurrentValue(value);
+        gen.writeStartObject();
+        writeEntries(javaMap, gen, provider);
+        gen.writeEndObject();
+    }
+
+    /**
+     * Type ids are always derived from the JImmutableMap itself rather than from the
+     * java.util.Map view handed to the MapSerializer.
+     */
+    @Override
+    public void serializeWithType(JImmutableMap<?, ?> value,
+                                  JsonGenerator gen,
+                                  SerializerProvider provider,
+                                  TypeSerializer typeSer)
+        throws IOException
+    {
+        final Map<?, ?> javaMap = mapForSerialization(value, provider);
+        if (!canWriteDirectly(javaMap, provider)) {
+            map.serializeWithType(javaMap, gen, provider, new OriginalValueTypeSerializer(typeSer, OrdinalMap.typeIdValue(value)));
+            return;
+        }
+        gen.setCurrentValue(value);
+        final WritableTypeId typeId = typeSer.writeTypePrefix(gen, typeSer.typeId(OrdinalMap.typeIdValue(value), JsonToken.START_OBJECT));
+        writeEntries(javaMap, gen, provider);
+        typeSer.writeTypeSuffix(gen, typeId);
+    }
+
+    private boolean canWriteDirectly(Map<?, ?> javaMap,
+                                     SerializerProvider provider)
+    {
+        return valueKind != null && (javaMap instanceof SortedKeyView || !provider.isEnabled(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS));
+    }
+
+    private void writeEntries(Map<?, ?> javaMap,
+                              JsonGenerator gen,
+                              SerializerProvider provider)
+        throws IOException
+    {
+        for (Map.Entry<?, ?> entry : javaMap.entrySet()) {
+            final Object key = entry.getKey();
+            if (key instanceof String) {
+                gen.writeFieldName((String)key);
+            } else if (key == null) {
+                provider.findNullKeySerializer(provider.constructType(String.class), null).serialize(null, gen, provider);
+            } else {
+                provider.findKeySerializer(key.getClass(), null).serialize(key, gen, provider);
+            }
+            final Object element = entry.getValue();
+            if (element == null) {
+                provider.defaultSerializeNull(gen);
+            } else if (valueKind.isInstance(element)) {
+                valueKind.write(gen, element);
+            } else {
+                provider.defaultSerializeValue(element, gen);
+            }
+        }
     }
 }
@@ -45,6 +45,21 @@ import com.fasterxml.jackson.databind.module.SimpleModule;
 public class JImmutableModule
     extends SimpleModule
 {
+    private final JImmutableLimits limits;
+
+    public JImmutableModule()
+    {
+        this(JImmutableLimits.NONE);
+    }
+
+    /**
+     * Creates a module that applies the given limits when deserializing any JImmutable collection.
+     */
+    public JImmutableModule(JImmutableLimits limits)
+    {
+        this.limits = limits;
+    }
+
     @Override
     public String getModuleName()
     {
@@ -61,7 +76,7 @@ public class JImmutableModule
     public void setupModule(SetupContext context)
     {
         super.setupModule(context);
-        context.addDeserializers(new JImmutableDeserializers());
+        context.addDeserializers(new JImmutableDeserializers(limits));
         context.addSerializers(new JImmutableSerializers());
         context.addTypeModifier(new JImmutableTypeModifier());
     }
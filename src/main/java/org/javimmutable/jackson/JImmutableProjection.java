@@ -0,0 +1,141 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonStreamContext;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import org.javimmutable.collections.JImmutableSet;
+import org.javimmutable.collections.util.JImmutables;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+import java.util.Arrays;
+
+/**
+ * Selects which parts of a JSON array or object are deserialized into a JImmutable collection.
+ * Map entries whose key is not allowed and elements past the limit are skipped without being
+ * deserialized.  Can be applied to a property using @JsonJImmutableProjection or to the root
+ * collection read by an ObjectReader using its class as an attribute key:
+ * <pre>
+ *     mapper.readerFor(type).withAttribute(JImmutableProjection.class, JImmutableProjection.keys("a", "b"))
+ * </pre>
+ */
+@Immutable
+public final class JImmutableProjection
+{
+    public static final JImmutableProjection ALL = new JImmutableProjection(null, Integer.MAX_VALUE);
+
+    private final JImmutableSet<String> keys;
+    private final int limit;
+
+    private JImmutableProjection(JImmutableSet<String> keys,
+                                 int limit)
+    {
+        if (limit < 0) {
+            throw new IllegalArgumentException("limit must not be negative: " + limit);
+        }
+        this.keys = keys;
+        this.limit = limit;
+    }
+
+    public static JImmutableProjection keys(@Nonnull String... keys)
+    {
+        return ALL.withKeys(Arrays.asList(keys));
+    }
+
+    public static JImmutableProjection limit(int limit)
+    {
+        return ALL.withLimit(limit);
+    }
+
+    public JImmutableProjection withKeys(@Nonnull Iterable<String> keys)
+    {
+        return new JImmutableProjection(JImmutables.<String>set().insertAll(keys), limit);
+    }
+
+    public JImmutableProjection withLimit(int limit)
+    {
+        return new JImmutableProjection(keys, limit);
+    }
+
+    public boolean allowsKey(String key)
+    {
+        return keys == null || keys.contains(key);
+    }
+
+    public int getLimit()
+    {
+        return limit;
+    }
+
+    /**
+     * Returns the projection to apply to a collection being deserialized.  A projection from a
+     * property annotation always applies.  A projection set as an ObjectReader attribute applies
+     * only to the root value.
+     */
+    static JImmutableProjection select(JImmutableProjection propertyProjection,
+                                       JsonParser parser,
+                                       DeserializationContext context)
+    {
+        if (propertyProjection != null) {
+            return propertyProjection;
+        }
+        final Object attribute = context.getAttribute(JImmutableProjection.class);
+        if (attribute instanceof JImmutableProjection) {
+            JsonStreamContext parsingContext = parser.getParsingContext();
+            if (parser.isExpectedStartArrayToken() || parser.isExpectedStartObjectToken()) {
+                parsingContext = parsingContext.getParent();
+            }
+            if (parsingContext != null && parsingContext.inRoot()) {
+                return (JImmutableProjection)attribute;
+            }
+        }
+        return ALL;
+    }
+
+    static JImmutableProjection forAnnotation(JsonJImmutableProjection annotation)
+    {
+        if (annotation == null) {
+            return null;
+        }
+        JImmutableProjection projection = limit(annotation.limit());
+        if (annotation.keys().length > 0) {
+            projection = projection.withKeys(Arrays.asList(annotation.keys()));
+        }
+        return projection;
+    }
+}
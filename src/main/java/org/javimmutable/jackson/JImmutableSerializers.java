@@ -36,9 +36,11 @@
 package org.javimmutable.jackson;
 
 import com.fasterxml.jackson.databind.BeanDescription;
+import com.fasterxml.jackson.databind.JavaType;
 import com.fasterxml.jackson.databind.JsonSerializer;
 import com.fasterxml.jackson.databind.SerializationConfig;
 import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.ser.ContainerSerializer;
 import com.fasterxml.jackson.databind.ser.Serializers;
 import com.fasterxml.jackson.databind.ser.std.IterableSerializer;
 import com.fasterxml.jackson.databind.ser.std.MapSerializer;
@@ -47,16 +49,32 @@ import com.fasterxml.jackson.databind.type.MapLikeType;
 import org.javimmutable.collections.JImmutableList;
 import org.javimmutable.collections.JImmutableMap;
 import org.javimmutable.collections.JImmutableSet;
+import org.javimmutable.jackson.views.ListSlice;
+import org.javimmutable.jackson.views.MapRange;
+import org.javimmutable.jackson.views.SetRange;
 
 import java.util.Collections;
 
 /**
  * Serializers implementation that creates serializer instances for JImmutableMap,
- * JImmutableLst, and JImmutableSet.
+ * JImmutableLst, and JImmutableSet as well as the slice and range views of them.
  */
 public class JImmutableSerializers
     extends Serializers.Base
 {
+    @Override
+    public JsonSerializer<?> findSerializer(SerializationConfig config,
+                                            JavaType type,
+                                            BeanDescription beanDesc)
+    {
+        if (type.isTypeOrSubTypeOf(ListSlice.class) || type.isTypeOrSubTypeOf(SetRange.class)) {
+            return new IterableSerializer(type.containedTypeOrUnknown(0), false, null);
+        } else if (type.isTypeOrSubTypeOf(MapRange.class)) {
+            return new MapRangeSerializer();
+        }
+        return super.findSerializer(config, type, beanDesc);
+    }
+
     @Override
     public JsonSerializer<?> findMapLikeSerializer(SerializationConfig config,
                                                    MapLikeType type,
@@ -73,7 +91,7 @@ public class JImmutableSerializers
                                                         keySerializer,
                                                         elementValueSerializer,
                                                         null);
-            return new JImmutableMapSerializer(map);
+            return new JImmutableMapSerializer(map, elementTypeSerializer);
         }
         return super.findMapLikeSerializer(config, type, beanDesc, keySerializer, elementTypeSerializer, elementValueSerializer);
     }
@@ -87,7 +105,22 @@ public class JImmutableSerializers
     {
 
         if (type.isTypeOrSubTypeOf(JImmutableList.class) || type.isTypeOrSubTypeOf(JImmutableSet.class)) {
-            return new IterableSerializer(type.getContentType(), false, elementTypeSerializer);
+            final IterableSerializer iterable = new IterableSerializer(type.getContentType(), false, elementTypeSerializer);
+            if (elementTypeSerializer != null) {
+                // still wrapped so a columnar annotation is rejected rather than ignored
+                return type.isTypeOrSubTypeOf(JImmutableList.class) ? new ColumnarListSerializer(iterable, true) : iterable;
+            }
+            final ScalarKind kind = ScalarKind.forType(type.getContentType());
+            if (type.isTypeOrSubTypeOf(JImmutableList.class)) {
+                // any list could be a PrimitiveList whatever its element type
+                return new ColumnarListSerializer(new ScalarIterableSerializer(iterable, kind), false);
+            }
+            final ContainerSerializer<Iterable<?>> rows = (kind != null) ? new ScalarIterableSerializer(iterable, kind) : iterable;
+            if (type.getContentType().isEnumType() || type.getContentType().isJavaLangObject()) {
+                // a set of enums or of unknown content could be an OrdinalSet
+                return new OrdinalSetSerializer(iterable);
+            }
+            return rows;
         }
         return super.findCollectionLikeSerializer(config, type, beanDesc, elementTypeSerializer, elementValueSerializer);
     }
@@ -0,0 +1,278 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.KeyDeserializer;
+import com.fasterxml.jackson.databind.deser.std.StdKeyDeserializer;
+
+import javax.annotation.concurrent.Immutable;
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Decodes map keys of a few common types straight from the characters of the field name.
+ * Field names returned by the parser are canonical strings shared by every occurrence of the
+ * same name so decoding them directly avoids the intermediate objects (and exception
+ * handling) of the standard key deserializers.
+ * <p>
+ * A decoder returns null for any text it does not recognize and the caller then passes the
+ * text to the key deserializer instead.  That keeps error reporting and every configurable
+ * behavior (leading plus signs, case insensitive enums, unknown enum handling, etc) exactly
+ * as Jackson implements it.  Decoders are only used in place of Jackson's own key
+ * deserializers since custom ones may decode keys differently.
+ */
+@Immutable
+abstract class KeyDecoder
+{
+    private static final KeyDecoder INTEGER = new IntegerDecoder();
+    private static final KeyDecoder LONG = new LongDecoder();
+    private static final KeyDecoder UUIDS = new UUIDDecoder();
+
+    /**
+     * Returns the key for the text or null if the text should be decoded by the key deserializer.
+     */
+    abstract Object decode(String text);
+
+    /**
+     * Returns a decoder equivalent to the key deserializer (for the keys it recognizes) or null
+     * if there is none for this key type or key deserializer.
+     */
+    static KeyDecoder forKeyDeserializer(KeyDeserializer keyDeserializer,
+                                         JavaType keyType,
+                                         DeserializationContext context)
+    {
+        if (!(keyDeserializer instanceof StdKeyDeserializer)) {
+            return null;
+        }
+        final Class<?> keyClass = keyType.getRawClass();
+        if (keyType.isEnumType()) {
+            return EnumDecoder.create(keyDeserializer, keyClass, context);
+        }
+        if (keyDeserializer.getClass() != StdKeyDeserializer.class) {
+            return null;
+        }
+        if (keyClass == Integer.class) {
+            return INTEGER;
+        } else if (keyClass == Long.class) {
+            return LONG;
+        } else if (keyClass == UUID.class) {
+            return UUIDS;
+        } else {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the value of the optionally negative decimal number in text or Long.MIN_VALUE
+     * if the text is not such a number with at most maxDigits digits.
+     */
+    private static long parseDecimal(String text,
+                                     int maxDigits)
+    {
+        final int length = text.length();
+        final boolean negative = length > 0 && text.charAt(0) == '-';
+        final int start = negative ? 1 : 0;
+        if (length == start || length - start > maxDigits) {
+            return Long.MIN_VALUE;
+        }
+        long value = 0;
+        for (int i = start; i < length; ++i) {
+            final int digit = text.charAt(i) - '0';
+            if (digit < 0 || digit > 9) {
+                return Long.MIN_VALUE;
+            }
+            value = value * 10 + digit;
+        }
+        return negative ? -value : value;
+    }
+
+    private static class IntegerDecoder
+        extends KeyDecoder
+    {
+        @Override
+        Object decode(String text)
+        {
+            final long value = parseDecimal(text, 9);
+            return (value == Long.MIN_VALUE) ? null : Integer.valueOf((int)value);
+        }
+    }
+
+    private static class LongDecoder
+        extends KeyDecoder
+    {
+        @Override
+        Object decode(String text)
+        {
+            final long value = parseDecimal(text, 18);
+            return (value == Long.MIN_VALUE) ? null : Long.valueOf(value);
+        }
+    }
+
+    /**
+     * Decodes the standard 36 character form (8-4-4-4-12 hex digits).
+     */
+    private static class UUIDDecoder
+        extends KeyDecoder
+    {
+        @Override
+        Object decode(String text)
+        {
+            if (text.length() != 36 || text.charAt(8) != '-' || text.charAt(13) != '-' || text.charAt(18) != '-' || text.charAt(23) != '-') {
+                return null;
+            }
+            final long a = parseHex(text, 0, 8);
+            final long b = parseHex(text, 9, 13);
+            final long c = parseHex(text, 14, 18);
+            final long d = parseHex(text, 19, 23);
+            final long e = parseHex(text, 24, 36);
+            if ((a | b | c | d | e) < 0) {
+                return null;
+            }
+            return new UUID(a << 32 | b << 16 | c, d << 48 | e);
+        }
+
+        /**
+         * Returns the value of the (at most 12) hex digits or -1 if any of them is not an ASCII hex digit.
+         */
+        private static long parseHex(String text,
+                                     int start,
+                                     int end)
+        {
+            long value = 0;
+            for (int i = start; i < end; ++i) {
+                final int digit = hexDigit(text.charAt(i));
+                if (digit < 0) {
+                    return -1;
+                }
+                value = (value << 4) | digit;
+            }
+            return value;
+        }
+
+        /**
+         * Unlike Character.digit() this only accepts the characters UUID.toString() can produce
+         * (in either case) so that non-ASCII digits are left to the key deserializer to reject.
+         */
+        private static int hexDigit(char c)
+        {
+            if (c >= '0' && c <= '9') {
+                return c - '0';
+            } else if (c >= 'a' && c <= 'f') {
+                return c - 'a' + 10;
+            } else if (c >= 'A' && c <= 'F') {
+                return c - 'A' + 10;
+            } else {
+                return -1;
+            }
+        }
+    }
+
+    /**
+     * Enum constants are looked up by the names the key deserializer itself accepts for them.
+     * Only names that match both the constant's name (or explicit name) and its toString()
+     * are included so the result cannot depend on READ_ENUMS_USING_TO_STRING.
+     */
+    private static class EnumDecoder
+        extends KeyDecoder
+    {
+        private final Map<String, Object> constants;
+
+        private EnumDecoder(Map<String, Object> constants)
+        {
+            this.constants = constants;
+        }
+
+        private static KeyDecoder create(KeyDeserializer keyDeserializer,
+                                         Class<?> enumClass,
+                                         DeserializationContext context)
+        {
+            final Enum<?>[] values = (Enum<?>[])enumClass.getEnumConstants();
+            if (values == null) {
+                return null;
+            }
+            final Map<String, Object> constants = new HashMap<>();
+            for (Enum<?> value : values) {
+                final String name = explicitName(enumClass, value);
+                if (name.equals(value.toString()) && accepts(keyDeserializer, name, value, context)) {
+                    constants.put(name, value);
+                }
+            }
+            return constants.isEmpty() ? null : new EnumDecoder(constants);
+        }
+
+        /**
+         * Returns the name given to the constant by a JsonProperty annotation or its name() if it has none.
+         * Names from mix-ins are not found here but then accepts() rejects the plain name and those
+         * constants are simply left to the key deserializer.
+         */
+        private static String explicitName(Class<?> enumClass,
+                                           Enum<?> value)
+        {
+            try {
+                final JsonProperty property = enumClass.getField(value.name()).getAnnotation(JsonProperty.class);
+                if (property != null && !property.value().isEmpty()) {
+                    return property.value();
+                }
+            } catch (NoSuchFieldException | SecurityException ignored) {
+                // fall through to the plain name
+            }
+            return value.name();
+        }
+
+        private static boolean accepts(KeyDeserializer keyDeserializer,
+                                       String name,
+                                       Object constant,
+                                       DeserializationContext context)
+        {
+            try {
+                return keyDeserializer.deserializeKey(name, context) == constant;
+            } catch (IOException | RuntimeException ex) {
+                return false;
+            }
+        }
+
+        @Override
+        Object decode(String text)
+        {
+            return constants.get(text);
+        }
+    }
+}
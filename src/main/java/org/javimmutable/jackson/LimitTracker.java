@@ -0,0 +1,165 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson;
+
+import com.fasterxml.jackson.core.JsonLocation;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonMappingException;
+
+import javax.annotation.concurrent.NotThreadSafe;
+
+/**
+ * Per call state used to enforce JImmutableLimits.  Stored as a per call attribute of the
+ * DeserializationContext so that all of the collections read by one call share the nesting
+ * depth and size estimate.  Collections without limits are not tracked at all.  Public so
+ * that readers which build collections themselves (such as AsyncCollectionReader) apply
+ * the same limits as the module's deserializers.
+ */
+@NotThreadSafe
+public final class LimitTracker
+{
+    // a character of input is retained as at least one UTF-16 char in a String
+    private static final long BYTES_PER_INPUT_UNIT = 2;
+    // rough size of a tree node or map entry plus a boxed value
+    private static final long BYTES_PER_ELEMENT = 48;
+
+    private static final LimitTracker UNLIMITED = new LimitTracker(false);
+
+    private final boolean active;
+    private int depth;
+    private long startOffset = -1;
+    private long consumed;
+    private long elements;
+
+    private LimitTracker(boolean active)
+    {
+        this.active = active;
+    }
+
+    /**
+     * Records the start of a collection and verifies that it does not exceed the depth limit.
+     * Every call that returns normally must be matched by a call to exit().
+     */
+    public static LimitTracker enter(JImmutableLimits limits,
+                                     JsonParser parser,
+                                     DeserializationContext context)
+        throws JsonMappingException
+    {
+        if (limits.isUnlimited()) {
+            return UNLIMITED;
+        }
+        LimitTracker tracker = (LimitTracker)context.getAttribute(LimitTracker.class);
+        if (tracker == null) {
+            tracker = new LimitTracker(true);
+            context.setAttribute(LimitTracker.class, tracker);
+        }
+        if (tracker.depth >= limits.getMaxDepth()) {
+            throw JsonMappingException.from(parser, "JImmutable collections nested deeper than limit of " + limits.getMaxDepth());
+        }
+        if (tracker.depth == 0) {
+            tracker.startOffset = offset(parser);
+        }
+        tracker.depth += 1;
+        return tracker;
+    }
+
+    /**
+     * Records the end of a collection.  Input consumed by each outermost collection is
+     * added to the running total used by the size estimate.
+     */
+    public void exit(JsonParser parser)
+    {
+        if (!active) {
+            return;
+        }
+        depth -= 1;
+        if (depth == 0) {
+            consumed += inputSince(parser);
+            startOffset = -1;
+        }
+    }
+
+    /**
+     * Verifies that adding another element (making count elements in the current collection)
+     * stays within the limits.  Called before the element is deserialized.
+     */
+    public void element(JImmutableLimits limits,
+                        JsonParser parser,
+                        int count)
+        throws JsonMappingException
+    {
+        if (!active) {
+            return;
+        }
+        if (count > limits.getMaxElements()) {
+            throw JsonMappingException.from(parser, "JImmutable collection exceeds element limit of " + limits.getMaxElements());
+        }
+        elements += 1;
+        size(limits, parser);
+    }
+
+    /**
+     * Verifies that the estimated size of everything read so far stays within the limit.
+     */
+    public void size(JImmutableLimits limits,
+                     JsonParser parser)
+        throws JsonMappingException
+    {
+        if (active && limits.hasMaxBytes()) {
+            final long bytes = elements * BYTES_PER_ELEMENT + (consumed + inputSince(parser)) * BYTES_PER_INPUT_UNIT;
+            if (bytes > limits.getMaxBytes()) {
+                throw JsonMappingException.from(parser, "JImmutable collections exceed estimated size limit of " + limits.getMaxBytes() + " bytes");
+            }
+        }
+    }
+
+    /**
+     * Returns the input consumed since the outermost collection started or zero if the
+     * parser does not report offsets.
+     */
+    private long inputSince(JsonParser parser)
+    {
+        final long offset = offset(parser);
+        return (startOffset >= 0 && offset >= startOffset) ? offset - startOffset : 0;
+    }
+
+    private static long offset(JsonParser parser)
+    {
+        final JsonLocation location = parser.getCurrentLocation();
+        return Math.max(location.getByteOffset(), location.getCharOffset());
+    }
+}
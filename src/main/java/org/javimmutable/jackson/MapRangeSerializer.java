@@ -0,0 +1,99 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.jackson.views.MapRange;
+
+import java.io.IOException;
+
+/**
+ * Serializer for MapRange views.  Writes the entries in the range as a JSON object
+ * using the key and value serializers for the runtime class of each key and value.
+ */
+public class MapRangeSerializer
+    extends StdSerializer<MapRange<?, ?>>
+{
+    public MapRangeSerializer()
+    {
+        super(MapRange.class, false);
+    }
+
+    @Override
+    public boolean isEmpty(SerializerProvider provider,
+                           MapRange<?, ?> value)
+    {
+        return !value.iterator().hasNext();
+    }
+
+    @Override
+    public void serialize(MapRange<?, ?> value,
+                          JsonGenerator gen,
+                          SerializerProvider provider)
+        throws IOException
+    {
+        gen.setCurrentValue(value);
+        gen.writeStartObject();
+        Class<?> keyClass = null;
+        JsonSerializer<Object> keySerializer = null;
+        Class<?> valueClass = null;
+        JsonSerializer<Object> valueSerializer = null;
+        for (JImmutableMap.Entry<?, ?> entry : value) {
+            final Object key = entry.getKey();
+            if (key.getClass() != keyClass) {
+                keyClass = key.getClass();
+                keySerializer = provider.findKeySerializer(keyClass, null);
+            }
+            keySerializer.serialize(key, gen, provider);
+
+            final Object element = entry.getValue();
+            if (element == null) {
+                provider.defaultSerializeNull(gen);
+            } else {
+                if (element.getClass() != valueClass) {
+                    valueClass = element.getClass();
+                    valueSerializer = provider.findValueSerializer(valueClass, null);
+                }
+                valueSerializer.serialize(element, gen, provider);
+            }
+        }
+        gen.writeEndObject();
+    }
+}
@@ -0,0 +1,237 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson;
+
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.util.JImmutables;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.lang.reflect.Method;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Compact JImmutableMap keyed by enum constants that stores its values in an array indexed
+ * by ordinal, with a bitset recording which keys are present (values may be null).  The enum's
+ * constant array is shared by every map of that type.  Entries are always visited in ordinal
+ * order.  Modifications return a standard hash map (see CompactProxy).
+ */
+@ThreadSafe
+final class OrdinalMap
+    extends CompactProxy
+{
+    private static final ConcurrentMap<Method, Operation> OPERATIONS = new ConcurrentHashMap<>();
+
+    private final Object[] constants;
+    private final long[] words;
+    private final Object[] values;
+    private final int size;
+
+    private OrdinalMap(Object[] constants,
+                       long[] words,
+                       Object[] values,
+                       int size)
+    {
+        this.constants = constants;
+        this.words = words;
+        this.values = values;
+        this.size = size;
+    }
+
+    /**
+     * Returns a map containing the constants in the buffer and their values.
+     */
+    @SuppressWarnings("unchecked")
+    static JImmutableMap<Object, Object> build(EnumBuffer buffer)
+    {
+        if (buffer.count() == 0) {
+            return JImmutables.map();
+        }
+        return proxy(JImmutableMap.class, new OrdinalMap(buffer.constants(), buffer.words(), buffer.values(), buffer.count()));
+    }
+
+    /**
+     * Returns the OrdinalMap behind value or null if value is not one of ours.
+     */
+    static OrdinalMap of(Object value)
+    {
+        return of(value, OrdinalMap.class);
+    }
+
+    /**
+     * Returns the value that type ids should be generated from.  Proxy classes cannot be named
+     * in a type id so an OrdinalMap reports the class of the standard map it stands in for.
+     */
+    static Object typeIdValue(Object value)
+    {
+        return (of(value) != null) ? JImmutables.map() : value;
+    }
+
+    @Override
+    int size()
+    {
+        return size;
+    }
+
+    @Override
+    Map<Object, Object> view()
+    {
+        return new MapView();
+    }
+
+    /**
+     * Answers both get(key) and getValueOr(key, defaultValue).
+     */
+    @Override
+    Object lookup(Object[] args)
+    {
+        final int ordinal = ordinalOf(args[0]);
+        if (ordinal >= 0) {
+            return values[ordinal];
+        }
+        return (args.length > 1) ? args[1] : null;
+    }
+
+    @Override
+    boolean sameContents(Object other)
+    {
+        return (other instanceof JImmutableMap) && view().equals(((JImmutableMap<?, ?>)other).getMap());
+    }
+
+    @Override
+    JImmutableMap<Object, Object> standard()
+    {
+        final JImmutableMap.Builder<Object, Object> builder = JImmutables.mapBuilder();
+        for (int ordinal = EnumBuffer.nextOrdinal(words, 0); ordinal >= 0; ordinal = EnumBuffer.nextOrdinal(words, ordinal + 1)) {
+            builder.add(constants[ordinal], values[ordinal]);
+        }
+        return builder.build();
+    }
+
+    @Override
+    ConcurrentMap<Method, Operation> operations()
+    {
+        return OPERATIONS;
+    }
+
+    @Override
+    Operation classifyLookup(Method method)
+    {
+        final String name = method.getName();
+        final int params = method.getParameterCount();
+        if ((name.equals("get") && params == 1) || (name.equals("getValueOr") && params == 2)) {
+            return Operation.LOOKUP;
+        }
+        return Operation.STANDARD;
+    }
+
+    /**
+     * Returns the ordinal of key if it is present in this map or -1 if it is not.
+     */
+    private int ordinalOf(Object key)
+    {
+        final int ordinal = EnumBuffer.ordinalOf(key, constants);
+        return (ordinal >= 0 && EnumBuffer.isSet(words, ordinal)) ? ordinal : -1;
+    }
+
+    private class MapView
+        extends AbstractMap<Object, Object>
+    {
+        @Override
+        public Set<Entry<Object, Object>> entrySet()
+        {
+            return new AbstractSet<Entry<Object, Object>>()
+            {
+                @Override
+                public Iterator<Entry<Object, Object>> iterator()
+                {
+                    return new Iterator<Entry<Object, Object>>()
+                    {
+                        private int next = EnumBuffer.nextOrdinal(words, 0);
+
+                        @Override
+                        public boolean hasNext()
+                        {
+                            return next >= 0;
+                        }
+
+                        @Override
+                        public Entry<Object, Object> next()
+                        {
+                            if (next < 0) {
+                                throw new NoSuchElementException();
+                            }
+                            final Entry<Object, Object> answer = new SimpleImmutableEntry<>(constants[next], values[next]);
+                            next = EnumBuffer.nextOrdinal(words, next + 1);
+                            return answer;
+                        }
+                    };
+                }
+
+                @Override
+                public int size()
+                {
+                    return size;
+                }
+            };
+        }
+
+        @Override
+        public int size()
+        {
+            return size;
+        }
+
+        @Override
+        public boolean containsKey(Object key)
+        {
+            return ordinalOf(key) >= 0;
+        }
+
+        @Override
+        public Object get(Object key)
+        {
+            final int ordinal = ordinalOf(key);
+            return (ordinal >= 0) ? values[ordinal] : null;
+        }
+    }
+}
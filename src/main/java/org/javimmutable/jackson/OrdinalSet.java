@@ -0,0 +1,202 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson;
+
+import org.javimmutable.collections.JImmutableSet;
+import org.javimmutable.collections.util.JImmutables;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.lang.reflect.Method;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+
+/**
+ * Compact JImmutableSet of enum constants stored as a bitset indexed by ordinal.  The enum's
+ * constant array is shared by every set of that type so each set costs only its bits.
+ * Elements are always visited in ordinal order.  Modifications return a standard hash set
+ * (see CompactProxy).
+ */
+@ThreadSafe
+final class OrdinalSet
+    extends CompactProxy
+{
+    private static final ConcurrentMap<Method, Operation> OPERATIONS = new ConcurrentHashMap<>();
+
+    private final Object[] constants;
+    private final long[] words;
+    private final int size;
+
+    private OrdinalSet(Object[] constants,
+                       long[] words,
+                       int size)
+    {
+        this.constants = constants;
+        this.words = words;
+        this.size = size;
+    }
+
+    /**
+     * Returns a set containing the constants in the buffer.
+     */
+    @SuppressWarnings("unchecked")
+    static JImmutableSet<Object> build(EnumBuffer buffer)
+    {
+        if (buffer.count() == 0) {
+            return JImmutables.set();
+        }
+        return proxy(JImmutableSet.class, new OrdinalSet(buffer.constants(), buffer.words(), buffer.count()));
+    }
+
+    /**
+     * Returns the OrdinalSet behind value or null if value is not one of ours.
+     */
+    static OrdinalSet of(Object value)
+    {
+        return of(value, OrdinalSet.class);
+    }
+
+    /**
+     * Returns the value that type ids should be generated from.  Proxy classes cannot be named
+     * in a type id so an OrdinalSet reports the class of the standard set it stands in for.
+     */
+    static Object typeIdValue(Object value)
+    {
+        return (of(value) != null) ? JImmutables.set() : value;
+    }
+
+    @Override
+    int size()
+    {
+        return size;
+    }
+
+    @Override
+    Set<Object> view()
+    {
+        return new SetView();
+    }
+
+    @Override
+    Object lookup(Object[] args)
+    {
+        return contains(args[0]);
+    }
+
+    @Override
+    boolean sameContents(Object other)
+    {
+        return (other instanceof JImmutableSet) && view().equals(((JImmutableSet<?>)other).getSet());
+    }
+
+    @Override
+    JImmutableSet<Object> standard()
+    {
+        return JImmutables.set().insertAll(view());
+    }
+
+    @Override
+    ConcurrentMap<Method, Operation> operations()
+    {
+        return OPERATIONS;
+    }
+
+    @Override
+    Operation classifyLookup(Method method)
+    {
+        return (method.getName().equals("contains") && method.getParameterCount() == 1) ? Operation.LOOKUP : Operation.STANDARD;
+    }
+
+    private boolean contains(Object value)
+    {
+        final int ordinal = EnumBuffer.ordinalOf(value, constants);
+        return ordinal >= 0 && EnumBuffer.isSet(words, ordinal);
+    }
+
+    private class SetView
+        extends AbstractSet<Object>
+    {
+        @Override
+        public Iterator<Object> iterator()
+        {
+            return new Iterator<Object>()
+            {
+                private int next = EnumBuffer.nextOrdinal(words, 0);
+
+                @Override
+                public boolean hasNext()
+                {
+                    return next >= 0;
+                }
+
+                @Override
+                public Object next()
+                {
+                    if (next < 0) {
+                        throw new NoSuchElementException();
+                    }
+                    final Object answer = constants[next];
+                    next = EnumBuffer.nextOrdinal(words, next + 1);
+                    return answer;
+                }
+            };
+        }
+
+        @Override
+        public int size()
+        {
+            return size;
+        }
+
+        @Override
+        public boolean contains(Object o)
+        {
+            return OrdinalSet.this.contains(o);
+        }
+
+        @Override
+        public void forEach(Consumer<? super Object> action)
+        {
+            for (int ordinal = EnumBuffer.nextOrdinal(words, 0); ordinal >= 0; ordinal = EnumBuffer.nextOrdinal(words, ordinal + 1)) {
+                action.accept(constants[ordinal]);
+            }
+        }
+    }
+}
@@ -0,0 +1,138 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.ser.ContainerSerializer;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.std.IterableSerializer;
+
+import java.io.IOException;
+
+/**
+ * Serializer for JImmutableSet of an enum (or unknown) type.  An OrdinalSet is written in
+ * ordinal order straight from its bitset.  Any other set is written as is.  The elements
+ * themselves are written by the wrapped IterableSerializer.
+ */
+public class OrdinalSetSerializer
+    extends ContainerSerializer<Iterable<?>>
+    implements ContextualSerializer
+{
+    private final IterableSerializer iterable;
+
+    OrdinalSetSerializer(IterableSerializer iterable)
+    {
+        super(Iterable.class, false);
+        this.iterable = iterable;
+    }
+
+    @Override
+    public JavaType getContentType()
+    {
+        return iterable.getContentType();
+    }
+
+    @Override
+    public JsonSerializer<?> getContentSerializer()
+    {
+        return iterable.getContentSerializer();
+    }
+
+    @Override
+    public boolean isEmpty(SerializerProvider provider,
+                           Iterable<?> value)
+    {
+        final OrdinalSet compact = OrdinalSet.of(value);
+        return (compact != null) ? compact.size() == 0 : iterable.isEmpty(provider, value);
+    }
+
+    @Override
+    public boolean hasSingleElement(Iterable<?> value)
+    {
+        final OrdinalSet compact = OrdinalSet.of(value);
+        return (compact != null) ? compact.size() == 1 : iterable.hasSingleElement(value);
+    }
+
+    @Override
+    protected ContainerSerializer<?> _withValueTypeSerializer(TypeSerializer vts)
+    {
+        return iterable._withValueTypeSerializer(vts);
+    }
+
+    @Override
+    public JsonSerializer<?> createContextual(SerializerProvider prov,
+                                              BeanProperty property)
+        throws JsonMappingException
+    {
+        final JsonSerializer<?> contextual = iterable.createContextual(prov, property);
+        if (contextual instanceof IterableSerializer) {
+            return new OrdinalSetSerializer((IterableSerializer)contextual);
+        }
+        return contextual;
+    }
+
+    @Override
+    public void serialize(Iterable<?> value,
+                          JsonGenerator gen,
+                          SerializerProvider provider)
+        throws IOException
+    {
+        iterable.serialize(ordered(value), gen, provider);
+    }
+
+    @Override
+    public void serializeWithType(Iterable<?> value,
+                                  JsonGenerator gen,
+                                  SerializerProvider provider,
+                                  TypeSerializer typeSer)
+        throws IOException
+    {
+        final Iterable<?> ordered = ordered(value);
+        iterable.serializeWithType(ordered, gen, provider, (ordered == value) ? typeSer : new OriginalValueTypeSerializer(typeSer, OrdinalSet.typeIdValue(value)));
+    }
+
+    private static Iterable<?> ordered(Iterable<?> value)
+    {
+        final OrdinalSet compact = OrdinalSet.of(value);
+        return (compact != null) ? compact.view() : value;
+    }
+}
@@ -0,0 +1,114 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.WritableTypeId;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.jsontype.TypeIdResolver;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+
+import javax.annotation.concurrent.Immutable;
+import java.io.IOException;
+
+/**
+ * Passes everything to the real TypeSerializer except that type ids requested for the
+ * view handed to a java.util serializer (such as a java.util.Map view of a JImmutableMap)
+ * are generated for the original JImmutable collection instead.
+ */
+@Immutable
+class OriginalValueTypeSerializer
+    extends TypeSerializer
+{
+    private final TypeSerializer typeSer;
+    private final Object original;
+
+    OriginalValueTypeSerializer(TypeSerializer typeSer,
+                                Object original)
+    {
+        this.typeSer = typeSer;
+        this.original = original;
+    }
+
+    @Override
+    public TypeSerializer forProperty(BeanProperty prop)
+    {
+        return new OriginalValueTypeSerializer(typeSer.forProperty(prop), original);
+    }
+
+    @Override
+    public JsonTypeInfo.As getTypeInclusion()
+    {
+        return typeSer.getTypeInclusion();
+    }
+
+    @Override
+    public String getPropertyName()
+    {
+        return typeSer.getPropertyName();
+    }
+
+    @Override
+    public TypeIdResolver getTypeIdResolver()
+    {
+        return typeSer.getTypeIdResolver();
+    }
+
+    @Override
+    public WritableTypeId typeId(Object value,
+                                 JsonToken valueShape)
+    {
+        return typeSer.typeId(original, valueShape);
+    }
+
+    @Override
+    public WritableTypeId writeTypePrefix(JsonGenerator g,
+                                          WritableTypeId typeId)
+        throws IOException
+    {
+        return typeSer.writeTypePrefix(g, typeId);
+    }
+
+    @Override
+    public WritableTypeId writeTypeSuffix(JsonGenerator g,
+                                          WritableTypeId typeId)
+        throws IOException
+    {
+        return typeSer.writeTypeSuffix(g, typeId);
+    }
+}
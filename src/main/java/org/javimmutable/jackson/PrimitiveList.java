@@ -0,0 +1,362 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import org.javimmutable.collections.JImmutableList;
+import org.javimmutable.collections.util.JImmutables;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.ThreadSafe;
+import java.io.IOException;
+import java.lang.reflect.Method;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
+
+/**
+ * Compact JImmutableList of Integer, Long, or Double values stored in an int[], long[], or
+ * double[].  Reading methods (size, get, getList, iteration, equals, hashCode) are answered
+ * from the array and the serializer writes straight from it.  Structural modifications are
+ * passed to a standard list built for that call (see CompactProxy) so the result of a
+ * modification is an ordinary list while this one keeps only its array.
+ */
+@ThreadSafe
+abstract class PrimitiveList
+    extends CompactProxy
+{
+    private static final ConcurrentMap<Method, Operation> OPERATIONS = new ConcurrentHashMap<>();
+
+    private final int size;
+
+    private PrimitiveList(int size)
+    {
+        this.size = size;
+    }
+
+    /**
+     * Returns the PrimitiveList behind value or null if value is not one of ours.
+     */
+    static PrimitiveList of(Object value)
+    {
+        return of(value, PrimitiveList.class);
+    }
+
+    static Buffer buffer(ScalarKind kind)
+    {
+        switch (kind) {
+            case INT:
+                return new IntBuffer();
+            case LONG:
+                return new LongBuffer();
+            case DOUBLE:
+                return new DoubleBuffer();
+            default:
+                throw new IllegalArgumentException("no primitive list for " + kind);
+        }
+    }
+
+    @Override
+    int size()
+    {
+        return size;
+    }
+
+    abstract Object get(int index);
+
+    /**
+     * Writes the values (without the surrounding array tokens) to the generator.
+     */
+    abstract void writeValues(JsonGenerator gen)
+        throws IOException;
+
+    @Override
+    List<Object> view()
+    {
+        return new ListView();
+    }
+
+    @Override
+    Object lookup(Object[] args)
+    {
+        return checkedGet((Integer)args[0]);
+    }
+
+    @Override
+    boolean sameContents(Object other)
+    {
+        return (other instanceof JImmutableList) && view().equals(((JImmutableList<?>)other).getList());
+    }
+
+    @Override
+    JImmutableList<Object> standard()
+    {
+        final JImmutableList.Builder<Object> builder = JImmutables.listBuilder();
+        for (int i = 0; i < size; ++i) {
+            builder.add(get(i));
+        }
+        return builder.build();
+    }
+
+    @Override
+    ConcurrentMap<Method, Operation> operations()
+    {
+        return OPERATIONS;
+    }
+
+    @Override
+    Operation classifyLookup(Method method)
+    {
+        final Class<?>[] params = method.getParameterTypes();
+        return (method.getName().equals("get") && params.length == 1 && params[0] == int.class) ? Operation.LOOKUP : Operation.STANDARD;
+    }
+
+    private Object checkedGet(int index)
+    {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + " is out of bounds for size " + size);
+        }
+        return get(index);
+    }
+
+    private class ListView
+        extends AbstractList<Object>
+        implements RandomAccess
+    {
+        @Override
+        public Object get(int index)
+        {
+            return checkedGet(index);
+        }
+
+        @Override
+        public int size()
+        {
+            return size;
+        }
+
+        @Override
+        public void forEach(Consumer<? super Object> action)
+        {
+            for (int i = 0; i < size; ++i) {
+                action.accept(PrimitiveList.this.get(i));
+            }
+        }
+    }
+
+    /**
+     * Collects values read from a parser into a growing primitive array.
+     */
+    @NotThreadSafe
+    abstract static class Buffer
+    {
+        int size;
+
+        abstract void add(JsonParser parser)
+            throws IOException;
+
+        abstract Object get(int index);
+
+        abstract PrimitiveList createList();
+
+        /**
+         * Returns a builder holding the (boxed) values read so far, for when the input
+         * turns out to contain a value that cannot be stored in the array.
+         */
+        JImmutableList.Builder<Object> toBuilder()
+        {
+            final JImmutableList.Builder<Object> builder = JImmutables.listBuilder();
+            for (int i = 0; i < size; ++i) {
+                builder.add(get(i));
+            }
+            return builder;
+        }
+
+        @SuppressWarnings("unchecked")
+        JImmutableList<Object> build()
+        {
+            if (size == 0) {
+                return JImmutables.list();
+            }
+            return proxy(JImmutableList.class, createList());
+        }
+
+        static int grow(int capacity)
+        {
+            return capacity + (capacity >> 1);
+        }
+    }
+
+    private static class IntBuffer
+        extends Buffer
+    {
+        private int[] values = new int[16];
+
+        @Override
+        void add(JsonParser parser)
+            throws IOException
+        {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, grow(values.length));
+            }
+            values[size++] = parser.getIntValue();
+        }
+
+        @Override
+        Object get(int index)
+        {
+            return values[index];
+        }
+
+        @Override
+        PrimitiveList createList()
+        {
+            final int[] array = Arrays.copyOf(values, size);
+            return new PrimitiveList(size)
+            {
+                @Override
+                Object get(int index)
+                {
+                    return array[index];
+                }
+
+                @Override
+                void writeValues(JsonGenerator gen)
+                    throws IOException
+                {
+                    for (int value : array) {
+                        gen.writeNumber(value);
+                    }
+                }
+            };
+        }
+    }
+
+    private static class LongBuffer
+        extends Buffer
+    {
+        private long[] values = new long[16];
+
+        @Override
+        void add(JsonParser parser)
+            throws IOException
+        {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, grow(values.length));
+            }
+            values[size++] = parser.getLongValue();
+        }
+
+        @Override
+        Object get(int index)
+        {
+            return values[index];
+        }
+
+        @Override
+        PrimitiveList createList()
+        {
+            final long[] array = Arrays.copyOf(values, size);
+            return new PrimitiveList(size)
+            {
+                @Override
+                Object get(int index)
+                {
+                    return array[index];
+                }
+
+                @Override
+                void writeValues(JsonGenerator gen)
+                    throws IOException
+                {
+                    for (long value : array) {
+                        gen.writeNumber(value);
+                    }
+                }
+            };
+        }
+    }
+
+    private static class DoubleBuffer
+        extends Buffer
+    {
+        private double[] values = new double[16];
+
+        @Override
+        void add(JsonParser parser)
+            throws IOException
+        {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, grow(values.length));
+            }
+            values[size++] = parser.getDoubleValue();
+        }
+
+        @Override
+        Object get(int index)
+        {
+            return values[index];
+        }
+
+        @Override
+        PrimitiveList createList()
+        {
+            final double[] array = Arrays.copyOf(values, size);
+            return new PrimitiveList(size)
+            {
+                @Override
+                Object get(int index)
+                {
+                    return array[index];
+                }
+
+                @Override
+                void writeValues(JsonGenerator gen)
+                    throws IOException
+                {
+                    for (double value : array) {
+                        gen.writeNumber(value);
+                    }
+                }
+            };
+        }
+    }
+}
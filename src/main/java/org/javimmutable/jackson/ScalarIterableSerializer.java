@@ -0,0 +1,180 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.BeanProperty;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.jsontype.TypeSerializer;
+import com.fasterxml.jackson.databind.ser.ContainerSerializer;
+import com.fasterxml.jackson.databind.ser.ContextualSerializer;
+import com.fasterxml.jackson.databind.ser.std.IterableSerializer;
+
+import java.io.IOException;
+import java.util.Iterator;
+
+/**
+ * Serializer for JImmutableList and JImmutableSet of String, Integer, Long, or Double whose
+ * elements are written directly to the generator using a ScalarKind rather than through a
+ * per element serializer lookup.  Anything that can change the way the elements would be
+ * written (custom content serializers, type information, single element unwrapping) is
+ * handled by the wrapped IterableSerializer instead.
+ * <p>
+ * A PrimitiveList is written straight from its array.  Since its runtime class does not carry
+ * the element type every JImmutableList uses this serializer, with a null kind when the
+ * declared element type is not one of the scalar kinds.
+ */
+public class ScalarIterableSerializer
+    extends ContainerSerializer<Iterable<?>>
+    implements ContextualSerializer
+{
+    private final IterableSerializer iterable;
+    private final ScalarKind kind;
+    private final boolean active;
+
+    ScalarIterableSerializer(IterableSerializer iterable,
+                             ScalarKind kind)
+    {
+        this(iterable, kind, false);
+    }
+
+    private ScalarIterableSerializer(IterableSerializer iterable,
+                                     ScalarKind kind,
+                                     boolean active)
+    {
+        super(Iterable.class, false);
+        this.iterable = iterable;
+        this.kind = kind;
+        this.active = active;
+    }
+
+    @Override
+    public JavaType getContentType()
+    {
+        return iterable.getContentType();
+    }
+
+    @Override
+    public JsonSerializer<?> getContentSerializer()
+    {
+        return iterable.getContentSerializer();
+    }
+
+    @Override
+    public boolean isEmpty(SerializerProvider provider,
+                           Iterable<?> value)
+    {
+        final PrimitiveList primitives = PrimitiveList.of(value);
+        return (primitives != null) ? (primitives.size() == 0) : iterable.isEmpty(provider, value);
+    }
+
+    @Override
+    public boolean hasSingleElement(Iterable<?> value)
+    {
+        final PrimitiveList primitives = PrimitiveList.of(value);
+        return (primitives != null) ? (primitives.size() == 1) : iterable.hasSingleElement(value);
+    }
+
+    @Override
+    protected ContainerSerializer<?> _withValueTypeSerializer(TypeSerializer vts)
+    {
+        return iterable._withValueTypeSerializer(vts);
+    }
+
+    @Override
+    public JsonSerializer<?> createContextual(SerializerProvider prov,
+                                              BeanProperty property)
+        throws JsonMappingException
+    {
+        final JsonSerializer<?> contextual = iterable.createContextual(prov, property);
+        if (contextual instanceof IterableSerializer) {
+            final IterableSerializer contextualIterable = (IterableSerializer)contextual;
+            final JsonSerializer<?> contentSerializer = contextualIterable.getContentSerializer();
+            if ((kind == null) ? (contentSerializer == null) : kind.isStandardSerializer(contentSerializer)) {
+                return new ScalarIterableSerializer(contextualIterable, kind, true);
+            }
+        }
+        return contextual;
+    }
+
+    @Override
+    public void serialize(Iterable<?> value,
+                          JsonGenerator gen,
+                          SerializerProvider provider)
+        throws IOException
+    {
+        final PrimitiveList primitives = active ? PrimitiveList.of(value) : null;
+        if (primitives != null && primitives.size() != 1) {
+            gen.setCurrentValue(value);
+            gen.writeStartArray();
+            primitives.writeValues(gen);
+            gen.writeEndArray();
+            return;
+        }
+        if (!active || kind == null || iterable.hasSingleElement(value)) {
+            iterable.serialize(value, gen, provider);
+            return;
+        }
+
+        gen.setCurrentValue(value);
+        gen.writeStartArray();
+        final Iterator<?> elements = value.iterator();
+        while (elements.hasNext()) {
+            final Object element = elements.next();
+            if (element == null) {
+                provider.defaultSerializeNull(gen);
+            } else if (kind.isInstance(element)) {
+                kind.write(gen, element);
+            } else {
+                provider.defaultSerializeValue(element, gen);
+            }
+        }
+        gen.writeEndArray();
+    }
+
+    @Override
+    public void serializeWithType(Iterable<?> value,
+                                  JsonGenerator gen,
+                                  SerializerProvider provider,
+                                  TypeSerializer typeSer)
+        throws IOException
+    {
+        iterable.serializeWithType(value, gen, provider, typeSer);
+    }
+}
@@ -0,0 +1,202 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.ser.std.NumberSerializers;
+import com.fasterxml.jackson.databind.ser.std.StringSerializer;
+
+import java.io.IOException;
+
+/**
+ * Element types that can be read and written directly from the parser or generator
+ * without looking up a value serializer or deserializer for every element.
+ */
+enum ScalarKind
+{
+    INT(Integer.class, NumberSerializers.IntegerSerializer.class)
+        {
+            @Override
+            boolean accepts(JsonToken token)
+            {
+                return token == JsonToken.VALUE_NUMBER_INT;
+            }
+
+            @Override
+            Object read(JsonParser parser)
+                throws IOException
+            {
+                return parser.getIntValue();
+            }
+
+            @Override
+            void write(JsonGenerator gen,
+                       Object value)
+                throws IOException
+            {
+                gen.writeNumber((Integer)value);
+            }
+        },
+    LONG(Long.class, NumberSerializers.LongSerializer.class)
+        {
+            @Override
+            boolean accepts(JsonToken token)
+            {
+                return token == JsonToken.VALUE_NUMBER_INT;
+            }
+
+            @Override
+            Object read(JsonParser parser)
+                throws IOException
+            {
+                return parser.getLongValue();
+            }
+
+            @Override
+            void write(JsonGenerator gen,
+                       Object value)
+                throws IOException
+            {
+                gen.writeNumber((Long)value);
+            }
+        },
+    DOUBLE(Double.class, NumberSerializers.DoubleSerializer.class)
+        {
+            @Override
+            boolean accepts(JsonToken token)
+            {
+                return token == JsonToken.VALUE_NUMBER_FLOAT || token == JsonToken.VALUE_NUMBER_INT;
+            }
+
+            @Override
+            Object read(JsonParser parser)
+                throws IOException
+            {
+                return parser.getDoubleValue();
+            }
+
+            @Override
+            void write(JsonGenerator gen,
+                       Object value)
+                throws IOException
+            {
+                gen.writeNumber((Double)value);
+            }
+        },
+    STRING(String.class, StringSerializer.class)
+        {
+            @Override
+            boolean accepts(JsonToken token)
+            {
+                return token == JsonToken.VALUE_STRING;
+            }
+
+            @Override
+            Object read(JsonParser parser)
+                throws IOException
+            {
+                return parser.getText();
+            }
+
+            @Override
+            void write(JsonGenerator gen,
+                       Object value)
+                throws IOException
+            {
+                gen.writeString((String)value);
+            }
+        };
+
+    private final Class<?> valueClass;
+    private final Class<?> standardSerializerClass;
+
+    ScalarKind(Class<?> valueClass,
+               Class<?> standardSerializerClass)
+    {
+        this.valueClass = valueClass;
+        this.standardSerializerClass = standardSerializerClass;
+    }
+
+    /**
+     * Returns true if write() can be used for the value.  Type erasure allows collections
+     * to contain values other than their declared element type so every value is checked.
+     */
+    boolean isInstance(Object value)
+    {
+        return value.getClass() == valueClass;
+    }
+
+    /**
+     * Returns true if the content serializer chosen by jackson for a property would write
+     * exactly what write() writes.  Format overrides like @JsonFormat(shape=STRING) produce
+     * a different serializer class and so disable the direct path.
+     */
+    boolean isStandardSerializer(JsonSerializer<?> serializer)
+    {
+        return serializer == null || serializer.getClass() == standardSerializerClass;
+    }
+
+    /**
+     * Returns true if read() can produce a value directly from the given token.
+     * Any other token has to go through the regular value deserializer.
+     */
+    abstract boolean accepts(JsonToken token);
+
+    abstract Object read(JsonParser parser)
+        throws IOException;
+
+    abstract void write(JsonGenerator gen,
+                        Object value)
+        throws IOException;
+
+    /**
+     * Returns the kind matching the (boxed) class of the specified type or null if there is none.
+     */
+    static ScalarKind forType(JavaType type)
+    {
+        final Class<?> rawClass = type.getRawClass();
+        for (ScalarKind kind : values()) {
+            if (kind.valueClass == rawClass) {
+                return kind;
+            }
+        }
+        return null;
+    }
+}
@@ -0,0 +1,123 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Collects values destined for a sorted collection so they can be handed to the
+ * collection in ascending order with duplicates already removed.  Input that arrives
+ * in order (the normal case for JSON written from a sorted collection) is detected
+ * while it is added and never sorted.  Large unsorted inputs are sorted in parallel.
+ */
+@NotThreadSafe
+class SortedBuffer<T>
+{
+    static final int PARALLEL_SORT_THRESHOLD = 1 << 13;
+
+    private final Comparator<? super T> comparator;
+    private final boolean keepFirst;
+    private Object[] values;
+    private int size;
+    private boolean presorted;
+
+    /**
+     * When several added values compare as equal keepFirst selects whether the first or the
+     * last one added is retained.  Sets keep the first (inserting an equal value into a set
+     * leaves it unchanged) while maps keep the last (assigning replaces the earlier entry).
+     */
+    SortedBuffer(Comparator<? super T> comparator,
+                 boolean keepFirst)
+    {
+        this.comparator = comparator;
+        this.keepFirst = keepFirst;
+        values = new Object[16];
+        presorted = true;
+    }
+
+    @SuppressWarnings("unchecked")
+    void add(T value)
+    {
+        if (presorted && size > 0 && comparator.compare((T)values[size - 1], value) > 0) {
+            presorted = false;
+        }
+        if (size == values.length) {
+            values = Arrays.copyOf(values, size * 2);
+        }
+        values[size++] = value;
+    }
+
+    boolean isPresorted()
+    {
+        return presorted;
+    }
+
+    /**
+     * Returns the values in ascending order.  When several values compare as equal only
+     * the first or last one added (depending on keepFirst) is retained, matching the result
+     * of adding them to the collection one at a time.  Sorting is stable so the order in
+     * which they were added is preserved even for unsorted input.
+     */
+    @SuppressWarnings("unchecked")
+    List<T> sortedUniqueValues()
+    {
+        final T[] array = (T[])values;
+        if (!presorted) {
+            if (size >= PARALLEL_SORT_THRESHOLD) {
+                Arrays.parallelSort(array, 0, size, comparator);
+            } else {
+                Arrays.sort(array, 0, size, comparator);
+            }
+            presorted = true;
+        }
+        int unique = 0;
+        for (int i = 0; i < size; ++i) {
+            if (unique > 0 && comparator.compare(array[unique - 1], array[i]) == 0) {
+                if (!keepFirst) {
+                    array[unique - 1] = array[i];
+                }
+            } else {
+                array[unique++] = array[i];
+            }
+        }
+        Arrays.fill(array, unique, size, null);
+        size = unique;
+        return Arrays.asList(array).subList(0, size);
+    }
+}
@@ -0,0 +1,267 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson;
+
+import org.javimmutable.collections.JImmutableMap;
+
+import javax.annotation.concurrent.Immutable;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.SortedMap;
+
+/**
+ * Read only SortedMap presenting the entries of a JImmutableMap in ascending key order.
+ * MapSerializer copies any Map that is not a SortedMap into a TreeMap when entries have
+ * to be ordered by key.  Instead the entries are placed into a single array: maps whose
+ * iteration order is already ascending (such as sorted maps using natural ordering) are
+ * copied as is, maps with enum keys are placed into ordinal order directly, and other maps
+ * are sorted once without building a TreeMap.
+ * <p>
+ * Lookups and the range views of SortedMap use binary search over the array.  Range views
+ * share the array and bounds outside of a view's range are clamped to it.
+ */
+@Immutable
+class SortedKeyView<K, V>
+    extends AbstractMap<K, V>
+    implements SortedMap<K, V>
+{
+    @SuppressWarnings("unchecked")
+    private static final Comparator<Map.Entry<?, ?>> KEY_ORDER = (a, b) -> ((Comparable<Object>)a.getKey()).compareTo(b.getKey());
+
+    private final Object[] entries;
+    private final int from;
+    private final int to;
+
+    private SortedKeyView(Object[] entries,
+                          int from,
+                          int to)
+    {
+        this.entries = entries;
+        this.from = from;
+        this.to = to;
+    }
+
+    private SortedKeyView(Object[] entries)
+    {
+        this(entries, 0, entries.length);
+    }
+
+    /**
+     * Returns a SortedMap containing the entries of the map in key order or null if the
+     * keys cannot be ordered here (null or non-Comparable keys).  In that case the map
+     * should be left to MapSerializer which has its own handling for those cases.
+     */
+    @SuppressWarnings("unchecked")
+    static <K, V> SortedMap<K, V> of(JImmutableMap<K, V> map)
+    {
+        if (OrdinalMap.of(map) != null) {
+            return new SortedKeyView<>(map.getMap().entrySet().toArray());
+        }
+        final SortedMap<K, V> enumKeys = ofEnumKeys(map);
+        if (enumKeys != null) {
+            return enumKeys;
+        }
+        Comparable<Object> previous = null;
+        boolean sorted = true;
+        for (JImmutableMap.Entry<K, V> entry : map) {
+            final K key = entry.getKey();
+            if (!(key instanceof Comparable)) {
+                return null;
+            }
+            if (sorted && previous != null && previous.compareTo(key) > 0) {
+                sorted = false;
+            }
+            previous = (Comparable<Object>)key;
+        }
+        final Object[] array = map.getMap().entrySet().toArray();
+        if (!sorted) {
+            Arrays.sort(array, (Comparator<Object>)(Comparator<?>)KEY_ORDER);
+        }
+        return new SortedKeyView<>(array);
+    }
+
+    /**
+     * Returns a SortedMap containing the entries of the map in ordinal order or null if the
+     * keys are not all constants of a single enum.  Since the natural order of enums is their
+     * ordinal order no comparisons are needed to build it.
+     */
+    static <K, V> SortedMap<K, V> ofEnumKeys(JImmutableMap<K, V> map)
+    {
+        if (map.isEmpty()) {
+            return null;
+        }
+        final Object[] array = EnumBuffer.sortByOrdinal(map.getMap().entrySet(), Map.Entry::getKey);
+        return (array == null) ? null : new SortedKeyView<>(array);
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet()
+    {
+        return new AbstractSet<Entry<K, V>>()
+        {
+            @SuppressWarnings("unchecked")
+            @Override
+            public Iterator<Entry<K, V>> iterator()
+            {
+                return (Iterator<Entry<K, V>>)(Iterator<?>)Arrays.asList(entries).subList(from, to).iterator();
+            }
+
+            @Override
+            public int size()
+            {
+                return to - from;
+            }
+        };
+    }
+
+    @Override
+    public int size()
+    {
+        return to - from;
+    }
+
+    @Override
+    public boolean containsKey(Object key)
+    {
+        return indexOf(key) >= 0;
+    }
+
+    @Override
+    public V get(Object key)
+    {
+        final int index = indexOf(key);
+        return (index >= 0) ? entry(index).getValue() : null;
+    }
+
+    @Override
+    public Comparator<? super K> comparator()
+    {
+        return null;
+    }
+
+    @Override
+    public K firstKey()
+    {
+        if (from == to) {
+            throw new NoSuchElementException();
+        }
+        return entry(from).getKey();
+    }
+
+    @Override
+    public K lastKey()
+    {
+        if (from == to) {
+            throw new NoSuchElementException();
+        }
+        return entry(to - 1).getKey();
+    }
+
+    @Override
+    public SortedMap<K, V> subMap(K fromKey,
+                                  K toKey)
+    {
+        if (compare(fromKey, toKey) > 0) {
+            throw new IllegalArgumentException("fromKey > toKey");
+        }
+        return new SortedKeyView<>(entries, lowerBound(fromKey), lowerBound(toKey));
+    }
+
+    @Override
+    public SortedMap<K, V> headMap(K toKey)
+    {
+        return new SortedKeyView<>(entries, from, lowerBound(toKey));
+    }
+
+    @Override
+    public SortedMap<K, V> tailMap(K fromKey)
+    {
+        return new SortedKeyView<>(entries, lowerBound(fromKey), to);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Entry<K, V> entry(int index)
+    {
+        return (Entry<K, V>)entries[index];
+    }
+
+    @SuppressWarnings("unchecked")
+    private static int compare(Object a,
+                               Object b)
+    {
+        return ((Comparable<Object>)a).compareTo(b);
+    }
+
+    /**
+     * Returns the index of the first entry in this view whose key is not less than key.
+     */
+    private int lowerBound(Object key)
+    {
+        int low = from;
+        int high = to;
+        while (low < high) {
+            final int mid = (low + high) >>> 1;
+            if (compare(entry(mid).getKey(), key) < 0) {
+                low = mid + 1;
+            } else {
+                high = mid;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the index of the entry in this view with the key or -1 if there is none.
+     */
+    private int indexOf(Object key)
+    {
+        if (!(key instanceof Comparable)) {
+            return -1;
+        }
+        try {
+            final int index = lowerBound(key);
+            return (index < to && compare(entry(index).getKey(), key) == 0) ? index : -1;
+        } catch (ClassCastException ex) {
+            return -1;
+        }
+    }
+}
@@ -0,0 +1,204 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson.convert;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.javimmutable.collections.JImmutableList;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.JImmutableSet;
+import org.javimmutable.collections.util.JImmutables;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Converts between java.util collections and JImmutable collections (in either direction)
+ * by copying elements straight into the target collection.  ObjectMapper.convertValue()
+ * has no extension point for this and always writes the value into a TokenBuffer and reads
+ * it back one element at a time.
+ * <p>
+ * Elements that are already instances of the target element type are copied as is and
+ * nested collections are converted recursively.  Anything else, including any conversion
+ * that is not between two collections, falls back to mapper.convertValue().
+ */
+@ThreadSafe
+public final class CollectionConverter
+{
+    private final ObjectMapper mapper;
+
+    public CollectionConverter(ObjectMapper mapper)
+    {
+        this.mapper = mapper;
+    }
+
+    public <T> T convert(Object value,
+                         TypeReference<T> type)
+    {
+        return convert(value, mapper.getTypeFactory().constructType(type));
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T convert(Object value,
+                         JavaType type)
+    {
+        return (T)convertValue(value, type);
+    }
+
+    private Object convertValue(Object value,
+                                JavaType type)
+    {
+        if (value == null) {
+            return null;
+        }
+        final Class<?> rawClass = type.getRawClass();
+        if (value instanceof JImmutableMap || value instanceof Map) {
+            if (type.isTypeOrSubTypeOf(JImmutableMap.class)) {
+                return toJImmutableMap(entries(value), type);
+            } else if (rawClass.isAssignableFrom(LinkedHashMap.class) || rawClass.isAssignableFrom(TreeMap.class)) {
+                return toMap(entries(value), type);
+            }
+        } else if (value instanceof JImmutableList || value instanceof JImmutableSet || value instanceof Collection) {
+            final Iterable<?> values = (Iterable<?>)value;
+            if (type.isTypeOrSubTypeOf(JImmutableList.class)) {
+                return toJImmutableList(values, type);
+            } else if (type.isTypeOrSubTypeOf(JImmutableSet.class)) {
+                return toJImmutableSet(values, type);
+            } else if (rawClass.isAssignableFrom(ArrayList.class)) {
+                return toCollection(values, type, new ArrayList<>());
+            } else if (rawClass.isAssignableFrom(LinkedHashSet.class)) {
+                return toCollection(values, type, new LinkedHashSet<>());
+            } else if (rawClass.isAssignableFrom(TreeSet.class)) {
+                return toCollection(values, type, new TreeSet<>());
+            }
+        } else if (!type.isContainerType() && rawClass.isInstance(value)) {
+            return value;
+        }
+        return mapper.convertValue(value, type);
+    }
+
+    private Object convertElement(Object value,
+                                  JavaType type)
+    {
+        if (value == null || type == null) {
+            return value;
+        }
+        if (!type.isContainerType() && type.getRawClass().isInstance(value)) {
+            return value;
+        }
+        return convertValue(value, type);
+    }
+
+    private JImmutableList<Object> toJImmutableList(Iterable<?> values,
+                                                    JavaType type)
+    {
+        final JavaType elementType = type.getContentType();
+        final JImmutableList.Builder<Object> builder = JImmutables.listBuilder();
+        for (Object value : values) {
+            builder.add(convertElement(value, elementType));
+        }
+        return builder.build();
+    }
+
+    private JImmutableSet<Object> toJImmutableSet(Iterable<?> values,
+                                                  JavaType type)
+    {
+        final JavaType elementType = type.getContentType();
+        JImmutableSet<Object> set = CollectionFactories.emptySet(type.getRawClass());
+        for (Object value : values) {
+            set = set.insert(convertElement(value, elementType));
+        }
+        return set;
+    }
+
+    private JImmutableMap<Object, Object> toJImmutableMap(Iterable<Map.Entry<?, ?>> entries,
+                                                          JavaType type)
+    {
+        final JavaType keyType = type.getKeyType();
+        final JavaType valueType = type.getContentType();
+        final JImmutableMap.Builder<Object, Object> builder = CollectionFactories.mapBuilder(type.getRawClass());
+        for (Map.Entry<?, ?> entry : entries) {
+            builder.add(convertElement(entry.getKey(), keyType), convertElement(entry.getValue(), valueType));
+        }
+        return builder.build();
+    }
+
+    private Collection<Object> toCollection(Iterable<?> values,
+                                            JavaType type,
+                                            Collection<Object> collection)
+    {
+        final JavaType elementType = type.getContentType();
+        for (Object value : values) {
+            collection.add(convertElement(value, elementType));
+        }
+        return collection;
+    }
+
+    private Map<Object, Object> toMap(Iterable<Map.Entry<?, ?>> entries,
+                                      JavaType type)
+    {
+        final JavaType keyType = type.getKeyType();
+        final JavaType valueType = type.getContentType();
+        final Map<Object, Object> map = type.isTypeOrSubTypeOf(SortedMap.class) ? new TreeMap<>() : new LinkedHashMap<>();
+        for (Map.Entry<?, ?> entry : entries) {
+            map.put(convertElement(entry.getKey(), keyType), convertElement(entry.getValue(), valueType));
+        }
+        return map;
+    }
+
+    /**
+     * JImmutableMap iterates over its own Entry type so both kinds of map are adapted to
+     * a common iterable of java.util.Map.Entry.
+     */
+    @SuppressWarnings("unchecked")
+    private static Iterable<Map.Entry<?, ?>> entries(Object map)
+    {
+        if (map instanceof Map) {
+            return (Iterable<Map.Entry<?, ?>>)(Iterable<?>)((Map<?, ?>)map).entrySet();
+        } else {
+            return (Iterable<Map.Entry<?, ?>>)(Iterable<?>)((JImmutableMap<?, ?>)map).getMap().entrySet();
+        }
+    }
+}
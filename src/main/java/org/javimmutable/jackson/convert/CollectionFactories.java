@@ -0,0 +1,77 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson.convert;
+
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.JImmutableSet;
+import org.javimmutable.collections.inorder.JImmutableInsertOrderMap;
+import org.javimmutable.collections.inorder.JImmutableInsertOrderSet;
+import org.javimmutable.collections.tree.JImmutableTreeMap;
+import org.javimmutable.collections.tree.JImmutableTreeSet;
+import org.javimmutable.collections.util.JImmutables;
+
+/**
+ * Selects the empty collection or builder matching a requested JImmutable class.
+ * Interfaces get the hash based implementations just as they do when deserialized.
+ */
+final class CollectionFactories
+{
+    private CollectionFactories()
+    {
+    }
+
+    static JImmutableMap.Builder<Object, Object> mapBuilder(Class<?> rawClass)
+    {
+        if (rawClass == JImmutableTreeMap.class) {
+            return JImmutables.sortedMapBuilder();
+        } else if (rawClass == JImmutableInsertOrderMap.class) {
+            return JImmutableInsertOrderMap.builder();
+        } else {
+            return JImmutables.mapBuilder();
+        }
+    }
+
+    static JImmutableSet<Object> emptySet(Class<?> rawClass)
+    {
+        if (rawClass == JImmutableTreeSet.class) {
+            return JImmutables.sortedSet();
+        } else if (rawClass == JImmutableInsertOrderSet.class) {
+            return JImmutables.insertOrderSet();
+        } else {
+            return JImmutables.set();
+        }
+    }
+}
@@ -0,0 +1,93 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson.convert;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.util.JsonGeneratorDelegate;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.io.IOException;
+import java.io.StringWriter;
+
+/**
+ * Generator handed to key serializers so the field name they write can be captured directly
+ * instead of being written to a buffer and read back.  Key serializers only ever write a
+ * single field name so the delegate never receives any output.
+ */
+@NotThreadSafe
+class FieldNameGenerator
+    extends JsonGeneratorDelegate
+{
+    private String fieldName;
+
+    FieldNameGenerator(JsonFactory factory)
+        throws IOException
+    {
+        super(factory.createGenerator(new StringWriter()), false);
+    }
+
+    /**
+     * Returns the field name written by the last key serializer and forgets it.
+     */
+    String takeFieldName()
+    {
+        final String answer = fieldName;
+        if (answer == null) {
+            throw new IllegalArgumentException("key serializer did not write a field name");
+        }
+        fieldName = null;
+        return answer;
+    }
+
+    @Override
+    public void writeFieldName(String name)
+    {
+        fieldName = name;
+    }
+
+    @Override
+    public void writeFieldName(SerializableString name)
+    {
+        fieldName = name.getValue();
+    }
+
+    @Override
+    public void writeFieldId(long id)
+    {
+        fieldName = Long.toString(id);
+    }
+}
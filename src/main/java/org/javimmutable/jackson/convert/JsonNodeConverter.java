@@ -0,0 +1,365 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson.convert;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.KeyDeserializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.deser.DefaultDeserializationContext;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.databind.ser.std.StdKeySerializers;
+import com.fasterxml.jackson.databind.util.ClassUtil;
+import org.javimmutable.collections.JImmutableList;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.JImmutableSet;
+import org.javimmutable.collections.util.JImmutables;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.io.IOException;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Converts between JsonNode trees and JImmutable collections by walking the tree directly
+ * instead of writing it to a token stream and parsing it again the way treeToValue() and
+ * valueToTree() do.  ObjectNodes become JImmutableMaps and ArrayNodes become JImmutableLists
+ * or JImmutableSets as dictated by the requested type.  Sorted and insert order variants are
+ * built when the requested type is one of their classes.
+ * <p>
+ * Common scalar elements (strings, numbers, booleans) are converted directly as long as the
+ * mapper resolves Jackson's own (de)serializers for them.  Any other element is handed to the
+ * mapper so custom types are still (de)serialized using whatever the mapper, including the
+ * JImmutableModule, resolves for them.  Map keys are converted by the mapper's key serializers
+ * and key deserializers, which are resolved once per type.
+ */
+@ThreadSafe
+public final class JsonNodeConverter
+{
+    private final ObjectMapper mapper;
+    private final JsonNodeFactory nodeFactory;
+    private final Map<JavaType, ObjectReader> readers;
+    private final Map<JavaType, KeyDeserializer> keyDeserializers;
+    private final Map<JavaType, Boolean> standardDeserializers;
+    private final Map<Class<?>, JsonSerializer<Object>> keySerializers;
+    private final Map<Class<?>, Boolean> standardSerializers;
+
+    public JsonNodeConverter(ObjectMapper mapper)
+    {
+        this.mapper = mapper;
+        this.nodeFactory = mapper.getNodeFactory();
+        this.readers = new ConcurrentHashMap<>();
+        this.keyDeserializers = new ConcurrentHashMap<>();
+        this.standardDeserializers = new ConcurrentHashMap<>();
+        this.keySerializers = new ConcurrentHashMap<>();
+        this.standardSerializers = new ConcurrentHashMap<>();
+    }
+
+    public <T> T fromNode(JsonNode node,
+                          TypeReference<T> type)
+        throws IOException
+    {
+        return fromNode(node, mapper.getTypeFactory().constructType(type));
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T fromNode(JsonNode node,
+                          JavaType type)
+        throws IOException
+    {
+        final DeserializationContext context = ((DefaultDeserializationContext)mapper.getDeserializationContext()).createInstance(mapper.getDeserializationConfig(), null, mapper.getInjectableValues());
+        return (T)convertNode(node, type, context);
+    }
+
+    public JsonNode toNode(Object value)
+    {
+        try {
+            return toNode(value, mapper.getSerializerProviderInstance(), null);
+        } catch (IOException ex) {
+            // same exception valueToTree() uses for serialization failures
+            throw new IllegalArgumentException(ex.getMessage(), ex);
+        }
+    }
+
+    /**
+     * The FieldNameGenerator is created for the first key that needs its key serializer and
+     * then passed down so one conversion never creates more than one.
+     */
+    private JsonNode toNode(Object value,
+                            SerializerProvider provider,
+                            FieldNameGenerator names)
+        throws IOException
+    {
+        if (value == null) {
+            return nodeFactory.nullNode();
+        } else if (value instanceof JsonNode) {
+            return (JsonNode)value;
+        } else if (value instanceof JImmutableMap) {
+            final ObjectNode node = nodeFactory.objectNode();
+            for (Map.Entry<?, ?> entry : ((JImmutableMap<?, ?>)value).getMap().entrySet()) {
+                final Object key = entry.getKey();
+                final JsonSerializer<Object> keySerializer = keySerializer(key, provider);
+                final String name;
+                if (key instanceof String && keySerializer instanceof StdKeySerializers.StringKeySerializer) {
+                    name = (String)key;
+                } else {
+                    if (names == null) {
+                        names = new FieldNameGenerator(mapper.getFactory());
+                    }
+                    keySerializer.serialize(key, names, provider);
+                    name = names.takeFieldName();
+                }
+                node.set(name, toNode(entry.getValue(), provider, names));
+            }
+            return node;
+        } else if (value instanceof JImmutableList || value instanceof JImmutableSet) {
+            final ArrayNode node = nodeFactory.arrayNode();
+            for (Object element : (Iterable<?>)value) {
+                node.add(toNode(element, provider, names));
+            }
+            return node;
+        } else if (!isStandardSerializer(value.getClass(), provider)) {
+            return mapper.valueToTree(value);
+        } else if (value instanceof String) {
+            return nodeFactory.textNode((String)value);
+        } else if (value instanceof Integer) {
+            return nodeFactory.numberNode((Integer)value);
+        } else if (value instanceof Long) {
+            return nodeFactory.numberNode((Long)value);
+        } else if (value instanceof Double) {
+            return nodeFactory.numberNode((Double)value);
+        } else if (value instanceof Boolean) {
+            return nodeFactory.booleanNode((Boolean)value);
+        } else {
+            return mapper.valueToTree(value);
+        }
+    }
+
+    private JsonSerializer<Object> keySerializer(Object key,
+                                                 SerializerProvider provider)
+        throws JsonMappingException
+    {
+        if (key == null) {
+            return provider.findNullKeySerializer(provider.constructType(Object.class), null);
+        }
+        JsonSerializer<Object> serializer = keySerializers.get(key.getClass());
+        if (serializer == null) {
+            serializer = provider.findKeySerializer(key.getClass(), null);
+            keySerializers.put(key.getClass(), serializer);
+        }
+        return serializer;
+    }
+
+    /**
+     * Returns true if values of the class are written by one of Jackson's own serializers.
+     * Only the common scalar classes are checked since only they have a direct conversion.
+     */
+    private boolean isStandardSerializer(Class<?> valueClass,
+                                         SerializerProvider provider)
+        throws JsonMappingException
+    {
+        if (valueClass != String.class && valueClass != Integer.class && valueClass != Long.class && valueClass != Double.class && valueClass != Boolean.class) {
+            return false;
+        }
+        Boolean standard = standardSerializers.get(valueClass);
+        if (standard == null) {
+            standard = ClassUtil.isJacksonStdImpl(provider.findValueSerializer(valueClass));
+            standardSerializers.put(valueClass, standard);
+        }
+        return standard;
+    }
+
+    private Object convertNode(JsonNode node,
+                               JavaType type,
+                               DeserializationContext context)
+        throws IOException
+    {
+        if (node == null || node.isNull()) {
+            return null;
+        } else if (type.isTypeOrSubTypeOf(JImmutableMap.class)) {
+            return convertObject(node, type, context);
+        } else if (type.isTypeOrSubTypeOf(JImmutableList.class)) {
+            return convertList(node, type, context);
+        } else if (type.isTypeOrSubTypeOf(JImmutableSet.class)) {
+            return convertSet(node, type, context);
+        } else {
+            return convertScalar(node, type, context);
+        }
+    }
+
+    private JImmutableMap<Object, Object> convertObject(JsonNode node,
+                                                       JavaType type,
+                                                       DeserializationContext context)
+        throws IOException
+    {
+        if (!node.isObject()) {
+            throw error("expected an object node for " + type.getRawClass().getName() + " but found " + node.getNodeType());
+        }
+        final JavaType keyType = type.getKeyType();
+        final KeyDeserializer keyDeserializer = keyDeserializer(keyType, context);
+        final JavaType valueType = type.getContentType();
+        final JImmutableMap.Builder<Object, Object> builder = CollectionFactories.mapBuilder(type.getRawClass());
+        final Iterator<Map.Entry<String, JsonNode>> fields = node.fields();
+        while (fields.hasNext()) {
+            final Map.Entry<String, JsonNode> field = fields.next();
+            builder.add(convertKey(field.getKey(), keyType, keyDeserializer, context), convertNode(field.getValue(), valueType, context));
+        }
+        return builder.build();
+    }
+
+    private JImmutableList<Object> convertList(JsonNode node,
+                                               JavaType type,
+                                               DeserializationContext context)
+        throws IOException
+    {
+        if (!node.isArray()) {
+            throw error("expected an array node for " + type.getRawClass().getName() + " but found " + node.getNodeType());
+        }
+        final JavaType elementType = type.getContentType();
+        final JImmutableList.Builder<Object> builder = JImmutables.listBuilder();
+        for (JsonNode element : node) {
+            builder.add(convertNode(element, elementType, context));
+        }
+        return builder.build();
+    }
+
+    private JImmutableSet<Object> convertSet(JsonNode node,
+                                             JavaType type,
+                                             DeserializationContext context)
+        throws IOException
+    {
+        if (!node.isArray()) {
+            throw error("expected an array node for " + type.getRawClass().getName() + " but found " + node.getNodeType());
+        }
+        final JavaType elementType = type.getContentType();
+        JImmutableSet<Object> set = CollectionFactories.emptySet(type.getRawClass());
+        for (JsonNode element : node) {
+            set = set.insert(convertNode(element, elementType, context));
+        }
+        return set;
+    }
+
+    /**
+     * Returns the key deserializer for the type or null if keys are used as is.
+     */
+    private KeyDeserializer keyDeserializer(JavaType keyType,
+                                            DeserializationContext context)
+        throws JsonMappingException
+    {
+        if (keyType == null || keyType.getRawClass() == Object.class) {
+            return null;
+        }
+        KeyDeserializer keyDeserializer = keyDeserializers.get(keyType);
+        if (keyDeserializer == null) {
+            keyDeserializer = context.findKeyDeserializer(keyType, null);
+            keyDeserializers.put(keyType, keyDeserializer);
+        }
+        return keyDeserializer;
+    }
+
+    private Object convertKey(String key,
+                              JavaType keyType,
+                              KeyDeserializer keyDeserializer,
+                              DeserializationContext context)
+        throws IOException
+    {
+        if (keyDeserializer == null) {
+            return key;
+        }
+        final Object answer = keyDeserializer.deserializeKey(key, context);
+        if (answer == null) {
+            throw error("unable to convert key to " + keyType.getRawClass().getName() + ": " + key);
+        }
+        return answer;
+    }
+
+    private Object convertScalar(JsonNode node,
+                                 JavaType type,
+                                 DeserializationContext context)
+        throws IOException
+    {
+        final Class<?> rawClass = type.getRawClass();
+        if (isStandardDeserializer(type, context)) {
+            if (rawClass == String.class && node.isTextual()) {
+                return node.textValue();
+            } else if (rawClass == Integer.class && node.isInt()) {
+                return node.intValue();
+            } else if (rawClass == Long.class && node.isIntegralNumber() && node.canConvertToLong()) {
+                return node.longValue();
+            } else if (rawClass == Double.class && node.isNumber()) {
+                return node.doubleValue();
+            } else if (rawClass == Boolean.class && node.isBoolean()) {
+                return node.booleanValue();
+            }
+        }
+        return readers.computeIfAbsent(type, mapper::readerFor).readValue(node);
+    }
+
+    /**
+     * Returns true if values of the type are read by one of Jackson's own deserializers.
+     * Only the common scalar classes are checked since only they have a direct conversion.
+     */
+    private boolean isStandardDeserializer(JavaType type,
+                                           DeserializationContext context)
+        throws JsonMappingException
+    {
+        final Class<?> rawClass = type.getRawClass();
+        if (rawClass != String.class && rawClass != Integer.class && rawClass != Long.class && rawClass != Double.class && rawClass != Boolean.class) {
+            return false;
+        }
+        Boolean standard = standardDeserializers.get(type);
+        if (standard == null) {
+            standard = ClassUtil.isJacksonStdImpl(context.findRootValueDeserializer(type));
+            standardDeserializers.put(type, standard);
+        }
+        return standard;
+    }
+
+    private static JsonMappingException error(String message)
+    {
+        return JsonMappingException.from((JsonParser)null, message);
+    }
+}
@@ -0,0 +1,305 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson.digest;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.javimmutable.collections.JImmutableList;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.JImmutableSet;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import javax.annotation.concurrent.ThreadSafe;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Computes canonical SHA-256 content hashes of JImmutableMap, JImmutableSet, and JImmutableList
+ * values suitable for use as ETags.  Equal collections produce equal hashes regardless of
+ * implementation or iteration order (maps and sets are hashed independently of order while
+ * lists are hashed in order).  Elements that are not JImmutable collections are hashed using
+ * the JSON the mapper writes for them.
+ * <p>
+ * Hashes of nested collections are remembered (weakly, by identity) so a new version of a
+ * value that shares most of its nested collections with a previous version only rehashes the
+ * collections that changed along with their parents.  The internal nodes of the collections
+ * are not accessible so the elements of a changed collection are always hashed again.
+ * <p>
+ * Each call reuses one digest per nesting level and writes every element through a single
+ * generator that feeds the digest directly.
+ */
+@ThreadSafe
+public final class ContentHasher
+{
+    private static final String ALGORITHM = "SHA-256";
+    private static final byte NULL_TAG = 'n';
+    private static final byte VALUE_TAG = 'v';
+    private static final byte ENTRY_TAG = 'e';
+    private static final byte MAP_TAG = 'm';
+    private static final byte SET_TAG = 's';
+    private static final byte LIST_TAG = 'l';
+
+    private final ObjectWriter writer;
+    private final MessageDigest prototype;
+    private final IdentityWeakCache<Object, byte[]> cache;
+
+    public ContentHasher(ObjectMapper mapper)
+    {
+        writer = mapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+        prototype = newDigest();
+        cache = new IdentityWeakCache<>();
+    }
+
+    /**
+     * Returns the SHA-256 content hash of the value.
+     */
+    public byte[] hash(Object value)
+        throws JsonProcessingException
+    {
+        return new Hashing().hash(value).clone();
+    }
+
+    /**
+     * Returns a strong ETag (including the surrounding quotes) for the value.
+     */
+    public String etag(Object value)
+        throws JsonProcessingException
+    {
+        return "\"" + Base64.getUrlEncoder().withoutPadding().encodeToString(new Hashing().hash(value)) + "\"";
+    }
+
+    int cachedCount()
+    {
+        return cache.size();
+    }
+
+    private MessageDigest copyDigest()
+    {
+        try {
+            return (MessageDigest)prototype.clone();
+        } catch (CloneNotSupportedException ex) {
+            return newDigest();
+        }
+    }
+
+    private static MessageDigest newDigest()
+    {
+        try {
+            return MessageDigest.getInstance(ALGORITHM);
+        } catch (NoSuchAlgorithmException ex) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * State for a single hash computation.  Holds one digest per nesting level, since a
+     * collection's digest is still being updated while its elements are hashed, and the
+     * generator used to write element JSON straight into the current digest.
+     */
+    @NotThreadSafe
+    private class Hashing
+    {
+        private final List<MessageDigest> digests = new ArrayList<>();
+        private final DigestOutputStream sink = new DigestOutputStream();
+        private JsonGenerator generator;
+        private int depth;
+
+        private byte[] hash(Object value)
+            throws JsonProcessingException
+        {
+            try {
+                return hashValue(value);
+            } catch (JsonProcessingException ex) {
+                throw ex;
+            } catch (IOException ex) {
+                throw JsonMappingException.fromUnexpectedIOE(ex);
+            }
+        }
+
+        private byte[] hashValue(Object value)
+            throws IOException
+        {
+            if (value instanceof JImmutableMap || value instanceof JImmutableSet || value instanceof JImmutableList) {
+                byte[] hash = cache.get(value);
+                if (hash == null) {
+                    hash = hashCollection(value);
+                    cache.put(value, hash);
+                }
+                return hash;
+            }
+            final MessageDigest digest = push();
+            try {
+                if (value == null) {
+                    digest.update(NULL_TAG);
+                } else {
+                    digest.update(VALUE_TAG);
+                    writeJson(digest, value);
+                }
+                return digest.digest();
+            } finally {
+                pop();
+            }
+        }
+
+        private byte[] hashCollection(Object value)
+            throws IOException
+        {
+            final MessageDigest digest = push();
+            try {
+                if (value instanceof JImmutableMap) {
+                    final JImmutableMap<?, ?> map = (JImmutableMap<?, ?>)value;
+                    final UnorderedSum sum = new UnorderedSum();
+                    for (JImmutableMap.Entry<?, ?> entry : map) {
+                        digest.update(ENTRY_TAG);
+                        digest.update(hashValue(entry.getKey()));
+                        digest.update(hashValue(entry.getValue()));
+                        sum.add(digest.digest());
+                    }
+                    return sum.digest(digest, MAP_TAG, map.size());
+                } else if (value instanceof JImmutableSet) {
+                    final JImmutableSet<?> set = (JImmutableSet<?>)value;
+                    final UnorderedSum sum = new UnorderedSum();
+                    for (Object element : set) {
+                        sum.add(hashValue(element));
+                    }
+                    return sum.digest(digest, SET_TAG, set.size());
+                } else {
+                    final JImmutableList<?> list = (JImmutableList<?>)value;
+                    digest.update(LIST_TAG);
+                    digest.update(ByteBuffer.allocate(Integer.BYTES).putInt(list.size()).array());
+                    for (Object element : list) {
+                        digest.update(hashValue(element));
+                    }
+                    return digest.digest();
+                }
+            } finally {
+                pop();
+            }
+        }
+
+        private void writeJson(MessageDigest digest,
+                               Object value)
+            throws IOException
+        {
+            if (generator == null) {
+                generator = writer.getFactory().createGenerator(sink);
+                // values are hashed separately so nothing may be written between them
+                generator.setRootValueSeparator(null);
+            }
+            sink.target = digest;
+            writer.writeValue(generator, value);
+            generator.flush();
+        }
+
+        private MessageDigest push()
+        {
+            if (depth == digests.size()) {
+                digests.add(copyDigest());
+            }
+            return digests.get(depth++);
+        }
+
+        private void pop()
+        {
+            depth -= 1;
+        }
+    }
+
+    /**
+     * Passes everything written to it into the current target digest.
+     */
+    @NotThreadSafe
+    private static class DigestOutputStream
+        extends OutputStream
+    {
+        private MessageDigest target;
+
+        @Override
+        public void write(int b)
+        {
+            target.update((byte)b);
+        }
+
+        @Override
+        public void write(byte[] bytes,
+                          int offset,
+                          int length)
+        {
+            target.update(bytes, offset, length);
+        }
+    }
+
+    /**
+     * Combines element hashes independently of their order by adding them together
+     * as four 64 bit lanes.
+     */
+    private static class UnorderedSum
+    {
+        private final long[] lanes = new long[4];
+
+        private void add(byte[] hash)
+        {
+            final ByteBuffer buffer = ByteBuffer.wrap(hash);
+            for (int i = 0; i < lanes.length; ++i) {
+                lanes[i] += buffer.getLong();
+            }
+        }
+
+        private byte[] digest(MessageDigest digest,
+                              byte tag,
+                              int size)
+        {
+            final ByteBuffer buffer = ByteBuffer.allocate(1 + Integer.BYTES + lanes.length * Long.BYTES);
+            buffer.put(tag).putInt(size);
+            for (long lane : lanes) {
+                buffer.putLong(lane);
+            }
+            digest.update(buffer.array());
+            return digest.digest();
+        }
+    }
+}
@@ -0,0 +1,275 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson.io;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.KeyDeserializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.deser.DefaultDeserializationContext;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import org.javimmutable.collections.JImmutableList;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.JImmutableSet;
+import org.javimmutable.collections.util.JImmutables;
+import org.javimmutable.jackson.InsertableDeserializer;
+import org.javimmutable.jackson.JImmutableLimits;
+import org.javimmutable.jackson.JImmutableMapDeserializer;
+import org.javimmutable.jackson.LimitTracker;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.io.IOException;
+
+/**
+ * Incrementally reads a JImmutableList, JImmutableSet, or JImmutableMap from chunks of bytes
+ * as they arrive, for example from a non-blocking channel.  Uses jackson's non-blocking parser
+ * so only the tokens of the element currently being read are buffered rather than the whole
+ * payload.  Scalar elements are read straight from the parser and only structured elements
+ * are buffered.  Each completed element is converted using the same value deserializer the
+ * JImmutableModule would use for the collection's content type and added to the result.
+ * Map keys are converted by the mapper's key deserializer for the key type and the limits
+ * configured for the JImmutableModule are applied just as they are by the module itself.
+ * <p>
+ * Call feed() with each chunk as it arrives, then endOfInput() once the source is exhausted.
+ * The result is available from getResult() once isDone() returns true.
+ */
+@NotThreadSafe
+public class AsyncCollectionReader<T>
+{
+    private final JavaType collectionType;
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    private final DefaultDeserializationContext context;
+    private final JsonDeserializer<Object> valueDeserializer;
+    private final KeyDeserializer keyDeserializer;
+    private final JImmutableLimits limits;
+    private final JImmutableList.Builder<Object> listBuilder;
+    private final JImmutableMap.Builder<Object, Object> mapBuilder;
+    private JImmutableSet<Object> set;
+    private LimitTracker tracker;
+    private boolean done;
+    private Object result;
+    private int count;
+    private Object key;
+    private TokenBuffer element;
+    private int elementDepth;
+
+    private AsyncCollectionReader(ObjectMapper mapper,
+                                  JavaType collectionType)
+        throws IOException
+    {
+        this.collectionType = collectionType;
+        if (collectionType.isTypeOrSubTypeOf(JImmutableMap.class)) {
+            mapBuilder = JImmutables.mapBuilder();
+            listBuilder = null;
+        } else if (collectionType.isTypeOrSubTypeOf(JImmutableList.class)) {
+            listBuilder = JImmutables.listBuilder();
+            mapBuilder = null;
+        } else if (collectionType.isTypeOrSubTypeOf(JImmutableSet.class)) {
+            set = JImmutables.set();
+            listBuilder = null;
+            mapBuilder = null;
+        } else {
+            throw new IllegalArgumentException("Class is not supported: " + collectionType.getRawClass().getName());
+        }
+        parser = mapper.getFactory().createNonBlockingByteArrayParser();
+        feeder = (ByteArrayFeeder)parser.getNonBlockingInputFeeder();
+        // one context for the whole collection so nested collections share its limit tracking
+        context = ((DefaultDeserializationContext)mapper.getDeserializationContext()).createInstance(mapper.getDeserializationConfig(), parser, mapper.getInjectableValues());
+        valueDeserializer = context.findRootValueDeserializer(collectionType.getContentType());
+        keyDeserializer = (mapBuilder != null) ? context.findKeyDeserializer(collectionType.getKeyType(), null) : null;
+        limits = findLimits(context.findRootValueDeserializer(collectionType));
+    }
+
+    public static <T> AsyncCollectionReader<T> forType(ObjectMapper mapper,
+                                                       TypeReference<T> type)
+        throws IOException
+    {
+        return new AsyncCollectionReader<>(mapper, mapper.getTypeFactory().constructType(type));
+    }
+
+    public static <T> AsyncCollectionReader<T> forType(ObjectMapper mapper,
+                                                       JavaType type)
+        throws IOException
+    {
+        return new AsyncCollectionReader<>(mapper, type);
+    }
+
+    /**
+     * Parses the specified bytes and adds any elements they complete to the result.
+     *
+     * @return true if the collection is now complete
+     */
+    public boolean feed(byte[] buffer,
+                        int offset,
+                        int length)
+        throws IOException
+    {
+        feeder.feedInput(buffer, offset, offset + length);
+        processAvailableTokens();
+        return done;
+    }
+
+    /**
+     * Signals that no more bytes will be fed.  Throws an exception if the collection
+     * has not been completely read.
+     */
+    public void endOfInput()
+        throws IOException
+    {
+        feeder.endOfInput();
+        processAvailableTokens();
+        if (!done) {
+            throw new JsonParseException(parser, "end of input before " + collectionType.getRawClass().getSimpleName() + " was complete");
+        }
+        parser.close();
+    }
+
+    public boolean isDone()
+    {
+        return done;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T getResult()
+    {
+        if (!done) {
+            throw new IllegalStateException("collection has not been completely read");
+        }
+        return (T)result;
+    }
+
+    /**
+     * The deserializer the mapper would use for the collection carries the module's limits.
+     */
+    private static JImmutableLimits findLimits(JsonDeserializer<?> deserializer)
+    {
+        if (deserializer instanceof InsertableDeserializer) {
+            return ((InsertableDeserializer<?>)deserializer).getLimits();
+        } else if (deserializer instanceof JImmutableMapDeserializer) {
+            return ((JImmutableMapDeserializer<?>)deserializer).getLimits();
+        } else {
+            return JImmutableLimits.NONE;
+        }
+    }
+
+    private void processAvailableTokens()
+        throws IOException
+    {
+        JsonToken token;
+        while ((token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            if (done) {
+                throw new JsonParseException(parser, "unexpected content after end of " + collectionType.getRawClass().getSimpleName());
+            } else if (tracker == null) {
+                startCollection(token);
+            } else if (element != null) {
+                continueElement(token);
+            } else if (token == JsonToken.END_ARRAY || token == JsonToken.END_OBJECT) {
+                finishCollection();
+            } else if (token == JsonToken.FIELD_NAME) {
+                key = keyDeserializer.deserializeKey(parser.getCurrentName(), context);
+            } else {
+                tracker.element(limits, parser, ++count);
+                if (token == JsonToken.VALUE_NULL) {
+                    addElement(null);
+                } else if (token.isScalarValue()) {
+                    addElement(valueDeserializer.deserialize(parser, context));
+                } else {
+                    element = new TokenBuffer(parser);
+                    elementDepth = 0;
+                    continueElement(token);
+                }
+            }
+        }
+    }
+
+    private void startCollection(JsonToken token)
+        throws IOException
+    {
+        final JsonToken expected = (mapBuilder == null) ? JsonToken.START_ARRAY : JsonToken.START_OBJECT;
+        if (token != expected) {
+            throw new JsonParseException(parser, "expected " + expected + " but found " + token);
+        }
+        tracker = LimitTracker.enter(limits, parser, context);
+    }
+
+    private void continueElement(JsonToken token)
+        throws IOException
+    {
+        element.copyCurrentEvent(parser);
+        if (token.isStructStart()) {
+            elementDepth += 1;
+        } else if (token.isStructEnd()) {
+            elementDepth -= 1;
+        }
+        tracker.size(limits, parser);
+        if (elementDepth == 0) {
+            final JsonParser elementParser = element.asParser(parser.getCodec());
+            element = null;
+            elementParser.nextToken();
+            addElement(valueDeserializer.deserialize(elementParser, context));
+        }
+    }
+
+    private void addElement(Object value)
+    {
+        if (mapBuilder != null) {
+            mapBuilder.add(key, value);
+        } else if (listBuilder != null) {
+            listBuilder.add(value);
+        } else {
+            set = set.insert(value);
+        }
+    }
+
+    private void finishCollection()
+    {
+        tracker.exit(parser);
+        if (mapBuilder != null) {
+            result = mapBuilder.build();
+        } else if (listBuilder != null) {
+            result = listBuilder.build();
+        } else {
+            result = set;
+        }
+        done = true;
+    }
+}
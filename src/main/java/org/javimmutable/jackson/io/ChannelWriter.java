@@ -0,0 +1,83 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson.io;
+
+import com.fasterxml.jackson.databind.ObjectWriter;
+
+import javax.annotation.concurrent.NotThreadSafe;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+
+/**
+ * Serializes values, typically large JImmutableLists or JImmutableMaps, directly to a
+ * WritableByteChannel.  Output is collected in a direct ByteBuffer that is written to the
+ * channel each time it reaches the flush threshold, so memory use stays bounded regardless
+ * of the size of the value.  The buffer is allocated once and reused by every call so a
+ * ChannelWriter should be kept and reused by a single thread.
+ * <p>
+ * The channel must be in blocking mode and is left open after each write.
+ */
+@NotThreadSafe
+public class ChannelWriter
+{
+    public static final int DEFAULT_FLUSH_THRESHOLD = 64 * 1024;
+
+    private final ObjectWriter writer;
+    private final ByteBuffer buffer;
+
+    public ChannelWriter(ObjectWriter writer)
+    {
+        this(writer, DEFAULT_FLUSH_THRESHOLD);
+    }
+
+    public ChannelWriter(ObjectWriter writer,
+                         int flushThreshold)
+    {
+        if (flushThreshold <= 0) {
+            throw new IllegalArgumentException("invalid flush threshold: " + flushThreshold);
+        }
+        this.writer = writer;
+        this.buffer = ByteBuffer.allocateDirect(flushThreshold);
+    }
+
+    public void writeValue(WritableByteChannel channel,
+                           Object value)
+        throws IOException
+    {
+        writer.writeValue(new ChannelOutputStream(channel, buffer), value);
+    }
+}
@@ -0,0 +1,171 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson.io;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SequenceWriter;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import com.fasterxml.jackson.dataformat.csv.CsvSchema;
+import org.javimmutable.collections.JImmutableList;
+import org.javimmutable.collections.util.JImmutables;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.Reader;
+import java.io.Writer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Writes and reads a JImmutableList of beans as CSV using jackson-dataformat-csv, one bean
+ * per row.  Rows are written straight from the list as it is iterated and rows being read
+ * are appended to a list builder as they are parsed, so neither direction makes an
+ * intermediate java.util copy of the rows.  Files are read through memory mapped segments
+ * like MappedFileReader.
+ * <p>
+ * jackson-dataformat-csv is an optional dependency of this module and must be on the
+ * classpath to use this class.  Streams passed to it are left open.
+ * <pre>
+ *     CsvRows&lt;Row&gt; csv = new CsvRows&lt;&gt;(new CsvMapper(), Row.class);
+ *     csv.write(rows, path);
+ *     JImmutableList&lt;Row&gt; copy = csv.read(path);
+ * </pre>
+ */
+@ThreadSafe
+public final class CsvRows<T>
+{
+    private final ObjectWriter writer;
+    private final ObjectReader reader;
+
+    /**
+     * Uses the schema CsvMapper derives from the row class with a header line.
+     */
+    public CsvRows(CsvMapper mapper,
+                   Class<T> rowType)
+    {
+        this(mapper, rowType, mapper.schemaFor(rowType).withHeader());
+    }
+
+    public CsvRows(CsvMapper mapper,
+                   Class<T> rowType,
+                   CsvSchema schema)
+    {
+        writer = mapper.writerFor(rowType).with(schema).without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        reader = mapper.readerFor(rowType).with(schema).without(JsonParser.Feature.AUTO_CLOSE_SOURCE);
+    }
+
+    public void write(Iterable<? extends T> rows,
+                      Writer out)
+        throws IOException
+    {
+        try (SequenceWriter sequence = writer.writeValues(out)) {
+            writeRows(rows, sequence);
+        }
+    }
+
+    public void write(Iterable<? extends T> rows,
+                      OutputStream out)
+        throws IOException
+    {
+        try (SequenceWriter sequence = writer.writeValues(out)) {
+            writeRows(rows, sequence);
+        }
+    }
+
+    /**
+     * Creates or replaces the file.
+     */
+    public void write(Iterable<? extends T> rows,
+                      Path file)
+        throws IOException
+    {
+        try (OutputStream out = Files.newOutputStream(file)) {
+            write(rows, out);
+        }
+    }
+
+    public JImmutableList<T> read(Reader in)
+        throws IOException
+    {
+        try (MappingIterator<T> rows = reader.readValues(in)) {
+            return readRows(rows);
+        }
+    }
+
+    public JImmutableList<T> read(InputStream in)
+        throws IOException
+    {
+        try (MappingIterator<T> rows = reader.readValues(in)) {
+            return readRows(rows);
+        }
+    }
+
+    public JImmutableList<T> read(Path file)
+        throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             InputStream input = new MappedFileInputStream(channel, MappedFileReader.DEFAULT_SEGMENT_SIZE)) {
+            return read(input);
+        }
+    }
+
+    private static <T> void writeRows(Iterable<? extends T> rows,
+                                      SequenceWriter sequence)
+        throws IOException
+    {
+        for (T row : rows) {
+            sequence.write(row);
+        }
+    }
+
+    private static <T> JImmutableList<T> readRows(MappingIterator<T> rows)
+        throws IOException
+    {
+        final JImmutableList.Builder<T> builder = JImmutables.listBuilder();
+        while (rows.hasNextValue()) {
+            builder.add(rows.nextValue());
+        }
+        return builder.build();
+    }
+}
@@ -0,0 +1,340 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson.io;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.io.JsonEOFException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.javimmutable.collections.JImmutableList;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.JImmutableSet;
+import org.javimmutable.collections.inorder.JImmutableInsertOrderMap;
+import org.javimmutable.collections.inorder.JImmutableInsertOrderSet;
+import org.javimmutable.collections.tree.JImmutableTreeMap;
+import org.javimmutable.collections.tree.JImmutableTreeSet;
+import org.javimmutable.collections.util.JImmutables;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Writes a JImmutableList, JImmutableSet, or JImmutableMap to a snapshot file and reads it back.
+ * The elements (and map keys) are stored as a sequence of root level values written by a single
+ * generator, so loading a snapshot reads them with a single parser and never has to parse the
+ * structure of the collection itself.  The file is read through a memory mapped window.  Lists
+ * and maps are rebuilt using their builders, so sorted maps are rebuilt by appending.  Sets have
+ * no builder so their elements are read into a presized buffer and added with one insertAll().
+ * <p>
+ * Element values are encoded with the ObjectMapper given to the constructor, so any format
+ * and any type it supports can be used.  A binary mapper (such as Smile or CBOR) makes
+ * snapshots smaller and faster to load than JSON.  Whether the collection was a hash, sorted,
+ * or insert order collection is recorded in the file and restored on reading.  Sorted
+ * collections are restored using the natural ordering of their elements.
+ * <p>
+ * Layout: a binary header (magic int, version byte, kind byte (L, S, or M), order byte
+ * (H, S, or I), element count int, all big endian) followed by one root level value per
+ * element in the mapper's format.  Map entries store the key and then the value that way.
+ */
+@ThreadSafe
+public final class JImmutableSnapshot
+{
+    static final int MAGIC = 0x4A49534E;
+    static final int VERSION = 2;
+    static final int WINDOW_SIZE = 1 << 30;
+
+    private static final byte LIST = 'L';
+    private static final byte SET = 'S';
+    private static final byte MAP = 'M';
+    private static final byte HASH_ORDER = 'H';
+    private static final byte SORTED_ORDER = 'S';
+    private static final byte INSERT_ORDER = 'I';
+
+    private final ObjectMapper mapper;
+
+    public JImmutableSnapshot(ObjectMapper mapper)
+    {
+        this.mapper = mapper;
+    }
+
+    /**
+     * Creates or replaces the snapshot file.  The type provides the element (and key)
+     * types used to encode the values.
+     */
+    public <T> void write(Path file,
+                          T collection,
+                          TypeReference<T> type)
+        throws IOException
+    {
+        write(file, collection, mapper.getTypeFactory().constructType(type));
+    }
+
+    public void write(Path file,
+                      Object collection,
+                      JavaType type)
+        throws IOException
+    {
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(file), 64 * 1024))) {
+            if (collection instanceof JImmutableMap) {
+                final JImmutableMap<?, ?> map = (JImmutableMap<?, ?>)collection;
+                final ObjectWriter keyWriter = writerFor(type.getKeyType());
+                final ObjectWriter valueWriter = writerFor(type.getContentType());
+                final byte order = (map instanceof JImmutableTreeMap) ? SORTED_ORDER : (map instanceof JImmutableInsertOrderMap) ? INSERT_ORDER : HASH_ORDER;
+                writeHeader(out, MAP, order, map.size());
+                try (JsonGenerator gen = mapper.getFactory().createGenerator((OutputStream)out)) {
+                    for (JImmutableMap.Entry<?, ?> entry : map) {
+                        keyWriter.writeValue(gen, entry.getKey());
+                        valueWriter.writeValue(gen, entry.getValue());
+                    }
+                }
+            } else if (collection instanceof JImmutableSet) {
+                final JImmutableSet<?> set = (JImmutableSet<?>)collection;
+                final ObjectWriter valueWriter = writerFor(type.getContentType());
+                final byte order = (set instanceof JImmutableTreeSet) ? SORTED_ORDER : (set instanceof JImmutableInsertOrderSet) ? INSERT_ORDER : HASH_ORDER;
+                writeHeader(out, SET, order, set.size());
+                writeValues(out, valueWriter, set);
+            } else if (collection instanceof JImmutableList) {
+                final JImmutableList<?> list = (JImmutableList<?>)collection;
+                final ObjectWriter valueWriter = writerFor(type.getContentType());
+                writeHeader(out, LIST, INSERT_ORDER, list.size());
+                writeValues(out, valueWriter, list);
+            } else {
+                throw new IllegalArgumentException("Class is not supported: " + ((collection == null) ? "null" : collection.getClass().getName()));
+            }
+        }
+    }
+
+    public <T> T read(Path file,
+                      TypeReference<T> type)
+        throws IOException
+    {
+        return read(file, mapper.getTypeFactory().constructType(type));
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T read(Path file,
+                      JavaType type)
+        throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final MappedInputStream input = new MappedInputStream(channel);
+            final DataInputStream in = new DataInputStream(input);
+            if (in.readInt() != MAGIC) {
+                throw new IOException("not a snapshot file: " + file);
+            }
+            final int version = in.readByte();
+            if (version != VERSION) {
+                throw new IOException("unsupported snapshot version: " + version);
+            }
+            final byte kind = in.readByte();
+            final byte order = in.readByte();
+            final int count = in.readInt();
+            if (kind != MAP && kind != SET && kind != LIST) {
+                throw new IOException("unknown collection kind in snapshot: " + kind);
+            }
+            if (count < 0) {
+                throw new IOException("invalid element count in snapshot: " + count);
+            }
+            verifyType(type, (kind == MAP) ? JImmutableMap.class : (kind == SET) ? JImmutableSet.class : JImmutableList.class, kind);
+            try (JsonParser parser = mapper.getFactory().createParser(input)) {
+                if (kind == MAP) {
+                    final ObjectReader keyReader = mapper.readerFor(type.getKeyType());
+                    final ObjectReader valueReader = mapper.readerFor(type.getContentType());
+                    final JImmutableMap.Builder<Object, Object> builder = (order == SORTED_ORDER) ? JImmutables.sortedMapBuilder() : (order == INSERT_ORDER) ? JImmutableInsertOrderMap.builder() : JImmutables.mapBuilder();
+                    for (int i = 0; i < count; ++i) {
+                        final Object key = readElement(parser, keyReader);
+                        builder.add(key, readElement(parser, valueReader));
+                    }
+                    return (T)builder.build();
+                } else if (kind == SET) {
+                    final ObjectReader valueReader = mapper.readerFor(type.getContentType());
+                    final JImmutableSet<Object> empty = (order == SORTED_ORDER) ? JImmutables.sortedSet() : (order == INSERT_ORDER) ? JImmutables.insertOrderSet() : JImmutables.set();
+                    // every element takes at least one byte so a corrupt count cannot oversize the buffer
+                    final List<Object> values = new ArrayList<>((int)Math.min(count, channel.size()));
+                    for (int i = 0; i < count; ++i) {
+                        values.add(readElement(parser, valueReader));
+                    }
+                    return (T)empty.insertAll(values);
+                } else {
+                    final ObjectReader valueReader = mapper.readerFor(type.getContentType());
+                    final JImmutableList.Builder<Object> builder = JImmutables.listBuilder();
+                    for (int i = 0; i < count; ++i) {
+                        builder.add(readElement(parser, valueReader));
+                    }
+                    return (T)builder.build();
+                }
+            }
+        }
+    }
+
+    /**
+     * Flushing after every value would flush the file stream once per element.
+     */
+    private ObjectWriter writerFor(JavaType type)
+    {
+        return mapper.writerFor(type).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+    }
+
+    private void writeValues(OutputStream out,
+                             ObjectWriter writer,
+                             Iterable<?> values)
+        throws IOException
+    {
+        try (JsonGenerator gen = mapper.getFactory().createGenerator(out)) {
+            for (Object value : values) {
+                writer.writeValue(gen, value);
+            }
+        }
+    }
+
+    private static Object readElement(JsonParser parser,
+                                      ObjectReader reader)
+        throws IOException
+    {
+        final JsonToken token;
+        try {
+            token = parser.nextToken();
+            if (token == JsonToken.VALUE_NULL) {
+                return null;
+            } else if (token != null) {
+                return reader.readValue(parser);
+            }
+        } catch (JsonEOFException ex) {
+            throw new EOFException("snapshot file is truncated");
+        }
+        throw new EOFException("snapshot file is truncated");
+    }
+
+    private static void writeHeader(DataOutputStream out,
+                                    byte kind,
+                                    byte order,
+                                    int count)
+        throws IOException
+    {
+        out.writeInt(MAGIC);
+        out.writeByte(VERSION);
+        out.writeByte(kind);
+        out.writeByte(order);
+        out.writeInt(count);
+    }
+
+    private static void verifyType(JavaType type,
+                                   Class<?> expected,
+                                   byte kind)
+        throws IOException
+    {
+        if (!type.isTypeOrSubTypeOf(expected)) {
+            throw new IOException("snapshot contains a " + expected.getSimpleName() + " (kind " + (char)kind + ") but " + type.getRawClass().getName() + " was requested");
+        }
+    }
+
+    /**
+     * Reads from a window of the file mapped into memory.  The window is moved forward
+     * whenever it has been consumed so files of any size can be read.
+     */
+    private static class MappedInputStream
+        extends InputStream
+    {
+        private final FileChannel channel;
+        private final long size;
+        private MappedByteBuffer window;
+        private long windowStart;
+
+        private MappedInputStream(FileChannel channel)
+            throws IOException
+        {
+            this.channel = channel;
+            this.size = channel.size();
+        }
+
+        @Override
+        public int read()
+            throws IOException
+        {
+            return advance() ? (window.get() & 0xff) : -1;
+        }
+
+        @Override
+        public int read(byte[] buffer,
+                        int offset,
+                        int length)
+            throws IOException
+        {
+            if (length == 0) {
+                return 0;
+            }
+            if (!advance()) {
+                return -1;
+            }
+            final int count = Math.min(length, window.remaining());
+            window.get(buffer, offset, count);
+            return count;
+        }
+
+        private boolean advance()
+            throws IOException
+        {
+            if (window == null || !window.hasRemaining()) {
+                final long position = (window == null) ? 0 : windowStart + window.limit();
+                if (position >= size) {
+                    return false;
+                }
+                window = channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(size - position, WINDOW_SIZE));
+                windowStart = position;
+            }
+            return true;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson.io;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+
+/**
+ * InputStream that reads a file through a sequence of memory mapped segments.
+ * Only one segment is referenced at a time so earlier segments can be unmapped
+ * by the garbage collector once they have been consumed.  Segments are limited
+ * in size so files larger than 2GB can be read as a single stream.
+ * Does not close the channel.
+ */
+class MappedFileInputStream
+    extends InputStream
+{
+    private final FileChannel channel;
+    private final long size;
+    private final long segmentSize;
+    private long nextPosition;
+    private ByteBuffer segment;
+
+    MappedFileInputStream(FileChannel channel,
+                          long segmentSize)
+        throws IOException
+    {
+        if (segmentSize <= 0 || segmentSize > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("invalid segment size: " + segmentSize);
+        }
+        this.channel = channel;
+        this.size = channel.size();
+        this.segmentSize = segmentSize;
+        this.nextPosition = channel.position();
+    }
+
+    @Override
+    public int read()
+        throws IOException
+    {
+        if (!prepareSegment()) {
+            return -1;
+        }
+        return segment.get() & 0xff;
+    }
+
+    @Override
+    public int read(byte[] buffer,
+                    int offset,
+                    int length)
+        throws IOException
+    {
+        if (length == 0) {
+            return 0;
+        }
+        if (!prepareSegment()) {
+            return -1;
+        }
+        final int count = Math.min(length, segment.remaining());
+        segment.get(buffer, offset, count);
+        return count;
+    }
+
+    @Override
+    public long skip(long count)
+        throws IOException
+    {
+        long skipped = 0;
+        while (skipped < count && prepareSegment()) {
+            final int step = (int)Math.min(count - skipped, segment.remaining());
+            segment.position(segment.position() + step);
+            skipped += step;
+        }
+        return skipped;
+    }
+
+    @Override
+    public int available()
+    {
+        final long remaining = (size - nextPosition) + (segment == null ? 0 : segment.remaining());
+        return (int)Math.min(remaining, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public void close()
+    {
+        segment = null;
+        nextPosition = size;
+    }
+
+    private boolean prepareSegment()
+        throws IOException
+    {
+        while (segment == null || !segment.hasRemaining()) {
+            if (nextPosition >= size) {
+                segment = null;
+                return false;
+            }
+            final long length = Math.min(segmentSize, size - nextPosition);
+            segment = channel.map(FileChannel.MapMode.READ_ONLY, nextPosition, length);
+            nextPosition += length;
+        }
+        return true;
+    }
+}
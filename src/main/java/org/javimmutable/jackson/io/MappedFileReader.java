@@ -0,0 +1,83 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson.io;
+
+import com.fasterxml.jackson.databind.ObjectReader;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Reads JSON files by memory mapping them rather than reading them through a
+ * FileInputStream.  The parser pulls bytes straight from the mapped pages so
+ * no intermediate heap buffers are needed beyond the parser's own input buffer.
+ * Files larger than 2GB are mapped as a chain of segments.
+ * <p>
+ * The ObjectReader determines the result type so any type supported by the
+ * JImmutableModule (or Jackson in general) can be read this way:
+ * <pre>
+ *     JImmutableMap&lt;String, Row&gt; rows = MappedFileReader.readValue(mapper.readerFor(new TypeReference&lt;JImmutableMap&lt;String, Row&gt;&gt;() {}), path);
+ * </pre>
+ */
+public final class MappedFileReader
+{
+    static final long DEFAULT_SEGMENT_SIZE = 1L << 30;
+
+    private MappedFileReader()
+    {
+    }
+
+    public static <T> T readValue(ObjectReader reader,
+                                  Path file)
+        throws IOException
+    {
+        return readValue(reader, file, DEFAULT_SEGMENT_SIZE);
+    }
+
+    static <T> T readValue(ObjectReader reader,
+                           Path file,
+                           long segmentSize)
+        throws IOException
+    {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+             InputStream input = new MappedFileInputStream(channel, segmentSize)) {
+            return reader.readValue(input);
+        }
+    }
+}
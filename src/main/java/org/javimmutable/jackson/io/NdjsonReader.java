@@ -0,0 +1,300 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson.io;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.MappingIterator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import org.javimmutable.collections.JImmutableList;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.util.JImmutables;
+
+import javax.annotation.concurrent.ThreadSafe;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+/**
+ * Reads newline delimited JSON (one record per line) into a JImmutableList or JImmutableMap
+ * using several threads.  The input is read sequentially and split into blocks at line
+ * boundaries.  Each block is deserialized into its own collection by a task on the executor
+ * and the per block collections are merged in input order (list concatenation or map union
+ * with later records replacing earlier ones), so the result is the same as reading the
+ * records one at a time.  At most maxBlocksInFlight blocks are held in memory at once.
+ * <p>
+ * The record type is fixed when the reader is created and the reader can be shared by
+ * any number of threads.
+ * <pre>
+ *     NdjsonReader&lt;Event&gt; reader = NdjsonReader.forType(mapper, Event.class, executor);
+ *     JImmutableMap&lt;String, Event&gt; events = reader.readMap(path, Event::getId);
+ * </pre>
+ */
+@ThreadSafe
+public final class NdjsonReader<T>
+{
+    public static final int DEFAULT_BLOCK_SIZE = 1 << 20;
+
+    private final ObjectReader reader;
+    private final Executor executor;
+    private final int blockSize;
+    private final int maxBlocksInFlight;
+
+    private NdjsonReader(ObjectMapper mapper,
+                         JavaType recordType,
+                         Executor executor,
+                         int blockSize,
+                         int maxBlocksInFlight)
+    {
+        if (blockSize <= 0) {
+            throw new IllegalArgumentException("invalid block size: " + blockSize);
+        }
+        if (maxBlocksInFlight <= 0) {
+            throw new IllegalArgumentException("invalid max blocks in flight: " + maxBlocksInFlight);
+        }
+        this.reader = mapper.readerFor(recordType);
+        this.executor = executor;
+        this.blockSize = blockSize;
+        this.maxBlocksInFlight = maxBlocksInFlight;
+    }
+
+    public static <T> NdjsonReader<T> forType(ObjectMapper mapper,
+                                              Class<T> recordType,
+                                              Executor executor)
+    {
+        return forType(mapper, mapper.constructType(recordType), executor, DEFAULT_BLOCK_SIZE, defaultBlocksInFlight());
+    }
+
+    public static <T> NdjsonReader<T> forType(ObjectMapper mapper,
+                                              TypeReference<T> recordType,
+                                              Executor executor)
+    {
+        return forType(mapper, mapper.getTypeFactory().constructType(recordType), executor, DEFAULT_BLOCK_SIZE, defaultBlocksInFlight());
+    }
+
+    public static <T> NdjsonReader<T> forType(ObjectMapper mapper,
+                                              JavaType recordType,
+                                              Executor executor,
+                                              int blockSize,
+                                              int maxBlocksInFlight)
+    {
+        return new NdjsonReader<>(mapper, recordType, executor, blockSize, maxBlocksInFlight);
+    }
+
+    public JImmutableList<T> readList(Path file)
+        throws IOException
+    {
+        try (InputStream in = Files.newInputStream(file)) {
+            return readList(in);
+        }
+    }
+
+    /**
+     * Reads every record in the stream.  The stream is left open.
+     */
+    public JImmutableList<T> readList(InputStream in)
+        throws IOException
+    {
+        return read(in, NdjsonReader::listBlock, JImmutableList::insertAllLast, JImmutables.list());
+    }
+
+    public <K> JImmutableMap<K, T> readMap(Path file,
+                                           Function<? super T, ? extends K> key)
+        throws IOException
+    {
+        try (InputStream in = Files.newInputStream(file)) {
+            return readMap(in, key);
+        }
+    }
+
+    /**
+     * Reads every record in the stream into a map using the key function to choose each
+     * record's key.  When several records have the same key the last one wins.  The stream
+     * is left open.
+     */
+    public <K> JImmutableMap<K, T> readMap(InputStream in,
+                                           Function<? super T, ? extends K> key)
+        throws IOException
+    {
+        return read(in, records -> mapBlock(records, key), JImmutableMap::assignAll, JImmutables.map());
+    }
+
+    private static <T> JImmutableList<T> listBlock(MappingIterator<T> records)
+        throws IOException
+    {
+        final JImmutableList.Builder<T> builder = JImmutables.listBuilder();
+        while (records.hasNextValue()) {
+            builder.add(records.nextValue());
+        }
+        return builder.build();
+    }
+
+    private static <K, T> JImmutableMap<K, T> mapBlock(MappingIterator<T> records,
+                                                      Function<? super T, ? extends K> key)
+        throws IOException
+    {
+        final JImmutableMap.Builder<K, T> builder = JImmutables.mapBuilder();
+        while (records.hasNextValue()) {
+            final T record = records.nextValue();
+            builder.add(key.apply(record), record);
+        }
+        return builder.build();
+    }
+
+    private <R> R read(InputStream in,
+                       BlockReader<T, R> blockReader,
+                       BinaryOperator<R> merge,
+                       R result)
+        throws IOException
+    {
+        final ArrayDeque<CompletableFuture<R>> pending = new ArrayDeque<>();
+        try {
+            byte[] block = new byte[blockSize];
+            int length = 0;
+            while (true) {
+                final int count = in.read(block, length, block.length - length);
+                if (count > 0) {
+                    length += count;
+                    if (length < block.length) {
+                        continue;
+                    }
+                }
+                if (count < 0) {
+                    if (length > 0) {
+                        pending.add(submit(block, length, blockReader));
+                    }
+                    break;
+                }
+                final int lineEnd = lastLineEnd(block, length);
+                if (lineEnd == 0) {
+                    // a single line fills the whole block so keep reading until it ends
+                    block = Arrays.copyOf(block, block.length * 2);
+                    continue;
+                }
+                pending.add(submit(block, lineEnd, blockReader));
+                final byte[] next = new byte[blockSize + length - lineEnd];
+                System.arraycopy(block, lineEnd, next, 0, length - lineEnd);
+                block = next;
+                length -= lineEnd;
+                if (pending.size() >= maxBlocksInFlight) {
+                    result = merge.apply(result, join(pending.remove()));
+                }
+            }
+            while (!pending.isEmpty()) {
+                result = merge.apply(result, join(pending.remove()));
+            }
+            return result;
+        } finally {
+            for (CompletableFuture<R> future : pending) {
+                future.cancel(false);
+            }
+        }
+    }
+
+    /**
+     * Returns the length of the block up to and including its last newline or 0 if it has none.
+     */
+    private static int lastLineEnd(byte[] block,
+                                   int length)
+    {
+        for (int i = length - 1; i >= 0; --i) {
+            if (block[i] == '\n') {
+                return i + 1;
+            }
+        }
+        return 0;
+    }
+
+    private <R> CompletableFuture<R> submit(byte[] block,
+                                            int length,
+                                            BlockReader<T, R> blockReader)
+    {
+        return CompletableFuture.supplyAsync(() -> {
+            // an unmanaged parser stops MappingIterator from treating a leading array as a wrapper
+            try (JsonParser parser = reader.getFactory().createParser(block, 0, length);
+                 MappingIterator<T> records = reader.readValues(parser)) {
+                return blockReader.read(records);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        }, executor);
+    }
+
+    private static <R> R join(CompletableFuture<R> future)
+        throws IOException
+    {
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("interrupted while waiting for block");
+        } catch (ExecutionException ex) {
+            final Throwable cause = ex.getCause();
+            if (cause instanceof UncheckedIOException) {
+                throw ((UncheckedIOException)cause).getCause();
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException)cause;
+            } else if (cause instanceof Error) {
+                throw (Error)cause;
+            }
+            throw new IOException(cause);
+        }
+    }
+
+    private static int defaultBlocksInFlight()
+    {
+        return 2 * Runtime.getRuntime().availableProcessors();
+    }
+
+    @FunctionalInterface
+    private interface BlockReader<T, R>
+    {
+        R read(MappingIterator<T> records)
+            throws IOException;
+    }
+}
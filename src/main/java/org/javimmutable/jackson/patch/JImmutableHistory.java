@@ -0,0 +1,521 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson.patch;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.javimmutable.collections.JImmutableList;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.JImmutableSet;
+import org.javimmutable.collections.util.JImmutables;
+
+import javax.annotation.concurrent.Immutable;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.Predicate;
+
+/**
+ * Encodes a sequence of versions of a JImmutableMap, JImmutableList, or JImmutableSet
+ * (such as an audit history) as the first version followed by the changes made by each
+ * later version.  Reading applies each change to the previous version so the versions
+ * returned share all unchanged structure with each other just as the originals did, and
+ * the encoding grows with the size of the changes rather than the size of the versions.
+ * <p>
+ * The encoding is an array whose first element is the first version (written normally by
+ * the mapper) and whose other elements are objects describing a change:
+ * <ul>
+ * <li>maps: "assign" holds [key, value] pairs, "update" holds [key, change] pairs for values
+ * that are themselves JImmutable collections, and "delete" holds keys</li>
+ * <li>sets: "insert" and "delete" hold elements</li>
+ * <li>lists: the first "prefix" and last "suffix" elements of the previous version are kept
+ * and "insert" holds the elements between them</li>
+ * <li>"value" replaces the previous version entirely (used for null versions)</li>
+ * </ul>
+ * Unchanged values are recognized by identity first so versions derived from each other
+ * are compared cheaply, although every element of each version is still visited.
+ */
+@Immutable
+public final class JImmutableHistory
+{
+    private static final String ASSIGN = "assign";
+    private static final String UPDATE = "update";
+    private static final String INSERT = "insert";
+    private static final String DELETE = "delete";
+    private static final String PREFIX = "prefix";
+    private static final String SUFFIX = "suffix";
+    private static final String VALUE = "value";
+
+    private final ObjectMapper mapper;
+
+    public JImmutableHistory(ObjectMapper mapper)
+    {
+        this.mapper = mapper;
+    }
+
+    public <T> byte[] writeValueAsBytes(Iterable<? extends T> versions,
+                                        TypeReference<T> type)
+        throws IOException
+    {
+        final ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(out, versions, type);
+        return out.toByteArray();
+    }
+
+    public <T> void write(OutputStream out,
+                          Iterable<? extends T> versions,
+                          TypeReference<T> type)
+        throws IOException
+    {
+        write(out, versions, mapper.getTypeFactory().constructType(type));
+    }
+
+    public void write(OutputStream out,
+                      Iterable<?> versions,
+                      JavaType type)
+        throws IOException
+    {
+        try (JsonGenerator gen = mapper.getFactory().createGenerator(out)) {
+            write(gen, versions, type);
+        }
+    }
+
+    /**
+     * Writes the versions, in order, using the generator.  The type is the type of each version.
+     */
+    public void write(JsonGenerator gen,
+                      Iterable<?> versions,
+                      JavaType type)
+        throws IOException
+    {
+        final Encoder encoder = new Encoder(gen);
+        gen.writeStartArray();
+        boolean first = true;
+        Object previous = null;
+        for (Object version : versions) {
+            if (first) {
+                encoder.writeValue(type, version);
+                first = false;
+            } else {
+                encoder.writeChange(type, previous, version);
+            }
+            previous = version;
+        }
+        gen.writeEndArray();
+    }
+
+    public <T> JImmutableList<T> read(byte[] bytes,
+                                      TypeReference<T> type)
+        throws IOException
+    {
+        try (JsonParser parser = mapper.getFactory().createParser(bytes)) {
+            return read(parser, mapper.getTypeFactory().constructType(type));
+        }
+    }
+
+    public <T> JImmutableList<T> read(InputStream in,
+                                      TypeReference<T> type)
+        throws IOException
+    {
+        try (JsonParser parser = mapper.getFactory().createParser(in)) {
+            return read(parser, mapper.getTypeFactory().constructType(type));
+        }
+    }
+
+    /**
+     * Reads versions written by write() using the parser.  The type is the type of each version.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> JImmutableList<T> read(JsonParser parser,
+                                      JavaType type)
+        throws IOException
+    {
+        final Decoder decoder = new Decoder(parser);
+        if (parser.nextToken() != JsonToken.START_ARRAY) {
+            throw error(parser, "expected an array of versions");
+        }
+        final JImmutableList.Builder<T> builder = JImmutables.listBuilder();
+        if (parser.nextToken() == JsonToken.END_ARRAY) {
+            return builder.build();
+        }
+        Object version = decoder.readValue(type);
+        builder.add((T)version);
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            version = decoder.readChange(type, version);
+            builder.add((T)version);
+        }
+        return builder.build();
+    }
+
+    private static boolean isCollectionType(JavaType type)
+    {
+        return type != null && (type.isTypeOrSubTypeOf(JImmutableMap.class) || type.isTypeOrSubTypeOf(JImmutableSet.class) || type.isTypeOrSubTypeOf(JImmutableList.class));
+    }
+
+    private static JsonMappingException error(JsonParser parser,
+                                              String message)
+    {
+        return JsonMappingException.from(parser, message);
+    }
+
+    private class Encoder
+    {
+        private final JsonGenerator gen;
+        private final Map<JavaType, ObjectWriter> writers = new HashMap<>();
+
+        private Encoder(JsonGenerator gen)
+        {
+            this.gen = gen;
+        }
+
+        private void writeValue(JavaType type,
+                                Object value)
+            throws IOException
+        {
+            ObjectWriter writer = writers.get(type);
+            if (writer == null) {
+                writer = mapper.writerFor(type).without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+                writers.put(type, writer);
+            }
+            writer.writeValue(gen, value);
+        }
+
+        private void writeChange(JavaType type,
+                                 Object previous,
+                                 Object current)
+            throws IOException
+        {
+            gen.writeStartObject();
+            if (previous == current) {
+                // unchanged
+            } else if (previous == null || current == null || !isCollectionType(type)) {
+                gen.writeFieldName(VALUE);
+                writeValue(type, current);
+            } else if (current instanceof JImmutableMap) {
+                writeMapChange(type, (JImmutableMap<?, ?>)previous, (JImmutableMap<?, ?>)current);
+            } else if (current instanceof JImmutableSet) {
+                writeSetChange(type, (JImmutableSet<?>)previous, (JImmutableSet<?>)current);
+            } else {
+                writeListChange(type, (JImmutableList<?>)previous, (JImmutableList<?>)current);
+            }
+            gen.writeEndObject();
+        }
+
+        @SuppressWarnings("unchecked")
+        private void writeMapChange(JavaType type,
+                                    JImmutableMap<?, ?> previous,
+                                    JImmutableMap<?, ?> current)
+            throws IOException
+        {
+            final JImmutableMap<Object, Object> before = (JImmutableMap<Object, Object>)previous;
+            final JavaType keyType = type.getKeyType();
+            final JavaType valueType = type.getContentType();
+            final boolean nested = isCollectionType(valueType);
+            final List<JImmutableMap.Entry<?, ?>> assigned = new ArrayList<>();
+            final List<JImmutableMap.Entry<?, ?>> updated = new ArrayList<>();
+            int added = 0;
+            for (JImmutableMap.Entry<?, ?> entry : current) {
+                final Object value = entry.getValue();
+                final Object old = before.get(entry.getKey());
+                if (old == null && !before.getMap().containsKey(entry.getKey())) {
+                    assigned.add(entry);
+                    added += 1;
+                } else if (value == old) {
+                    // unchanged
+                } else if (nested && old != null && value != null) {
+                    updated.add(entry);
+                } else if (!Objects.equals(value, old)) {
+                    assigned.add(entry);
+                }
+            }
+            if (!assigned.isEmpty()) {
+                gen.writeArrayFieldStart(ASSIGN);
+                for (JImmutableMap.Entry<?, ?> entry : assigned) {
+                    gen.writeStartArray();
+                    writeValue(keyType, entry.getKey());
+                    writeValue(valueType, entry.getValue());
+                    gen.writeEndArray();
+                }
+                gen.writeEndArray();
+            }
+            if (!updated.isEmpty()) {
+                gen.writeArrayFieldStart(UPDATE);
+                for (JImmutableMap.Entry<?, ?> entry : updated) {
+                    gen.writeStartArray();
+                    writeValue(keyType, entry.getKey());
+                    writeChange(valueType, before.get(entry.getKey()), entry.getValue());
+                    gen.writeEndArray();
+                }
+                gen.writeEndArray();
+            }
+            if (previous.size() > current.size() - added) {
+                writeDeleted(keyType, previous.keys(), ((JImmutableMap<Object, Object>)current).getMap()::containsKey);
+            }
+        }
+
+        @SuppressWarnings("unchecked")
+        private void writeSetChange(JavaType type,
+                                    JImmutableSet<?> previous,
+                                    JImmutableSet<?> current)
+            throws IOException
+        {
+            final JImmutableSet<Object> before = (JImmutableSet<Object>)previous;
+            final JavaType elementType = type.getContentType();
+            int inserted = 0;
+            for (Object element : current) {
+                if (!before.contains(element)) {
+                    if (inserted == 0) {
+                        gen.writeArrayFieldStart(INSERT);
+                    }
+                    writeValue(elementType, element);
+                    inserted += 1;
+                }
+            }
+            if (inserted > 0) {
+                gen.writeEndArray();
+            }
+            if (current.size() != previous.size() + inserted) {
+                writeDeleted(elementType, previous, ((JImmutableSet<Object>)current)::contains);
+            }
+        }
+
+        private void writeDeleted(JavaType type,
+                                  Iterable<?> previous,
+                                  Predicate<Object> retained)
+            throws IOException
+        {
+            gen.writeArrayFieldStart(DELETE);
+            for (Object value : previous) {
+                if (!retained.test(value)) {
+                    writeValue(type, value);
+                }
+            }
+            gen.writeEndArray();
+        }
+
+        private void writeListChange(JavaType type,
+                                     JImmutableList<?> previous,
+                                     JImmutableList<?> current)
+            throws IOException
+        {
+            final int shorter = Math.min(previous.size(), current.size());
+            int prefix = 0;
+            while (prefix < shorter && Objects.equals(previous.get(prefix), current.get(prefix))) {
+                prefix += 1;
+            }
+            int suffix = 0;
+            while (suffix < shorter - prefix && Objects.equals(previous.get(previous.size() - 1 - suffix), current.get(current.size() - 1 - suffix))) {
+                suffix += 1;
+            }
+            gen.writeNumberField(PREFIX, prefix);
+            gen.writeNumberField(SUFFIX, suffix);
+            final int end = current.size() - suffix;
+            if (prefix < end) {
+                final JavaType elementType = type.getContentType();
+                gen.writeArrayFieldStart(INSERT);
+                for (int i = prefix; i < end; ++i) {
+                    writeValue(elementType, current.get(i));
+                }
+                gen.writeEndArray();
+            }
+        }
+
+    }
+
+    private class Decoder
+    {
+        private final JsonParser parser;
+        private final Map<JavaType, ObjectReader> readers = new HashMap<>();
+
+        private Decoder(JsonParser parser)
+        {
+            this.parser = parser;
+        }
+
+        /**
+         * Reads the value starting at the current token.
+         */
+        private Object readValue(JavaType type)
+            throws IOException
+        {
+            ObjectReader reader = readers.get(type);
+            if (reader == null) {
+                reader = mapper.readerFor(type);
+                readers.put(type, reader);
+            }
+            return reader.readValue(parser);
+        }
+
+        private Object readNextValue(JavaType type)
+            throws IOException
+        {
+            parser.nextToken();
+            return readValue(type);
+        }
+
+        /**
+         * Reads the change object starting at the current token and applies it to previous.
+         */
+        @SuppressWarnings("unchecked")
+        private Object readChange(JavaType type,
+                                  Object previous)
+            throws IOException
+        {
+            if (parser.getCurrentToken() != JsonToken.START_OBJECT) {
+                throw error(parser, "expected a change object");
+            }
+            Object result = previous;
+            final List<Object> inserted = new ArrayList<>();
+            int prefix = -1;
+            int suffix = -1;
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                final String field = parser.getCurrentName();
+                parser.nextToken();
+                if (VALUE.equals(field)) {
+                    result = readValue(type);
+                    continue;
+                }
+                if (!isCollectionType(type) || result == null) {
+                    throw error(parser, "change for a value that is not a JImmutable collection: " + field);
+                }
+                if (PREFIX.equals(field)) {
+                    prefix = parser.getIntValue();
+                } else if (SUFFIX.equals(field)) {
+                    suffix = parser.getIntValue();
+                } else {
+                    verifyArray(field);
+                    if (result instanceof JImmutableMap) {
+                        result = applyMapChange(type, (JImmutableMap<Object, Object>)result, field);
+                    } else if (result instanceof JImmutableSet) {
+                        result = applySetChange(type, (JImmutableSet<Object>)result, field);
+                    } else if (INSERT.equals(field)) {
+                        while (parser.nextToken() != JsonToken.END_ARRAY) {
+                            inserted.add(readValue(type.getContentType()));
+                        }
+                    } else {
+                        throw error(parser, "unknown list change: " + field);
+                    }
+                }
+            }
+            if (result instanceof JImmutableList && (prefix >= 0 || suffix >= 0 || !inserted.isEmpty())) {
+                result = applyListChange((JImmutableList<Object>)result, Math.max(prefix, 0), Math.max(suffix, 0), inserted);
+            }
+            return result;
+        }
+
+        private JImmutableMap<Object, Object> applyMapChange(JavaType type,
+                                                             JImmutableMap<Object, Object> map,
+                                                             String field)
+            throws IOException
+        {
+            final JavaType keyType = type.getKeyType();
+            final JavaType valueType = type.getContentType();
+            if (DELETE.equals(field)) {
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    map = map.delete(readValue(keyType));
+                }
+            } else if (ASSIGN.equals(field) || UPDATE.equals(field)) {
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    verifyArray(field);
+                    final Object key = readNextValue(keyType);
+                    parser.nextToken();
+                    final Object value = ASSIGN.equals(field) ? readValue(valueType) : readChange(valueType, map.get(key));
+                    if (parser.nextToken() != JsonToken.END_ARRAY) {
+                        throw error(parser, "expected a [key, value] pair in " + field);
+                    }
+                    map = map.assign(key, value);
+                }
+            } else {
+                throw error(parser, "unknown map change: " + field);
+            }
+            return map;
+        }
+
+        private JImmutableSet<Object> applySetChange(JavaType type,
+                                                     JImmutableSet<Object> set,
+                                                     String field)
+            throws IOException
+        {
+            final JavaType elementType = type.getContentType();
+            if (INSERT.equals(field)) {
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    set = set.insert(readValue(elementType));
+                }
+            } else if (DELETE.equals(field)) {
+                while (parser.nextToken() != JsonToken.END_ARRAY) {
+                    set = set.delete(readValue(elementType));
+                }
+            } else {
+                throw error(parser, "unknown set change: " + field);
+            }
+            return set;
+        }
+
+        private JImmutableList<Object> applyListChange(JImmutableList<Object> list,
+                                                       int prefix,
+                                                       int suffix,
+                                                       List<Object> inserted)
+            throws IOException
+        {
+            if (prefix + suffix > list.size()) {
+                throw error(parser, "list change keeps more elements than the previous version contains");
+            }
+            return list.prefix(prefix).insertAllLast(inserted).insertAllLast(list.suffix(list.size() - suffix));
+        }
+
+        private void verifyArray(String field)
+            throws JsonMappingException
+        {
+            if (parser.getCurrentToken() != JsonToken.START_ARRAY) {
+                throw error(parser, "expected an array for " + field);
+            }
+        }
+    }
+}
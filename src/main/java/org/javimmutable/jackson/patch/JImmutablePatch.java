@@ -0,0 +1,405 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson.patch;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonPointer;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.javimmutable.collections.JImmutableList;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.JImmutableSet;
+
+import javax.annotation.concurrent.Immutable;
+import java.io.IOException;
+import java.util.Objects;
+
+/**
+ * Applies RFC 6902 JSON Patch documents directly to graphs of JImmutableMap, JImmutableList,
+ * and JImmutableSet.  Every operation becomes a persistent update of the collections along
+ * its path so a patch costs O(ops * log n) and the result shares all untouched structure
+ * with the original value.  Patch values are decoded using the mapper (and therefore the
+ * JImmutableModule) for the type found at the target location.
+ * <p>
+ * Since the original value is never modified a failed patch simply leaves it as it was.
+ * <p>
+ * JSON Pointer segments are converted to map keys using the map's key type.  RFC 6902 does
+ * not define sets so for them a segment names the element itself (converted to the element
+ * type) and "add" accepts either "-" or the element as the final segment.
+ */
+@Immutable
+public final class JImmutablePatch
+{
+    private static final String END_OF_LIST = "-";
+
+    private final ObjectMapper mapper;
+
+    public JImmutablePatch(ObjectMapper mapper)
+    {
+        this.mapper = mapper;
+    }
+
+    public <T> T apply(T value,
+                       TypeReference<T> type,
+                       JsonNode patch)
+        throws IOException
+    {
+        return apply(value, mapper.getTypeFactory().constructType(type), patch);
+    }
+
+    @SuppressWarnings("unchecked")
+    public <T> T apply(T value,
+                       JavaType type,
+                       JsonNode patch)
+        throws IOException
+    {
+        if (!patch.isArray()) {
+            throw error("patch must be an array of operations");
+        }
+        Object result = value;
+        for (JsonNode op : patch) {
+            result = applyOperation(result, type, op);
+        }
+        return (T)result;
+    }
+
+    private Object applyOperation(Object root,
+                                  JavaType type,
+                                  JsonNode op)
+        throws IOException
+    {
+        final String name = textField(op, "op");
+        final JsonPointer path = JsonPointer.compile(textField(op, "path"));
+        switch (name) {
+            case "add":
+                return add(root, type, path, decode(op, type, path));
+            case "remove":
+                return remove(root, type, path);
+            case "replace":
+                return replace(root, type, path, decode(op, type, path));
+            case "move": {
+                final JsonPointer from = JsonPointer.compile(textField(op, "from"));
+                final Object moved = checkedValue(get(root, type, from), type, path);
+                return add(remove(root, type, from), type, path, moved);
+            }
+            case "copy": {
+                final JsonPointer from = JsonPointer.compile(textField(op, "from"));
+                final Object copied = checkedValue(get(root, type, from), type, path);
+                return add(root, type, path, copied);
+            }
+            case "test":
+                if (!Objects.equals(get(root, type, path), decode(op, type, path))) {
+                    throw error("test failed for path " + path);
+                }
+                return root;
+            default:
+                throw error("unknown patch operation: " + name);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object add(Object root,
+                       JavaType type,
+                       JsonPointer path,
+                       Object value)
+        throws IOException
+    {
+        if (path.matches()) {
+            return value;
+        }
+        return update(root, type, path, (container, containerType, segment) -> {
+            if (container instanceof JImmutableMap) {
+                return ((JImmutableMap<Object, Object>)container).assign(key(segment, containerType), value);
+            } else if (container instanceof JImmutableList) {
+                final JImmutableList<Object> list = (JImmutableList<Object>)container;
+                if (END_OF_LIST.equals(segment)) {
+                    return list.insertLast(value);
+                }
+                return list.insert(index(list, segment, list.size()), value);
+            } else {
+                return ((JImmutableSet<Object>)container).insert(value);
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object remove(Object root,
+                          JavaType type,
+                          JsonPointer path)
+        throws IOException
+    {
+        if (path.matches()) {
+            throw error("cannot remove the root value");
+        }
+        return update(root, type, path, (container, containerType, segment) -> {
+            if (container instanceof JImmutableMap) {
+                final JImmutableMap<Object, Object> map = (JImmutableMap<Object, Object>)container;
+                return map.delete(existingKey(map, segment, containerType));
+            } else if (container instanceof JImmutableList) {
+                final JImmutableList<Object> list = (JImmutableList<Object>)container;
+                return list.delete(index(list, segment, list.size() - 1));
+            } else {
+                final JImmutableSet<Object> set = (JImmutableSet<Object>)container;
+                return set.delete(existingElement(set, segment, containerType));
+            }
+        });
+    }
+
+    private Object replace(Object root,
+                           JavaType type,
+                           JsonPointer path,
+                           Object value)
+        throws IOException
+    {
+        if (path.matches()) {
+            return value;
+        }
+        return update(root, type, path, (container, containerType, segment) -> replaceChild(container, containerType, segment, value));
+    }
+
+    private Object get(Object root,
+                       JavaType type,
+                       JsonPointer path)
+        throws IOException
+    {
+        Object value = root;
+        while (!path.matches()) {
+            value = child(value, type, path.getMatchingProperty());
+            type = type.getContentType();
+            path = path.tail();
+        }
+        return value;
+    }
+
+    /**
+     * Walks down the path and applies edit to the container holding the last segment.
+     * Each container along the way is then replaced by a new version holding the updated child.
+     */
+    private Object update(Object container,
+                          JavaType type,
+                          JsonPointer path,
+                          Edit edit)
+        throws IOException
+    {
+        verifyContainer(container, type, path);
+        final String segment = path.getMatchingProperty();
+        final JsonPointer tail = path.tail();
+        if (tail.matches()) {
+            return edit.apply(container, type, segment);
+        }
+        final Object child = child(container, type, segment);
+        final Object newChild = update(child, type.getContentType(), tail, edit);
+        return (newChild == child) ? container : replaceChild(container, type, segment, newChild);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object child(Object container,
+                         JavaType type,
+                         String segment)
+        throws IOException
+    {
+        verifyContainer(container, type, JsonPointer.compile("/" + segment));
+        if (container instanceof JImmutableMap) {
+            final JImmutableMap<Object, Object> map = (JImmutableMap<Object, Object>)container;
+            return map.get(existingKey(map, segment, type));
+        } else if (container instanceof JImmutableList) {
+            final JImmutableList<Object> list = (JImmutableList<Object>)container;
+            return list.get(index(list, segment, list.size() - 1));
+        } else {
+            return existingElement((JImmutableSet<Object>)container, segment, type);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private Object replaceChild(Object container,
+                                JavaType type,
+                                String segment,
+                                Object value)
+        throws IOException
+    {
+        if (container instanceof JImmutableMap) {
+            final JImmutableMap<Object, Object> map = (JImmutableMap<Object, Object>)container;
+            return map.assign(existingKey(map, segment, type), value);
+        } else if (container instanceof JImmutableList) {
+            final JImmutableList<Object> list = (JImmutableList<Object>)container;
+            return list.assign(index(list, segment, list.size() - 1), value);
+        } else {
+            final JImmutableSet<Object> set = (JImmutableSet<Object>)container;
+            return set.delete(existingElement(set, segment, type)).insert(value);
+        }
+    }
+
+    private void verifyContainer(Object container,
+                                 JavaType type,
+                                 JsonPointer path)
+        throws JsonMappingException
+    {
+        if (!(container instanceof JImmutableMap || container instanceof JImmutableList || container instanceof JImmutableSet)) {
+            throw error("path does not refer to a JImmutable collection: " + path);
+        }
+        if (type.getContentType() == null) {
+            throw error("unable to determine element type for path: " + path);
+        }
+    }
+
+    private Object existingKey(JImmutableMap<Object, Object> map,
+                               String segment,
+                               JavaType type)
+        throws JsonMappingException
+    {
+        final Object key = key(segment, type);
+        if (map.get(key) == null && !map.getMap().containsKey(key)) {
+            throw error("no such key: " + segment);
+        }
+        return key;
+    }
+
+    private Object existingElement(JImmutableSet<Object> set,
+                                   String segment,
+                                   JavaType type)
+        throws JsonMappingException
+    {
+        final Object element = convertSegment(segment, type.getContentType());
+        if (!set.contains(element)) {
+            throw error("no such element: " + segment);
+        }
+        return element;
+    }
+
+    private Object key(String segment,
+                       JavaType type)
+        throws JsonMappingException
+    {
+        return convertSegment(segment, type.getKeyType());
+    }
+
+    private Object convertSegment(String segment,
+                                  JavaType type)
+        throws JsonMappingException
+    {
+        if (type == null || type.getRawClass() == String.class) {
+            return segment;
+        }
+        try {
+            return mapper.convertValue(segment, type);
+        } catch (IllegalArgumentException ex) {
+            throw error("unable to convert path segment to " + type.getRawClass().getName() + ": " + segment);
+        }
+    }
+
+    private static int index(JImmutableList<Object> list,
+                             String segment,
+                             int maxIndex)
+        throws JsonMappingException
+    {
+        final int index;
+        try {
+            index = Integer.parseInt(segment);
+        } catch (NumberFormatException ex) {
+            throw error("invalid list index: " + segment);
+        }
+        if (index < 0 || index > maxIndex) {
+            throw error("list index out of bounds: " + segment + " size=" + list.size());
+        }
+        return index;
+    }
+
+    private Object decode(JsonNode op,
+                          JavaType rootType,
+                          JsonPointer path)
+        throws IOException
+    {
+        final JsonNode value = op.get("value");
+        if (value == null) {
+            throw error("missing value for " + op.get("op").asText() + " operation");
+        }
+        return mapper.readerFor(typeAt(rootType, path)).readValue(value);
+    }
+
+    private Object checkedValue(Object value,
+                                JavaType rootType,
+                                JsonPointer path)
+        throws JsonMappingException
+    {
+        final JavaType type = typeAt(rootType, path);
+        if (value != null && !type.getRawClass().isInstance(value)) {
+            throw error("value of type " + value.getClass().getName() + " cannot be stored at path: " + path);
+        }
+        return value;
+    }
+
+    private static JavaType typeAt(JavaType type,
+                                   JsonPointer path)
+        throws JsonMappingException
+    {
+        while (!path.matches()) {
+            type = type.getContentType();
+            if (type == null) {
+                throw error("unable to determine value type for path: " + path);
+            }
+            path = path.tail();
+        }
+        return type;
+    }
+
+    private static String textField(JsonNode op,
+                                    String name)
+        throws JsonMappingException
+    {
+        final JsonNode field = op.get(name);
+        if (field == null || !field.isTextual()) {
+            throw error("patch operation is missing " + name + ": " + op);
+        }
+        return field.asText();
+    }
+
+    private static JsonMappingException error(String message)
+    {
+        return JsonMappingException.from((JsonParser)null, message);
+    }
+
+    @FunctionalInterface
+    private interface Edit
+    {
+        Object apply(Object container,
+                     JavaType type,
+                     String segment)
+            throws IOException;
+    }
+}
@@ -0,0 +1,126 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson.views;
+
+import org.javimmutable.collections.JImmutableList;
+
+import javax.annotation.Nonnull;
+import javax.annotation.concurrent.Immutable;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * View of an index range of a JImmutableList.  Serializes as a JSON array containing
+ * only the elements in the range, read directly from the original list, so paging
+ * through a large list never builds an intermediate list.
+ */
+@Immutable
+public final class ListSlice<T>
+    implements Iterable<T>
+{
+    private final JImmutableList<T> list;
+    private final int fromIndex;
+    private final int toIndex;
+
+    private ListSlice(JImmutableList<T> list,
+                      int fromIndex,
+                      int toIndex)
+    {
+        this.list = list;
+        this.fromIndex = fromIndex;
+        this.toIndex = toIndex;
+    }
+
+    /**
+     * Creates a view of the elements from fromIndex (inclusive) to toIndex (exclusive).
+     */
+    public static <T> ListSlice<T> of(@Nonnull JImmutableList<T> list,
+                                      int fromIndex,
+                                      int toIndex)
+    {
+        if (fromIndex < 0 || toIndex > list.size() || fromIndex > toIndex) {
+            throw new IndexOutOfBoundsException("invalid slice [" + fromIndex + "," + toIndex + ") of list with size " + list.size());
+        }
+        return new ListSlice<>(list, fromIndex, toIndex);
+    }
+
+    /**
+     * Creates a view of up to pageSize elements starting at fromIndex.
+     * The view is truncated at the end of the list.
+     */
+    public static <T> ListSlice<T> page(@Nonnull JImmutableList<T> list,
+                                        int fromIndex,
+                                        int pageSize)
+    {
+        final int start = Math.min(Math.max(0, fromIndex), list.size());
+        return new ListSlice<>(list, start, (int)Math.min((long)start + Math.max(0, pageSize), list.size()));
+    }
+
+    public int size()
+    {
+        return toIndex - fromIndex;
+    }
+
+    public boolean isEmpty()
+    {
+        return fromIndex == toIndex;
+    }
+
+    @Nonnull
+    @Override
+    public Iterator<T> iterator()
+    {
+        return new Iterator<T>()
+        {
+            private int index = fromIndex;
+
+            @Override
+            public boolean hasNext()
+            {
+                return index < toIndex;
+            }
+
+            @Override
+            public T next()
+            {
+                if (index >= toIndex) {
+                    throw new NoSuchElementException();
+                }
+                return list.get(index++);
+            }
+        };
+    }
+}
@@ -0,0 +1,114 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson.views;
+
+import org.javimmutable.collections.JImmutableMap;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import java.util.Comparator;
+import java.util.Iterator;
+
+/**
+ * View of a key range of a sorted JImmutableMap.  Serializes as a JSON object containing
+ * only the entries in the range, read directly from the original map.  The map must iterate
+ * in the order defined by the comparator (natural ordering unless one is specified).
+ * A null bound means the range is unbounded on that side.
+ */
+@Immutable
+public final class MapRange<K, V>
+    implements Iterable<JImmutableMap.Entry<K, V>>
+{
+    private final JImmutableMap<K, V> map;
+    private final K fromKey;
+    private final K toKey;
+    private final int maxSize;
+    private final Comparator<? super K> comparator;
+
+    private MapRange(JImmutableMap<K, V> map,
+                     K fromKey,
+                     K toKey,
+                     int maxSize,
+                     Comparator<? super K> comparator)
+    {
+        this.map = map;
+        this.fromKey = fromKey;
+        this.toKey = toKey;
+        this.maxSize = maxSize;
+        this.comparator = comparator;
+    }
+
+    /**
+     * Creates a view of the entries with keys from fromKey (inclusive) to toKey (exclusive) using natural ordering.
+     */
+    public static <K extends Comparable<? super K>, V> MapRange<K, V> of(@Nonnull JImmutableMap<K, V> map,
+                                                                         @Nullable K fromKey,
+                                                                         @Nullable K toKey)
+    {
+        return new MapRange<>(map, fromKey, toKey, Integer.MAX_VALUE, Comparator.naturalOrder());
+    }
+
+    /**
+     * Creates a view of up to pageSize entries starting at fromKey (inclusive) using natural ordering.
+     */
+    public static <K extends Comparable<? super K>, V> MapRange<K, V> page(@Nonnull JImmutableMap<K, V> map,
+                                                                           @Nullable K fromKey,
+                                                                           int pageSize)
+    {
+        return new MapRange<>(map, fromKey, null, pageSize, Comparator.naturalOrder());
+    }
+
+    /**
+     * Creates a view of up to maxSize entries with keys from fromKey (inclusive) to toKey (exclusive)
+     * for a map sorted using the specified comparator.
+     */
+    public static <K, V> MapRange<K, V> of(@Nonnull JImmutableMap<K, V> map,
+                                           @Nullable K fromKey,
+                                           @Nullable K toKey,
+                                           int maxSize,
+                                           @Nonnull Comparator<? super K> comparator)
+    {
+        return new MapRange<>(map, fromKey, toKey, maxSize, comparator);
+    }
+
+    @Nonnull
+    @Override
+    public Iterator<JImmutableMap.Entry<K, V>> iterator()
+    {
+        return new RangeIterator<>(map.iterator(), JImmutableMap.Entry::getKey, comparator, fromKey, toKey, maxSize);
+    }
+}
@@ -0,0 +1,109 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson.views;
+
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+
+/**
+ * Iterator over the values of a sorted source whose keys fall within a range.
+ * Leading values are skipped by comparison alone and iteration stops at the
+ * first key past the end of the range or once the maximum count is reached.
+ */
+class RangeIterator<K, T>
+    implements Iterator<T>
+{
+    private final Iterator<T> source;
+    private final Function<T, K> keyOf;
+    private final Comparator<? super K> comparator;
+    private final K toKey;
+    private int remaining;
+    private T next;
+    private boolean hasNext;
+
+    RangeIterator(Iterator<T> source,
+                  Function<T, K> keyOf,
+                  Comparator<? super K> comparator,
+                  K fromKey,
+                  K toKey,
+                  int maxCount)
+    {
+        this.source = source;
+        this.keyOf = keyOf;
+        this.comparator = comparator;
+        this.toKey = toKey;
+        this.remaining = maxCount;
+        while (source.hasNext()) {
+            final T value = source.next();
+            if (fromKey == null || comparator.compare(keyOf.apply(value), fromKey) >= 0) {
+                accept(value);
+                return;
+            }
+        }
+    }
+
+    @Override
+    public boolean hasNext()
+    {
+        return hasNext;
+    }
+
+    @Override
+    public T next()
+    {
+        if (!hasNext) {
+            throw new NoSuchElementException();
+        }
+        final T answer = next;
+        next = null;
+        hasNext = false;
+        if (source.hasNext()) {
+            accept(source.next());
+        }
+        return answer;
+    }
+
+    private void accept(T value)
+    {
+        if (remaining > 0 && (toKey == null || comparator.compare(keyOf.apply(value), toKey) < 0)) {
+            remaining -= 1;
+            next = value;
+            hasNext = true;
+        }
+    }
+}
@@ -0,0 +1,115 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson.views;
+
+import org.javimmutable.collections.JImmutableSet;
+
+import javax.annotation.Nonnull;
+import javax.annotation.Nullable;
+import javax.annotation.concurrent.Immutable;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.function.Function;
+
+/**
+ * View of a range of values of a sorted JImmutableSet.  Serializes as a JSON array containing
+ * only the values in the range, read directly from the original set.  The set must iterate
+ * in the order defined by the comparator (natural ordering unless one is specified).
+ * A null bound means the range is unbounded on that side.
+ */
+@Immutable
+public final class SetRange<T>
+    implements Iterable<T>
+{
+    private final JImmutableSet<T> set;
+    private final T fromValue;
+    private final T toValue;
+    private final int maxSize;
+    private final Comparator<? super T> comparator;
+
+    private SetRange(JImmutableSet<T> set,
+                     T fromValue,
+                     T toValue,
+                     int maxSize,
+                     Comparator<? super T> comparator)
+    {
+        this.set = set;
+        this.fromValue = fromValue;
+        this.toValue = toValue;
+        this.maxSize = maxSize;
+        this.comparator = comparator;
+    }
+
+    /**
+     * Creates a view of the values from fromValue (inclusive) to toValue (exclusive) using natural ordering.
+     */
+    public static <T extends Comparable<? super T>> SetRange<T> of(@Nonnull JImmutableSet<T> set,
+                                                                   @Nullable T fromValue,
+                                                                   @Nullable T toValue)
+    {
+        return new SetRange<>(set, fromValue, toValue, Integer.MAX_VALUE, Comparator.naturalOrder());
+    }
+
+    /**
+     * Creates a view of up to pageSize values starting at fromValue (inclusive) using natural ordering.
+     */
+    public static <T extends Comparable<? super T>> SetRange<T> page(@Nonnull JImmutableSet<T> set,
+                                                                     @Nullable T fromValue,
+                                                                     int pageSize)
+    {
+        return new SetRange<>(set, fromValue, null, pageSize, Comparator.naturalOrder());
+    }
+
+    /**
+     * Creates a view of up to maxSize values from fromValue (inclusive) to toValue (exclusive)
+     * for a set sorted using the specified comparator.
+     */
+    public static <T> SetRange<T> of(@Nonnull JImmutableSet<T> set,
+                                     @Nullable T fromValue,
+                                     @Nullable T toValue,
+                                     int maxSize,
+                                     @Nonnull Comparator<? super T> comparator)
+    {
+        return new SetRange<>(set, fromValue, toValue, maxSize, comparator);
+    }
+
+    @Nonnull
+    @Override
+    public Iterator<T> iterator()
+    {
+        return new RangeIterator<>(set.iterator(), Function.identity(), comparator, fromValue, toValue, maxSize);
+    }
+}
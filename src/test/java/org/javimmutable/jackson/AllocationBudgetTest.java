@@ -0,0 +1,306 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JavaType;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import junit.framework.TestCase;
+import org.javimmutable.collections.JImmutableList;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.JImmutableSet;
+import org.javimmutable.collections.util.JImmutables;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Guards against allocation regressions in the module's serializers and deserializers.
+ * Each case is warmed up so that serializer lookup and JIT effects are excluded and the
+ * lowest allocation seen over several runs is compared against its budget.
+ * <p>
+ * Budgets are measured baselines plus a small margin.  The baseline for each element type is
+ * what plain Jackson allocates for the equivalent java.util view or array, plus (when reading)
+ * what building the collection directly from the decoded values allocates.  The margins leave
+ * room for little more than the module's own per-element bookkeeping, so an extra box or copy
+ * of every element fails the test on any version of the collections library.
+ * <p>
+ * The tests do nothing on JVMs that cannot report per-thread allocation.
+ */
+public class AllocationBudgetTest
+    extends TestCase
+{
+    private static final int SIZE = 1000;
+    private static final int WARMUP_RUNS = 200;
+    private static final int MEASURED_RUNS = 20;
+
+    private static final long SERIALIZE_MARGIN_PER_ELEMENT = 8;
+    private static final long DESERIALIZE_MARGIN_PER_ELEMENT = 16;
+    private static final long MARGIN_PER_COLLECTION = 1024;
+
+    private com.sun.management.ThreadMXBean threads;
+    private ObjectMapper mapper;
+    private ObjectMapper plain;
+
+    @Override
+    public void setUp()
+        throws Exception
+    {
+        final java.lang.management.ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean instanceof com.sun.management.ThreadMXBean && ((com.sun.management.ThreadMXBean)bean).isThreadAllocatedMemorySupported()) {
+            threads = (com.sun.management.ThreadMXBean)bean;
+            threads.setThreadAllocatedMemoryEnabled(true);
+        }
+        mapper = new ObjectMapper();
+        mapper.registerModules(new JImmutableModule());
+        plain = new ObjectMapper();
+    }
+
+    public void testLists()
+        throws Exception
+    {
+        JImmutableList<Integer> integers = JImmutables.list();
+        JImmutableList<String> strings = JImmutables.list();
+        for (int i = 0; i < SIZE; ++i) {
+            integers = integers.insertLast(i);
+            strings = strings.insertLast("s" + i);
+        }
+        verifyList("JImmutableList<Integer>", integers, new TypeReference<JImmutableList<Integer>>() {}, Integer[].class);
+        verifyList("JImmutableList<String>", strings, new TypeReference<JImmutableList<String>>() {}, String[].class);
+    }
+
+    public void testSets()
+        throws Exception
+    {
+        JImmutableSet<Integer> integers = JImmutables.set();
+        JImmutableSet<String> strings = JImmutables.set();
+        for (int i = 0; i < SIZE; ++i) {
+            integers = integers.insert(i);
+            strings = strings.insert("s" + i);
+        }
+        verifySet("JImmutableSet<Integer>", integers, new TypeReference<JImmutableSet<Integer>>() {}, Integer[].class);
+        verifySet("JImmutableSet<String>", strings, new TypeReference<JImmutableSet<String>>() {}, String[].class);
+    }
+
+    public void testMaps()
+        throws Exception
+    {
+        JImmutableMap<String, Integer> integers = JImmutables.map();
+        JImmutableMap<String, String> strings = JImmutables.map();
+        JImmutableMap<Long, String> ids = JImmutables.map();
+        for (int i = 0; i < SIZE; ++i) {
+            integers = integers.assign("k" + i, i);
+            strings = strings.assign("k" + i, "v" + i);
+            ids = ids.assign(1_700_000_000_000L + i, "v" + i);
+        }
+        verifyMap("JImmutableMap<String, Integer>", integers, new TypeReference<JImmutableMap<String, Integer>>() {});
+        verifyMap("JImmutableMap<String, String>", strings, new TypeReference<JImmutableMap<String, String>>() {});
+        verifyMap("JImmutableMap<Long, String>", ids, new TypeReference<JImmutableMap<Long, String>>() {});
+    }
+
+    public void testEmptyCollections()
+        throws Exception
+    {
+        verifyEmpty("empty JImmutableList", JImmutables.list(), new TypeReference<JImmutableList<Integer>>() {}, Collections.emptyList());
+        verifyEmpty("empty JImmutableSet", JImmutables.set(), new TypeReference<JImmutableSet<Integer>>() {}, Collections.emptySet());
+        verifyEmpty("empty JImmutableMap", JImmutables.map(), new TypeReference<JImmutableMap<String, Integer>>() {}, Collections.emptyMap());
+    }
+
+    private <T> void verifyList(String name,
+                                JImmutableList<T> value,
+                                TypeReference<JImmutableList<T>> type,
+                                Class<T[]> arrayType)
+        throws Exception
+    {
+        final ObjectReader arrayReader = plain.readerFor(arrayType);
+        verifyRoundTrip(name, value, type, value.getList(), json -> {
+            JImmutableList<T> result = value.deleteAll();
+            for (T element : arrayReader.<T[]>readValue(json)) {
+                result = result.insertLast(element);
+            }
+        });
+    }
+
+    private <T> void verifySet(String name,
+                               JImmutableSet<T> value,
+                               TypeReference<JImmutableSet<T>> type,
+                               Class<T[]> arrayType)
+        throws Exception
+    {
+        final ObjectReader arrayReader = plain.readerFor(arrayType);
+        verifyRoundTrip(name, value, type, value.getSet(), json -> {
+            JImmutableSet<T> result = value.deleteAll();
+            for (T element : arrayReader.<T[]>readValue(json)) {
+                result = result.insert(element);
+            }
+        });
+    }
+
+    /**
+     * The baseline for maps reads into a LinkedHashMap since there is no array equivalent,
+     * so it includes the (small) cost of that map's entries.
+     */
+    private <K, V> void verifyMap(String name,
+                                  JImmutableMap<K, V> value,
+                                  TypeReference<JImmutableMap<K, V>> type)
+        throws Exception
+    {
+        final JavaType mapType = mapper.getTypeFactory().constructType(type);
+        final ObjectReader mapReader = plain.readerFor(plain.getTypeFactory().constructMapType(LinkedHashMap.class, mapType.getKeyType(), mapType.getContentType()));
+        verifyRoundTrip(name, value, type, value.getMap(), json -> {
+            final JImmutableMap.Builder<K, V> builder = JImmutables.mapBuilder();
+            for (Map.Entry<K, V> entry : mapReader.<Map<K, V>>readValue(json).entrySet()) {
+                builder.add(entry.getKey(), entry.getValue());
+            }
+            builder.build();
+        });
+    }
+
+    private <T> void verifyRoundTrip(String name,
+                                     T value,
+                                     TypeReference<T> type,
+                                     Object javaView,
+                                     Decoder baseline)
+        throws Exception
+    {
+        if (threads == null) {
+            return;
+        }
+        final ObjectWriter writer = mapper.writerFor(type);
+        final ObjectReader reader = mapper.readerFor(type);
+        final byte[] json = writer.writeValueAsBytes(value);
+        assertEquals(value, reader.readValue(json));
+
+        final ObjectWriter plainWriter = plain.writer();
+        final long serializeBaseline = measure(() -> plainWriter.writeValue(NullOutputStream.INSTANCE, javaView));
+        final long serialized = measure(() -> writer.writeValue(NullOutputStream.INSTANCE, value));
+        verifyBudget("serializing " + name, serialized, serializeBaseline + SIZE * SERIALIZE_MARGIN_PER_ELEMENT + MARGIN_PER_COLLECTION);
+
+        final long deserializeBaseline = measure(() -> baseline.decode(json));
+        final long deserialized = measure(() -> reader.readValue(json));
+        verifyBudget("deserializing " + name, deserialized, deserializeBaseline + SIZE * DESERIALIZE_MARGIN_PER_ELEMENT + MARGIN_PER_COLLECTION);
+    }
+
+    private <T> void verifyEmpty(String name,
+                                 T value,
+                                 TypeReference<?> type,
+                                 Object javaValue)
+        throws Exception
+    {
+        if (threads == null) {
+            return;
+        }
+        final ObjectWriter writer = mapper.writerFor(type);
+        final ObjectReader reader = mapper.readerFor(type);
+        final byte[] json = writer.writeValueAsBytes(value);
+        final ObjectWriter plainWriter = plain.writer();
+        final ObjectReader plainReader = plain.readerFor(javaValue.getClass());
+        final long serializeBaseline = measure(() -> plainWriter.writeValue(NullOutputStream.INSTANCE, javaValue));
+        verifyBudget("serializing " + name, measure(() -> writer.writeValue(NullOutputStream.INSTANCE, value)), serializeBaseline + MARGIN_PER_COLLECTION);
+        final long deserializeBaseline = measure(() -> plainReader.readValue(json));
+        verifyBudget("deserializing " + name, measure(() -> reader.readValue(json)), deserializeBaseline + MARGIN_PER_COLLECTION);
+    }
+
+    private static void verifyBudget(String operation,
+                                     long actual,
+                                     long budget)
+    {
+        if (actual > budget) {
+            fail(String.format("%s allocated %d bytes which exceeds its budget of %d bytes", operation, actual, budget));
+        }
+    }
+
+    /**
+     * Returns the fewest bytes allocated by any single measured run of the operation.
+     */
+    private long measure(Operation operation)
+        throws IOException
+    {
+        final long threadId = Thread.currentThread().getId();
+        for (int i = 0; i < WARMUP_RUNS; ++i) {
+            operation.run();
+        }
+        long fewest = Long.MAX_VALUE;
+        for (int i = 0; i < MEASURED_RUNS; ++i) {
+            final long before = threads.getThreadAllocatedBytes(threadId);
+            operation.run();
+            final long allocated = threads.getThreadAllocatedBytes(threadId) - before;
+            fewest = Math.min(fewest, allocated);
+        }
+        return fewest;
+    }
+
+    private interface Operation
+    {
+        void run()
+            throws IOException;
+    }
+
+    private interface Decoder
+    {
+        void decode(byte[] json)
+            throws IOException;
+    }
+
+    private static class NullOutputStream
+        extends OutputStream
+    {
+        private static final NullOutputStream INSTANCE = new NullOutputStream();
+
+        @Override
+        public void write(int b)
+        {
+        }
+
+        @Override
+        public void write(byte[] b,
+                          int off,
+                          int len)
+        {
+        }
+
+        @Override
+        public void close()
+        {
+        }
+    }
+}
@@ -0,0 +1,293 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import junit.framework.TestCase;
+import org.javimmutable.collections.JImmutableList;
+
+import java.util.Objects;
+
+import static org.javimmutable.collections.util.JImmutables.*;
+
+public class ColumnarTest
+    extends TestCase
+{
+    private ObjectMapper mapper;
+
+    @Override
+    public void setUp()
+        throws Exception
+    {
+        mapper = new ObjectMapper();
+        mapper.registerModules(new JImmutableModule());
+    }
+
+    public void testRoundTrip()
+        throws Exception
+    {
+        final Table table = new Table(list(new Row("a", 1), new Row(null, 2), new Row("c", 3)));
+        final String json = mapper.writeValueAsString(table);
+        assertEquals("{\"rows\":{\"name\":[\"a\",null,\"c\"],\"size\":[1,2,3]}}", json);
+        assertEquals(table.rows, mapper.readValue(json, Table.class).rows);
+
+        final String empty = mapper.writeValueAsString(new Table(list()));
+        assertEquals("{\"rows\":{\"name\":[],\"size\":[]}}", empty);
+        assertEquals(list(), mapper.readValue(empty, Table.class).rows);
+        assertEquals(list(), mapper.readValue("{\"rows\":{}}", Table.class).rows);
+    }
+
+    public void testRowsAccepted()
+        throws Exception
+    {
+        assertEquals(list(new Row("a", 1), new Row("b", 0)),
+                     mapper.readValue("{\"rows\":[{\"name\":\"a\",\"size\":1},{\"name\":\"b\"}]}", Table.class).rows);
+    }
+
+    public void testMissingColumn()
+        throws Exception
+    {
+        assertEquals(list(new Row("a", 0), new Row("b", 0)),
+                     mapper.readValue("{\"rows\":{\"name\":[\"a\",\"b\"]}}", Table.class).rows);
+    }
+
+    public void testInvalid()
+        throws Exception
+    {
+        try {
+            mapper.readValue("{\"rows\":{\"name\":[\"a\",\"b\"],\"size\":[1]}}", Table.class);
+            fail();
+        } catch (JsonMappingException ex) {
+            assertTrue(ex.getMessage().contains("size"));
+        }
+        try {
+            mapper.readValue("{\"rows\":{\"name\":\"a\"}}", Table.class);
+            fail();
+        } catch (JsonMappingException ex) {
+            assertTrue(ex.getMessage().contains("name"));
+        }
+        try {
+            mapper.writeValueAsString(new Table(list(new Row("a", 1), null)));
+            fail();
+        } catch (JsonMappingException ex) {
+            assertTrue(ex.getMessage().contains("null"));
+        }
+    }
+
+    public void testLimits()
+        throws Exception
+    {
+        final ObjectMapper limited = new ObjectMapper();
+        limited.registerModules(new JImmutableModule(JImmutableLimits.NONE.withMaxElements(2)));
+        assertEquals(list(new Row("a", 1), new Row("b", 2)),
+                     limited.readValue("{\"rows\":{\"name\":[\"a\",\"b\"],\"size\":[1,2]}}", Table.class).rows);
+        try {
+            // the malformed tail is never reached
+            limited.readValue("{\"rows\":{\"name\":[\"a\",\"b\",\"c\",{", Table.class);
+            fail();
+        } catch (JsonMappingException ex) {
+            assertTrue(ex.getMessage().contains("element limit of 2"));
+        }
+        try {
+            mapper.readValue("{\"rows\":{\"name\":[\"a\"],\"size\":[1,2,{", Table.class);
+            fail();
+        } catch (JsonMappingException ex) {
+            assertTrue(ex.getMessage().contains("size"));
+        }
+    }
+
+    public void testSetters()
+        throws Exception
+    {
+        final Sheet sheet = new Sheet();
+        sheet.cells = list(new Cell("a", 1.5), new Cell("b", 2.5));
+        final String json = mapper.writeValueAsString(sheet);
+        assertEquals("{\"cells\":{\"label\":[\"a\",\"b\"],\"value\":[1.5,2.5]}}", json);
+        assertEquals(sheet.cells, mapper.readValue(json, Sheet.class).cells);
+        assertEquals(list(new Cell("a", 0), new Cell("b", 0)),
+                     mapper.readValue("{\"cells\":{\"label\":[\"a\",\"b\"],\"comment\":[1,{\"x\":[2]}]}}", Sheet.class).cells);
+    }
+
+    public void testUnknownColumn()
+        throws Exception
+    {
+        try {
+            mapper.readValue("{\"rows\":{\"name\":[\"a\"],\"color\":[\"red\"]}}", Table.class);
+            fail();
+        } catch (JsonMappingException ex) {
+            assertTrue(ex.getMessage().contains("color"));
+        }
+    }
+
+    public void testPolymorphicRejected()
+        throws Exception
+    {
+        final Shapes shapes = new Shapes();
+        shapes.shapes = list(new Shape());
+        try {
+            mapper.writeValueAsString(shapes);
+            fail();
+        } catch (JsonMappingException ex) {
+            assertTrue(ex.getMessage().contains("columnar"));
+        }
+        try {
+            mapper.readValue("{\"shapes\":[]}", Shapes.class);
+            fail();
+        } catch (JsonMappingException ex) {
+            assertTrue(ex.getMessage().contains("columnar"));
+        }
+    }
+
+    public static class Table
+    {
+        @JsonJImmutableColumnar
+        private final JImmutableList<Row> rows;
+
+        @JsonCreator
+        public Table(@JsonProperty("rows") JImmutableList<Row> rows)
+        {
+            this.rows = rows;
+        }
+
+        public JImmutableList<Row> getRows()
+        {
+            return rows;
+        }
+    }
+
+    public static class Row
+    {
+        private final String name;
+        private final int size;
+
+        @JsonCreator
+        public Row(@JsonProperty("name") String name,
+                   @JsonProperty("size") int size)
+        {
+            this.name = name;
+            this.size = size;
+        }
+
+        public String getName()
+        {
+            return name;
+        }
+
+        public int getSize()
+        {
+            return size;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final Row row = (Row)o;
+            return size == row.size && Objects.equals(name, row.name);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(name, size);
+        }
+    }
+
+    public static class Sheet
+    {
+        @JsonJImmutableColumnar
+        public JImmutableList<Cell> cells;
+    }
+
+    @JsonIgnoreProperties("comment")
+    public static class Cell
+    {
+        public String label;
+        public double value;
+
+        public Cell()
+        {
+        }
+
+        public Cell(String label,
+                    double value)
+        {
+            this.label = label;
+            this.value = value;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final Cell cell = (Cell)o;
+            return value == cell.value && Objects.equals(label, cell.label);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(label, value);
+        }
+    }
+
+    public static class Shapes
+    {
+        @JsonJImmutableColumnar
+        public JImmutableList<Shape> shapes;
+    }
+
+    @JsonTypeInfo(use = JsonTypeInfo.Id.CLASS)
+    public static class Shape
+    {
+        public int sides = 3;
+    }
+}
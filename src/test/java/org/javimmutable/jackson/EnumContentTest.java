@@ -0,0 +1,180 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson;
+
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import junit.framework.TestCase;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.JImmutableSet;
+import org.javimmutable.collections.util.JImmutables;
+import org.javimmutable.jackson.orderings.JsonJImmutableInsertOrder;
+import org.javimmutable.jackson.orderings.JsonJImmutableSorted;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import static org.javimmutable.collections.util.JImmutables.*;
+
+public class EnumContentTest
+    extends TestCase
+{
+    private ObjectMapper mapper;
+
+    @Override
+    public void setUp()
+        throws Exception
+    {
+        mapper = new ObjectMapper();
+        mapper.registerModules(new JImmutableModule());
+    }
+
+    public void testSet()
+        throws Exception
+    {
+        final JImmutableSet<Color> colors = JImmutables.<Color>set().insert(Color.BLUE).insert(Color.RED).insert(Color.GREEN);
+        final TypeReference<JImmutableSet<Color>> type = new TypeReference<JImmutableSet<Color>>() {};
+        assertEquals(colors, mapper.readValue(mapper.writerFor(type).writeValueAsString(colors), type));
+
+        final JImmutableSet<Color> read = mapper.readValue("[\"BLUE\",\"RED\",\"BLUE\"]", type);
+        assertNotNull(OrdinalSet.of(read));
+        assertEquals(2, read.size());
+        assertTrue(read.contains(Color.RED));
+        assertFalse(read.contains(Color.GREEN));
+        assertEquals(JImmutables.<Color>set().insert(Color.BLUE).insert(Color.RED), read);
+        assertEquals(read, JImmutables.<Color>set().insert(Color.RED).insert(Color.BLUE));
+        assertEquals(JImmutables.<Color>set().insert(Color.RED).insert(Color.BLUE).hashCode(), read.hashCode());
+        assertEquals(Arrays.asList(Color.RED, Color.BLUE), new ArrayList<>(read.getSet()));
+        assertEquals("[\"RED\",\"BLUE\"]", mapper.writerFor(type).writeValueAsString(read));
+        assertEquals("[\"RED\",\"BLUE\"]", mapper.writeValueAsString(read));
+
+        final JImmutableSet<Color> inserted = read.insert(Color.GREEN);
+        assertNull(OrdinalSet.of(inserted));
+        assertEquals(colors, inserted);
+        assertEquals(2, read.size());
+
+        assertEquals(set(), mapper.readValue("[]", type));
+        assertEquals("[]", mapper.writerFor(type).writeValueAsString(JImmutables.<Color>set()));
+    }
+
+    public void testTypedSet()
+        throws Exception
+    {
+        final ObjectMapper typed = new ObjectMapper();
+        typed.registerModules(new JImmutableModule());
+        typed.addMixIn(JImmutableSet.class, TypedMixIn.class);
+        final TypeReference<JImmutableSet<Color>> type = new TypeReference<JImmutableSet<Color>>() {};
+        final JImmutableSet<Color> colors = JImmutables.<Color>set().insert(Color.BLUE).insert(Color.RED).insert(Color.GREEN);
+        final String json = typed.writerFor(type).writeValueAsString(colors);
+        assertTrue(json.startsWith("[\"" + colors.getClass().getName() + "\","));
+        assertEquals(colors, typed.readValue(json, type));
+
+        // compact sets report the class of a standard set in their type ids
+        final JImmutableSet<Color> compact = mapper.readValue("[\"BLUE\",\"RED\",\"GREEN\"]", type);
+        assertNotNull(OrdinalSet.of(compact));
+        final String compactJson = typed.writerFor(type).writeValueAsString(compact);
+        assertEquals("[\"" + colors.getClass().getName() + "\",[\"RED\",\"GREEN\",\"BLUE\"]]", compactJson);
+        assertEquals(colors, typed.readValue(compactJson, type));
+    }
+
+    public void testMap()
+        throws Exception
+    {
+        final JImmutableMap<Color, Integer> map = JImmutables.<Color, Integer>map().assign(Color.BLUE, 3).assign(Color.RED, 1);
+        final TypeReference<JImmutableMap<Color, Integer>> type = new TypeReference<JImmutableMap<Color, Integer>>() {};
+        assertEquals(map, mapper.readValue(mapper.writeValueAsString(map), type));
+        assertEquals("{\"RED\":1,\"BLUE\":3}", mapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS).writeValueAsString(map));
+
+        final JImmutableMap<Color, Integer> read = mapper.readValue("{\"BLUE\":2,\"RED\":1,\"BLUE\":3}", type);
+        assertNotNull(OrdinalMap.of(read));
+        assertEquals(map, read);
+        assertEquals(read, map);
+        assertEquals(map.hashCode(), read.hashCode());
+        assertEquals(2, read.size());
+        assertEquals(Integer.valueOf(3), read.get(Color.BLUE));
+        assertNull(read.get(Color.GREEN));
+        assertEquals(Integer.valueOf(7), read.getValueOr(Color.GREEN, 7));
+        assertEquals(Arrays.asList(Color.RED, Color.BLUE), new ArrayList<>(read.getMap().keySet()));
+        assertEquals("{\"RED\":1,\"BLUE\":3}", mapper.writeValueAsString(read));
+        assertEquals("{\"RED\":1,\"BLUE\":3}", mapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS).writeValueAsString(read));
+
+        final JImmutableMap<Color, Integer> nulls = mapper.readValue("{\"GREEN\":null}", type);
+        assertTrue(nulls.getMap().containsKey(Color.GREEN));
+        assertNull(nulls.getValueOr(Color.GREEN, 7));
+        assertEquals("{\"GREEN\":null}", mapper.writeValueAsString(nulls));
+
+        final JImmutableMap<Color, Integer> assigned = read.assign(Color.GREEN, 2);
+        assertNull(OrdinalMap.of(assigned));
+        assertEquals(map.assign(Color.GREEN, 2), assigned);
+
+        final JImmutableMap<Color, Integer> updated = mapper.readerForUpdating(read).forType(type).readValue("{\"GREEN\":2}");
+        assertEquals(map.assign(Color.GREEN, 2), updated);
+        assertEquals(JImmutables.map(), mapper.readValue("{}", type));
+    }
+
+    public void testOrderings()
+        throws Exception
+    {
+        final Ordered bean = mapper.readValue("{\"sorted\":[\"BLUE\",\"RED\"],\"inserted\":[\"BLUE\",\"RED\"],\"sortedMap\":{\"BLUE\":3,\"RED\":1},\"insertedMap\":{\"BLUE\":3,\"RED\":1}}", Ordered.class);
+        assertEquals("{\"sorted\":[\"RED\",\"BLUE\"],\"inserted\":[\"BLUE\",\"RED\"],\"sortedMap\":{\"RED\":1,\"BLUE\":3},\"insertedMap\":{\"BLUE\":3,\"RED\":1}}", mapper.writeValueAsString(bean));
+    }
+
+    public enum Color
+    {
+        RED,
+        GREEN,
+        BLUE
+    }
+
+    @JsonTypeInfo(use = JsonTypeInfo.Id.CLASS)
+    public interface TypedMixIn
+    {
+    }
+
+    public static class Ordered
+    {
+        @JsonJImmutableSorted
+        public JImmutableSet<Color> sorted = sortedSet();
+        @JsonJImmutableInsertOrder
+        public JImmutableSet<Color> inserted = insertOrderSet();
+        @JsonJImmutableSorted
+        public JImmutableMap<Color, Integer> sortedMap = sortedMap();
+        @JsonJImmutableInsertOrder
+        public JImmutableMap<Color, Integer> insertedMap = insertOrderMap();
+    }
+}
@@ -0,0 +1,178 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson;
+
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.deser.std.StdKeyDeserializer;
+import junit.framework.TestCase;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.util.JImmutables;
+
+import java.util.UUID;
+
+public class KeyDecoderTest
+    extends TestCase
+{
+    private ObjectMapper mapper;
+
+    @Override
+    public void setUp()
+        throws Exception
+    {
+        mapper = new ObjectMapper();
+        mapper.registerModules(new JImmutableModule());
+    }
+
+    public void testIntegerKeys()
+        throws Exception
+    {
+        final TypeReference<JImmutableMap<Integer, String>> type = new TypeReference<JImmutableMap<Integer, String>>() {};
+        assertEquals(JImmutables.<Integer, String>map().assign(0, "a").assign(-17, "b").assign(123456789, "c").assign(2000000000, "d").assign(5, "e"),
+                     mapper.readValue("{\"0\":\"a\",\"-17\":\"b\",\"123456789\":\"c\",\"2000000000\":\"d\",\"+5\":\"e\"}", type));
+        verifyInvalid("{\"3000000000\":1}", type);
+        verifyInvalid("{\"12x\":1}", type);
+        verifyInvalid("{\"-\":1}", type);
+    }
+
+    public void testLongKeys()
+        throws Exception
+    {
+        final TypeReference<JImmutableMap<Long, String>> type = new TypeReference<JImmutableMap<Long, String>>() {};
+        assertEquals(JImmutables.<Long, String>map().assign(1700000000000L, "a").assign(Long.MIN_VALUE, "b").assign(Long.MAX_VALUE, "c").assign(-3L, "d"),
+                     mapper.readValue("{\"1700000000000\":\"a\",\"-9223372036854775808\":\"b\",\"9223372036854775807\":\"c\",\"-3\":\"d\"}", type));
+        verifyInvalid("{\"9223372036854775808\":1}", type);
+        verifyInvalid("{\"1.5\":1}", type);
+    }
+
+    public void testUUIDKeys()
+        throws Exception
+    {
+        final TypeReference<JImmutableMap<UUID, Integer>> type = new TypeReference<JImmutableMap<UUID, Integer>>() {};
+        final UUID a = UUID.fromString("123e4567-e89b-12d3-a456-426614174000");
+        final UUID b = UUID.fromString("ffffffff-ffff-ffff-ffff-ffffffffffff");
+        final JImmutableMap<UUID, Integer> map = JImmutables.<UUID, Integer>map().assign(a, 1).assign(b, 2);
+        assertEquals(map, mapper.readValue(mapper.writeValueAsString(map), type));
+        assertEquals(map, mapper.readValue("{\"123E4567-E89B-12D3-A456-426614174000\":1,\"FFFFFFFF-ffff-FFFF-ffff-FFFFFFFFFFFF\":2}", type));
+        verifyInvalid("{\"123e4567-e89b-12d3-a456-42661417400g\":1}", type);
+    }
+
+    public void testEnumKeys()
+        throws Exception
+    {
+        final TypeReference<JImmutableMap<Shape, Integer>> type = new TypeReference<JImmutableMap<Shape, Integer>>() {};
+        final JImmutableMap<Shape, Integer> map = JImmutables.<Shape, Integer>map().assign(Shape.CIRCLE, 1).assign(Shape.SQUARE, 2).assign(Shape.TRIANGLE, 3);
+        assertEquals(map, mapper.readValue("{\"CIRCLE\":1,\"box\":2,\"TRIANGLE\":3}", type));
+        verifyInvalid("{\"SQUARE\":1}", type);
+        verifyInvalid("{\"circle\":1}", type);
+
+        final ObjectMapper relaxed = new ObjectMapper();
+        relaxed.registerModules(new JImmutableModule());
+        relaxed.configure(MapperFeature.ACCEPT_CASE_INSENSITIVE_ENUMS, true);
+        assertEquals(JImmutables.<Shape, Integer>map().assign(Shape.CIRCLE, 1), relaxed.readValue("{\"circle\":1}", type));
+
+        final ObjectMapper toString = new ObjectMapper();
+        toString.registerModules(new JImmutableModule());
+        toString.configure(DeserializationFeature.READ_ENUMS_USING_TO_STRING, true);
+        assertEquals(JImmutables.<Shape, Integer>map().assign(Shape.TRIANGLE, 3), toString.readValue("{\"three sides\":3}", type));
+
+        final TypeReference<JImmutableMap<Size, Integer>> sizeType = new TypeReference<JImmutableMap<Size, Integer>>() {};
+        assertEquals(JImmutables.<Size, Integer>map().assign(Size.SMALL, 1).assign(Size.LARGE, 2), mapper.readValue("{\"small\":1,\"LARGE\":2}", sizeType));
+        assertEquals(JImmutables.<Size, Integer>map().assign(Size.SMALL, 1), toString.readValue("{\"small\":1}", sizeType));
+        verifyInvalid("{\"SMALL\":1}", sizeType);
+    }
+
+    public void testDecoders()
+    {
+        final KeyDecoder integers = KeyDecoder.forKeyDeserializer(StdKeyDeserializer.forType(Integer.class), mapper.constructType(Integer.class), null);
+        assertNotNull(integers);
+        assertEquals(42, integers.decode("42"));
+        assertEquals(-42, integers.decode("-42"));
+        assertNull(integers.decode(""));
+        assertNull(integers.decode("+1"));
+        assertNull(integers.decode("1234567890"));
+        assertNull(KeyDecoder.forKeyDeserializer(StdKeyDeserializer.forType(Double.class), mapper.constructType(Double.class), null));
+
+        final KeyDecoder uuids = KeyDecoder.forKeyDeserializer(StdKeyDeserializer.forType(UUID.class), mapper.constructType(UUID.class), null);
+        assertNotNull(uuids);
+        assertEquals(UUID.fromString("123e4567-e89b-12d3-a456-426614174000"), uuids.decode("123E4567-e89b-12D3-a456-426614174000"));
+        assertNull(uuids.decode("123e4567-e89b-12d3-a456-42661417400\uFF11"));
+        assertNull(uuids.decode("\u0661\u0662\u0663e4567-e89b-12d3-a456-426614174000"));
+    }
+
+    private void verifyInvalid(String json,
+                               TypeReference<?> type)
+        throws Exception
+    {
+        try {
+            mapper.readValue(json, type);
+            fail();
+        } catch (JsonMappingException ignored) {
+            // expected
+        }
+    }
+
+    public enum Size
+    {
+        @JsonProperty("small")
+        SMALL,
+        LARGE;
+
+        @Override
+        public String toString()
+        {
+            return (this == SMALL) ? "small" : super.toString();
+        }
+    }
+
+    public enum Shape
+    {
+        CIRCLE,
+        @JsonProperty("box")
+        SQUARE,
+        TRIANGLE;
+
+        @Override
+        public String toString()
+        {
+            return (this == TRIANGLE) ? "three sides" : super.toString();
+        }
+    }
+}
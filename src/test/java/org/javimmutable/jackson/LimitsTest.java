@@ -0,0 +1,225 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.annotation.JsonDeserialize;
+import com.fasterxml.jackson.databind.deser.std.StdDeserializer;
+import com.fasterxml.jackson.databind.util.TokenBuffer;
+import junit.framework.TestCase;
+import org.javimmutable.collections.JImmutableList;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.JImmutableSet;
+import org.javimmutable.collections.util.JImmutables;
+
+import java.io.IOException;
+
+import static org.javimmutable.collections.util.JImmutables.*;
+
+public class LimitsTest
+    extends TestCase
+{
+    public void testElements()
+        throws Exception
+    {
+        final ObjectMapper mapper = mapper(JImmutableLimits.NONE.withMaxElements(3));
+        assertEquals(list(1, 2, 3), mapper.readValue("[1,2,3]", new TypeReference<JImmutableList<Integer>>() {}));
+        verifyFails(mapper, "[1,2,3,4]", new TypeReference<JImmutableList<Integer>>() {}, "element limit of 3");
+        verifyFails(mapper, "[1,2,3,4]", new TypeReference<JImmutableSet<Integer>>() {}, "element limit of 3");
+        verifyFails(mapper, "{\"a\":1,\"b\":2,\"c\":3,\"d\":4}", new TypeReference<JImmutableMap<String, Integer>>() {}, "element limit of 3");
+    }
+
+    public void testStopsEarly()
+        throws Exception
+    {
+        final ObjectMapper mapper = mapper(JImmutableLimits.NONE.withMaxElements(2));
+        // the malformed tail is never reached
+        verifyFails(mapper, "[1,2,3,{", new TypeReference<JImmutableList<Integer>>() {}, "element limit of 2");
+    }
+
+    public void testDepth()
+        throws Exception
+    {
+        final ObjectMapper mapper = mapper(JImmutableLimits.NONE.withMaxDepth(2));
+        final TypeReference<JImmutableList<JImmutableList<Integer>>> twoLevels = new TypeReference<JImmutableList<JImmutableList<Integer>>>() {};
+        assertEquals(list(list(1), list(2)), mapper.readValue("[[1],[2]]", twoLevels));
+        verifyFails(mapper, "[[[1]]]", new TypeReference<JImmutableList<JImmutableList<JImmutableList<Integer>>>>() {}, "nested deeper than limit of 2");
+        verifyFails(mapper, "{\"a\":{\"b\":[1]}}", new TypeReference<JImmutableMap<String, JImmutableMap<String, JImmutableList<Integer>>>>() {}, "nested deeper than limit of 2");
+    }
+
+    public void testBytes()
+        throws Exception
+    {
+        final ObjectMapper mapper = mapper(JImmutableLimits.NONE.withMaxBytes(1000));
+        final TypeReference<JImmutableList<String>> type = new TypeReference<JImmutableList<String>>() {};
+        assertEquals(list("a", "b"), mapper.readValue("[\"a\",\"b\"]", type));
+        final StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < 100; ++i) {
+            json.append("\"abcdefghijklmnopqrstuvwxyz\",");
+        }
+        json.append("\"z\"]");
+        verifyFails(mapper, json.toString(), type, "size limit of 1000 bytes");
+    }
+
+    public void testDepthAfterHandledFailure()
+        throws Exception
+    {
+        final ObjectMapper mapper = mapper(JImmutableLimits.NONE.withMaxDepth(2));
+        final Recovering bean = mapper.readValue("{\"lenient\":[[[1]]],\"nested\":[[1]]}", Recovering.class);
+        assertNull(bean.lenient);
+        assertEquals(JImmutables.<JImmutableList<Integer>>list().insertLast(list(1)), bean.nested);
+    }
+
+    public void testBytesShared()
+        throws Exception
+    {
+        final ObjectMapper mapper = mapper(JImmutableLimits.NONE.withMaxBytes(1000));
+        final StringBuilder strings = new StringBuilder("[");
+        for (int i = 0; i < 6; ++i) {
+            strings.append((i == 0) ? "" : ",").append("\"abcdefghijklmnopqrstuvwxyz\"");
+        }
+        strings.append("]");
+        final JImmutableList<String> one = mapper.readValue(strings.toString(), new TypeReference<JImmutableList<String>>() {});
+        assertEquals(6, one.size());
+        final String json = "{\"first\":" + strings + ",\"second\":" + strings + "}";
+        verifyFails(mapper, json, new TypeReference<Siblings>() {}, "size limit of 1000 bytes");
+    }
+
+    public void testProperty()
+        throws Exception
+    {
+        final ObjectMapper mapper = mapper(JImmutableLimits.NONE.withMaxElements(2));
+        final Limited limited = mapper.readValue("{\"small\":[1],\"large\":[1,2,3,4]}", Limited.class);
+        assertEquals(list(1), limited.small);
+        assertEquals(list(1, 2, 3, 4), limited.large);
+        try {
+            mapper.readValue("{\"small\":[1,2]}", Limited.class);
+            fail();
+        } catch (JsonMappingException ex) {
+            assertTrue(ex.getMessage().contains("element limit of 1"));
+        }
+    }
+
+    public void testValidation()
+    {
+        try {
+            JImmutableLimits.NONE.withMaxDepth(0);
+            fail();
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+        try {
+            JImmutableLimits.NONE.withMaxElements(-1);
+            fail();
+        } catch (IllegalArgumentException ex) {
+            // expected
+        }
+    }
+
+    private static ObjectMapper mapper(JImmutableLimits limits)
+    {
+        final ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModules(new JImmutableModule(limits));
+        return mapper;
+    }
+
+    private static void verifyFails(ObjectMapper mapper,
+                                    String json,
+                                    TypeReference<?> type,
+                                    String message)
+        throws Exception
+    {
+        try {
+            mapper.readValue(json, type);
+            fail();
+        } catch (JsonMappingException ex) {
+            assertTrue(ex.getMessage(), ex.getMessage().contains(message));
+        }
+    }
+
+    public static class Limited
+    {
+        @JsonJImmutableLimits(maxElements = 1)
+        public JImmutableList<Integer> small = JImmutables.list();
+        @JsonJImmutableLimits(maxElements = 10)
+        public JImmutableList<Integer> large = JImmutables.list();
+    }
+
+    public static class Siblings
+    {
+        public JImmutableList<String> first;
+        public JImmutableList<String> second;
+    }
+
+    public static class Recovering
+    {
+        @JsonDeserialize(using = DeepOrNull.class)
+        public Object lenient;
+        public JImmutableList<JImmutableList<Integer>> nested;
+    }
+
+    /**
+     * Reads a deeply nested list or returns null if that fails.
+     */
+    public static class DeepOrNull
+        extends StdDeserializer<Object>
+    {
+        public DeepOrNull()
+        {
+            super(Object.class);
+        }
+
+        @Override
+        public Object deserialize(JsonParser parser,
+                                  DeserializationContext context)
+            throws IOException
+        {
+            final TokenBuffer buffer = new TokenBuffer(parser, context);
+            buffer.copyCurrentStructure(parser);
+            final JsonParser copy = buffer.asParser();
+            copy.nextToken();
+            try {
+                return context.readValue(copy, context.getTypeFactory().constructType(new TypeReference<JImmutableList<JImmutableList<JImmutableList<Integer>>>>() {}));
+            } catch (JsonMappingException ex) {
+                return null;
+            }
+        }
+    }
+}
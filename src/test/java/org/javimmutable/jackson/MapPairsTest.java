@@ -0,0 +1,156 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import junit.framework.TestCase;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.util.JImmutables;
+
+public class MapPairsTest
+    extends TestCase
+{
+    private ObjectMapper mapper;
+
+    @Override
+    public void setUp()
+        throws Exception
+    {
+        mapper = new ObjectMapper();
+        mapper.registerModules(new JImmutableModule());
+    }
+
+    public void testPairs()
+        throws Exception
+    {
+        final Pairs bean = new Pairs();
+        bean.setValues(JImmutables.<Integer, String>sortedMap().assign(1, "a").assign(2, null).assign(3, "c"));
+        final String json = mapper.writeValueAsString(bean);
+        assertEquals("{\"values\":[[1,\"a\"],[2,null],[3,\"c\"]]}", json);
+        assertEquals(bean.getValues(), mapper.readValue(json, Pairs.class).getValues());
+
+        assertEquals("{\"values\":[]}", mapper.writeValueAsString(new Pairs()));
+        assertEquals(JImmutables.map(), mapper.readValue("{\"values\":[]}", Pairs.class).getValues());
+    }
+
+    public void testPairsUpdate()
+        throws Exception
+    {
+        final Pairs bean = new Pairs();
+        bean.setValues(JImmutables.<Integer, String>map().assign(1, "a").assign(2, "b"));
+        final Pairs updated = mapper.readerForUpdating(bean).readValue("{\"values\":[[2,\"x\"],[3,\"y\"]]}");
+        assertEquals(JImmutables.<Integer, String>map().assign(2, "x").assign(3, "y"), updated.getValues());
+    }
+
+    public void testInvalidPairs()
+        throws Exception
+    {
+        try {
+            mapper.readValue("{\"values\":[[1,\"a\",2]]}", Pairs.class);
+            fail();
+        } catch (Exception ex) {
+            // expected
+        }
+        try {
+            mapper.readValue("{\"values\":[1]}", Pairs.class);
+            fail();
+        } catch (Exception ex) {
+            // expected
+        }
+    }
+
+    public void testNonStringKeysAsFields()
+        throws Exception
+    {
+        final JImmutableMap<Integer, String> map = JImmutables.<Integer, String>map().assign(1, "a").assign(2, "b");
+        final TypeReference<JImmutableMap<Integer, String>> type = new TypeReference<JImmutableMap<Integer, String>>() {};
+        assertEquals(map, mapper.readValue(mapper.writeValueAsString(map), type));
+    }
+
+    public void testTypedValues()
+        throws Exception
+    {
+        final TypedPairs bean = new TypedPairs();
+        bean.values = JImmutables.<Integer, Object>sortedMap().assign(1, 10L).assign(2, "b").assign(3, null);
+        final String json = mapper.writeValueAsString(bean);
+        assertEquals("{\"values\":[[1,[\"java.lang.Long\",10]],[2,\"b\"],[3,null]]}", json);
+        assertEquals(bean.values, mapper.readValue(json, TypedPairs.class).values);
+    }
+
+    public void testTypedMap()
+        throws Exception
+    {
+        final ObjectMapper typed = new ObjectMapper();
+        typed.registerModules(new JImmutableModule());
+        typed.addMixIn(JImmutableMap.class, TypedMixIn.class);
+        final Pairs bean = new Pairs();
+        bean.setValues(JImmutables.<Integer, String>sortedMap().assign(1, "a").assign(2, "b"));
+        final String json = typed.writeValueAsString(bean);
+        assertEquals("{\"values\":[\"" + bean.getValues().getClass().getName() + "\",[[1,\"a\"],[2,\"b\"]]]}", json);
+        assertEquals(bean.getValues(), typed.readValue(json, Pairs.class).getValues());
+    }
+
+    @JsonTypeInfo(use = JsonTypeInfo.Id.CLASS)
+    public interface TypedMixIn
+    {
+    }
+
+    public static class TypedPairs
+    {
+        @JsonFormat(shape = JsonFormat.Shape.ARRAY)
+        @JsonTypeInfo(use = JsonTypeInfo.Id.CLASS)
+        public JImmutableMap<Integer, Object> values = JImmutables.map();
+    }
+
+    public static class Pairs
+    {
+        @JsonFormat(shape = JsonFormat.Shape.ARRAY)
+        private JImmutableMap<Integer, String> values = JImmutables.map();
+
+        public JImmutableMap<Integer, String> getValues()
+        {
+            return values;
+        }
+
+        public void setValues(JImmutableMap<Integer, String> values)
+        {
+            this.values = values;
+        }
+    }
+}
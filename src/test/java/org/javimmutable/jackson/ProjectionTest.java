@@ -0,0 +1,144 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import junit.framework.TestCase;
+import org.javimmutable.collections.JImmutableList;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.JImmutableSet;
+import org.javimmutable.collections.util.JImmutables;
+
+import static org.javimmutable.collections.util.JImmutables.*;
+
+public class ProjectionTest
+    extends TestCase
+{
+    private ObjectMapper mapper;
+
+    @Override
+    public void setUp()
+        throws Exception
+    {
+        mapper = new ObjectMapper();
+        mapper.registerModules(new JImmutableModule());
+    }
+
+    public void testAnnotatedProperties()
+        throws Exception
+    {
+        // skipped values would fail to deserialize as Integer if they were decoded
+        final String json = "{\"first\":[1,2,{\"x\":[3]},[4]]," +
+                            "\"keyed\":{\"a\":1,\"b\":{\"x\":[2]},\"c\":3,\"d\":[4]}," +
+                            "\"unique\":[5,5,6,{\"x\":7}]," +
+                            "\"numbers\":[10,20,[30],{}]}";
+        final Projected bean = mapper.readValue(json, Projected.class);
+        assertEquals(list(1, 2), bean.getFirst());
+        assertEquals(JImmutables.<String, Integer>map().assign("a", 1).assign("c", 3), bean.getKeyed());
+        assertEquals(JImmutables.<Integer>set().insert(5).insert(6), bean.getUnique());
+        assertEquals(list(10, 20), bean.getNumbers());
+    }
+
+    public void testReaderAttribute()
+        throws Exception
+    {
+        final ObjectReader mapReader = mapper.readerFor(new TypeReference<JImmutableMap<String, JImmutableList<Integer>>>() {});
+        final String json = "{\"a\":[1,2,3],\"b\":[4,5,6],\"c\":[7,8,9]}";
+
+        // reader level projections only apply to the root collection
+        final JImmutableMap<String, JImmutableList<Integer>> keyed = mapReader.withAttribute(JImmutableProjection.class, JImmutableProjection.keys("a", "c"))
+            .readValue(json);
+        assertEquals(JImmutables.<String, JImmutableList<Integer>>map().assign("a", list(1, 2, 3)).assign("c", list(7, 8, 9)), keyed);
+
+        final JImmutableMap<String, JImmutableList<Integer>> limited = mapReader.withAttribute(JImmutableProjection.class, JImmutableProjection.limit(1))
+            .readValue(json);
+        assertEquals(1, limited.size());
+
+        final ObjectReader listReader = mapper.readerFor(new TypeReference<JImmutableList<Integer>>() {})
+            .withAttribute(JImmutableProjection.class, JImmutableProjection.limit(2));
+        assertEquals(list(1, 2), listReader.readValue("[1,2,3,4]"));
+        assertEquals(list(), listReader.withAttribute(JImmutableProjection.class, JImmutableProjection.limit(0)).readValue("[1,2,3,4]"));
+    }
+
+    public static class Projected
+    {
+        @JsonJImmutableProjection(limit = 2)
+        private final JImmutableList<Integer> first;
+        @JsonJImmutableProjection(keys = {"a", "c"})
+        private final JImmutableMap<String, Integer> keyed;
+        @JsonJImmutableProjection(limit = 3)
+        private final JImmutableSet<Integer> unique;
+        @JsonJImmutablePrimitive
+        @JsonJImmutableProjection(limit = 2)
+        private final JImmutableList<Integer> numbers;
+
+        @JsonCreator
+        public Projected(@JsonProperty("first") JImmutableList<Integer> first,
+                         @JsonProperty("keyed") JImmutableMap<String, Integer> keyed,
+                         @JsonProperty("unique") JImmutableSet<Integer> unique,
+                         @JsonProperty("numbers") JImmutableList<Integer> numbers)
+        {
+            this.first = first;
+            this.keyed = keyed;
+            this.unique = unique;
+            this.numbers = numbers;
+        }
+
+        public JImmutableList<Integer> getFirst()
+        {
+            return first;
+        }
+
+        public JImmutableMap<String, Integer> getKeyed()
+        {
+            return keyed;
+        }
+
+        public JImmutableSet<Integer> getUnique()
+        {
+            return unique;
+        }
+
+        public JImmutableList<Integer> getNumbers()
+        {
+            return numbers;
+        }
+    }
+}
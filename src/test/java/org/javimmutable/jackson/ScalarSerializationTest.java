@@ -0,0 +1,170 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import junit.framework.TestCase;
+import org.javimmutable.collections.JImmutableList;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.JImmutableSet;
+import org.javimmutable.collections.util.JImmutables;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.javimmutable.collections.util.JImmutables.*;
+
+public class ScalarSerializationTest
+    extends TestCase
+{
+    private ObjectMapper mapper;
+
+    @Override
+    public void setUp()
+        throws Exception
+    {
+        mapper = new ObjectMapper();
+        mapper.registerModules(new JImmutableModule());
+    }
+
+    public void testListsAndSets()
+        throws Exception
+    {
+        final JImmutableList<String> strings = list("a\"b", null, "é\n");
+        assertEquals(mapper.writeValueAsString(Arrays.asList("a\"b", null, "é\n")), mapper.writeValueAsString(strings));
+
+        final JImmutableList<Long> longs = list(Long.MIN_VALUE, 0L, Long.MAX_VALUE);
+        assertEquals("[-9223372036854775808,0,9223372036854775807]", mapper.writeValueAsString(longs));
+
+        final JImmutableSet<Double> doubles = JImmutables.<Double>insertOrderSet().insert(1.5).insert(-0.25);
+        assertEquals("[1.5,-0.25]", mapper.writeValueAsString(doubles));
+
+        final ScalarBean bean = new ScalarBean(list("x"), JImmutables.<Integer>insertOrderSet().insert(3).insert(4), JImmutables.<String, Integer>insertOrderMap().assign("a", 1));
+        assertEquals("{\"strings\":[\"x\"],\"integers\":[3,4],\"counts\":{\"a\":1}}", mapper.writeValueAsString(bean));
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testUnexpectedElementClass()
+        throws Exception
+    {
+        final JImmutableList<Object> raw = list(1, "two", 3L);
+        final JImmutableList<Integer> integers = (JImmutableList<Integer>)(JImmutableList<?>)raw;
+        assertEquals("{\"strings\":[],\"integers\":[1,\"two\",3],\"counts\":{}}",
+                     mapper.writeValueAsString(new ScalarBean(list(), integers, JImmutables.insertOrderMap())));
+    }
+
+    public void testMaps()
+        throws Exception
+    {
+        final Map<String, Integer> expected = new LinkedHashMap<>();
+        expected.put("z", 1);
+        expected.put("a\"", null);
+        expected.put("m", -7);
+        JImmutableMap<String, Integer> map = JImmutables.insertOrderMap();
+        for (Map.Entry<String, Integer> entry : expected.entrySet()) {
+            map = map.assign(entry.getKey(), entry.getValue());
+        }
+        assertEquals(mapper.writeValueAsString(expected), mapper.writeValueAsString(map));
+
+        final ObjectMapper sorting = new ObjectMapper().registerModule(new JImmutableModule()).enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+        assertEquals("{\"a\\\"\":null,\"m\":-7,\"z\":1}", sorting.writeValueAsString(map));
+
+        final FilteredBean filtered = new FilteredBean(map);
+        assertEquals("{\"counts\":{\"z\":1,\"m\":-7}}", mapper.writeValueAsString(filtered));
+
+        final ObjectMapper nonNull = new ObjectMapper().registerModule(new JImmutableModule());
+        nonNull.setDefaultPropertyInclusion(JsonInclude.Value.construct(JsonInclude.Include.ALWAYS, JsonInclude.Include.NON_NULL));
+        assertEquals("{\"z\":1,\"m\":-7}", nonNull.writeValueAsString(map));
+        assertEquals("{\"strings\":[],\"integers\":[],\"counts\":{\"z\":1,\"m\":-7}}", nonNull.writeValueAsString(new ScalarBean(list(), list(), map)));
+    }
+
+    public static class ScalarBean
+    {
+        private final JImmutableList<String> strings;
+        private final JImmutableList<Integer> integers;
+        private final JImmutableMap<String, Integer> counts;
+
+        public ScalarBean(JImmutableList<String> strings,
+                          JImmutableList<Integer> integers,
+                          JImmutableMap<String, Integer> counts)
+        {
+            this.strings = strings;
+            this.integers = integers;
+            this.counts = counts;
+        }
+
+        public ScalarBean(JImmutableList<String> strings,
+                          JImmutableSet<Integer> integers,
+                          JImmutableMap<String, Integer> counts)
+        {
+            this(strings, JImmutables.list(integers), counts);
+        }
+
+        public JImmutableList<String> getStrings()
+        {
+            return strings;
+        }
+
+        public JImmutableList<Integer> getIntegers()
+        {
+            return integers;
+        }
+
+        public JImmutableMap<String, Integer> getCounts()
+        {
+            return counts;
+        }
+    }
+
+    public static class FilteredBean
+    {
+        private final JImmutableMap<String, Integer> counts;
+
+        public FilteredBean(JImmutableMap<String, Integer> counts)
+        {
+            this.counts = counts;
+        }
+
+        @JsonInclude(content = JsonInclude.Include.NON_NULL)
+        public JImmutableMap<String, Integer> getCounts()
+        {
+            return counts;
+        }
+    }
+}
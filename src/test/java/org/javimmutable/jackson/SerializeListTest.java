@@ -36,6 +36,7 @@
 package org.javimmutable.jackson;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonFormat;
 import com.fasterxml.jackson.annotation.JsonProperty;
 import com.fasterxml.jackson.databind.DeserializationFeature;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -44,6 +45,9 @@ import junit.framework.TestCase;
 import org.javimmutable.collections.JImmutableList;
 
 import javax.annotation.concurrent.Immutable;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
 import java.util.Objects;
 
 import static org.javimmutable.collections.util.JImmutables.*;
@@ -92,6 +96,59 @@ public class SerializeListTest
         assertEquals(org, mapper.readValue(json, OrgBean.class));
     }
 
+    public void testPrimitiveLists()
+        throws Exception
+    {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModules(new JImmutableModule());
+
+        final PrimitivesBean bean = new PrimitivesBean(list(1, -2, 3),
+                                                       list(4000000000L, null, -5L),
+                                                       list(1.5, -2.0, 0.25),
+                                                       list(7L, 8L));
+        String json = mapper.writeValueAsString(bean);
+        assertEquals("{\"ints\":[1,-2,3],\"longs\":[4000000000,null,-5],\"doubles\":[1.5,-2.0,0.25],\"strings\":[\"7\",\"8\"]}", json);
+        assertEquals(bean, mapper.readValue(json, PrimitivesBean.class));
+
+        assertEquals(list(1.0, 2.0, 3.5), mapper.readValue("{\"doubles\":[1,\"2\",3.5]}", PrimitivesBean.class).getDoubles());
+        assertEquals(list(), mapper.readValue("{\"ints\":[]}", PrimitivesBean.class).getInts());
+
+        final PrimitivesBean read = mapper.readValue(json, PrimitivesBean.class);
+        final JImmutableList<Integer> ints = read.getInts();
+        assertNotNull(PrimitiveList.of(ints));
+        assertNotNull(PrimitiveList.of(read.getDoubles()));
+        assertNull(PrimitiveList.of(read.getLongs()));
+        assertEquals(3, ints.size());
+        assertEquals(Integer.valueOf(-2), ints.get(1));
+        assertEquals(Arrays.asList(1, -2, 3), ints.getList());
+        try {
+            ints.get(3);
+            fail();
+        } catch (IndexOutOfBoundsException ignored) {
+            // expected
+        }
+        assertEquals(json, mapper.writeValueAsString(read));
+        assertEquals("[1,-2,3]", mapper.writeValueAsString(ints));
+
+        final List<Integer> iterated = new ArrayList<>();
+        for (Integer value : ints) {
+            iterated.add(value);
+        }
+        ints.forEach(iterated::add);
+        assertEquals(Arrays.asList(1, -2, 3, 1, -2, 3), iterated);
+        assertEquals("[1, -2, 3]", ints.toString());
+        assertEquals(ints, read.getInts());
+        assertEquals(list(1, -2, 3), ints);
+        assertFalse(ints.equals(list(1, -2)));
+        assertFalse(ints.equals(Arrays.asList(1, -2, 3)));
+
+        final JImmutableList<Integer> changed = ints.insertLast(4);
+        assertNull(PrimitiveList.of(changed));
+        assertEquals(list(1, -2, 3, 4), changed);
+        assertEquals(list(1, -2, 3), ints);
+        assertEquals(list(1, -2, 3).hashCode(), ints.hashCode());
+    }
+
     @Immutable
     public static class OrgBean
     {
@@ -137,6 +194,74 @@ public class SerializeListTest
         }
     }
 
+    @Immutable
+    public static class PrimitivesBean
+    {
+        @JsonJImmutablePrimitive
+        private final JImmutableList<Integer> ints;
+        @JsonJImmutablePrimitive
+        private final JImmutableList<Long> longs;
+        @JsonJImmutablePrimitive
+        private final JImmutableList<Double> doubles;
+        @JsonJImmutablePrimitive
+        @JsonFormat(shape = JsonFormat.Shape.STRING)
+        private final JImmutableList<Long> strings;
+
+        @JsonCreator
+        public PrimitivesBean(@JsonProperty("ints") JImmutableList<Integer> ints,
+                              @JsonProperty("longs") JImmutableList<Long> longs,
+                              @JsonProperty("doubles") JImmutableList<Double> doubles,
+                              @JsonProperty("strings") JImmutableList<Long> strings)
+        {
+            this.ints = ints;
+            this.longs = longs;
+            this.doubles = doubles;
+            this.strings = strings;
+        }
+
+        public JImmutableList<Integer> getInts()
+        {
+            return ints;
+        }
+
+        public JImmutableList<Long> getLongs()
+        {
+            return longs;
+        }
+
+        public JImmutableList<Double> getDoubles()
+        {
+            return doubles;
+        }
+
+        public JImmutableList<Long> getStrings()
+        {
+            return strings;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            PrimitivesBean that = (PrimitivesBean)o;
+            return Objects.equals(ints, that.ints) &&
+                   Objects.equals(longs, that.longs) &&
+                   Objects.equals(doubles, that.doubles) &&
+                   Objects.equals(strings, that.strings);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(ints, longs, doubles, strings);
+        }
+    }
+
     @Immutable
     public static class NamesBean
     {
@@ -36,9 +36,13 @@
 package org.javimmutable.jackson;
 
 import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonInclude;
 import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonTypeInfo;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
 import junit.framework.TestCase;
+import org.javimmutable.collections.JImmutableList;
 import org.javimmutable.collections.JImmutableMap;
 import org.javimmutable.collections.util.JImmutables;
 import org.javimmutable.jackson.orderings.JsonJImmutableInsertOrder;
@@ -46,6 +50,7 @@ import org.javimmutable.jackson.orderings.JsonJImmutableSorted;
 
 import javax.annotation.concurrent.Immutable;
 import java.util.Objects;
+import java.util.SortedMap;
 
 import static org.javimmutable.collections.util.JImmutables.*;
 
@@ -106,6 +111,78 @@ public class SerializeMapTest
         assertEquals(list("i", "a", "d", "g"), list(bean.getInorder().keys()));
     }
 
+    public void testOrderedByKeys()
+        throws Exception
+    {
+        final ObjectMapper sorting = new ObjectMapper();
+        sorting.registerModules(new JImmutableModule());
+        sorting.enable(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+
+        JImmutableMap<String, Integer> hashed = JImmutables.map();
+        JImmutableMap<String, Integer> sorted = JImmutables.sortedMap();
+        JImmutableMap<String, JImmutableList<String>> nested = JImmutables.insertOrderMap();
+        for (String key : list("q", "b", "z", "a", "m")) {
+            hashed = hashed.assign(key, key.charAt(0) - 'a');
+            sorted = sorted.assign(key, key.charAt(0) - 'a');
+            nested = nested.assign(key, list(key));
+        }
+        assertEquals("{\"a\":0,\"b\":1,\"m\":12,\"q\":16,\"z\":25}", sorting.writeValueAsString(hashed));
+        assertEquals("{\"a\":0,\"b\":1,\"m\":12,\"q\":16,\"z\":25}", sorting.writeValueAsString(sorted));
+        assertEquals("{\"a\":[\"a\"],\"b\":[\"b\"],\"m\":[\"m\"],\"q\":[\"q\"],\"z\":[\"z\"]}", sorting.writeValueAsString(nested));
+
+        assertEquals(list("a", "b", "m", "q", "z"), list(SortedKeyView.of(nested).keySet()));
+        assertEquals("z", SortedKeyView.of(sorted).lastKey());
+        final SortedMap<String, Integer> view = SortedKeyView.of(hashed);
+        assertEquals("a", view.firstKey());
+        assertEquals("z", view.lastKey());
+        assertEquals(Integer.valueOf(12), view.get("m"));
+        assertNull(view.get("c"));
+        assertEquals(list("b", "m"), list(view.subMap("b", "q").keySet()));
+        assertEquals(list("a", "b"), list(view.headMap("c").keySet()));
+        assertEquals(list("q", "z"), list(view.tailMap("n").keySet()));
+        assertEquals(list("m"), list(view.tailMap("c").headMap("q").keySet()));
+        assertEquals("q", view.headMap("r").lastKey());
+        assertTrue(view.tailMap("zz").isEmpty());
+        assertNull(SortedKeyView.of(JImmutables.<Object, Integer>insertOrderMap().assign(new Object(), 1)));
+    }
+
+    public void testSortedDuplicateKeys()
+        throws Exception
+    {
+        final String json = "{\"sorted\":{\"d\":1,\"a\":2,\"d\":3},\"inorder\":{}}";
+        AnnotatedConstructorBean bean = mapper.readValue(json, AnnotatedConstructorBean.class);
+        assertEquals(list("a", "d"), list(bean.getSorted().keys()));
+        assertEquals(Integer.valueOf(3), bean.getSorted().get("d"));
+    }
+
+    public void testNonEmptyInclusion()
+        throws Exception
+    {
+        final Included bean = new Included();
+        assertEquals("{}", mapper.writeValueAsString(bean));
+
+        bean.scalars = JImmutables.<String, Integer>map().assign("a", 1);
+        bean.objects = JImmutables.<String, Object>map().assign("b", null);
+        assertEquals("{\"scalars\":{\"a\":1}}", mapper.writeValueAsString(bean));
+
+        bean.objects = bean.objects.assign("c", list(1));
+        assertEquals("{\"scalars\":{\"a\":1},\"objects\":{\"c\":[1]}}", mapper.writeValueAsString(bean));
+    }
+
+    public void testTypedValues()
+        throws Exception
+    {
+        final Typed bean = new Typed();
+        bean.value = JImmutables.<String, Integer>map().assign("b", 2).assign("a", 1);
+        final String typeName = bean.value.getClass().getName();
+        assertEquals("{\"value\":{\"@class\":\"" + typeName + "\",\"a\":1,\"b\":2}}",
+                     mapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS).writeValueAsString(bean));
+
+        bean.value = JImmutables.<String, Object>map().assign("b", list(2)).assign("a", list(1));
+        assertEquals("{\"value\":{\"@class\":\"" + typeName + "\",\"a\":[1],\"b\":[2]}}",
+                     mapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS).writeValueAsString(bean));
+    }
+
     @Immutable
     public static class Outer
     {
@@ -316,4 +393,18 @@ public class SerializeMapTest
             return inorder;
         }
     }
+
+    public static class Included
+    {
+        @JsonInclude(JsonInclude.Include.NON_EMPTY)
+        public JImmutableMap<String, Integer> scalars = JImmutables.map();
+        @JsonInclude(value = JsonInclude.Include.NON_EMPTY, content = JsonInclude.Include.NON_NULL)
+        public JImmutableMap<String, Object> objects = JImmutables.map();
+    }
+
+    public static class Typed
+    {
+        @JsonTypeInfo(use = JsonTypeInfo.Id.CLASS)
+        public Object value;
+    }
 }
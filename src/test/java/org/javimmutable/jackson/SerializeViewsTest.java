@@ -0,0 +1,137 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import junit.framework.TestCase;
+import org.javimmutable.collections.JImmutableList;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.JImmutableSet;
+import org.javimmutable.jackson.views.ListSlice;
+import org.javimmutable.jackson.views.MapRange;
+import org.javimmutable.jackson.views.SetRange;
+
+import java.util.Comparator;
+
+import static org.javimmutable.collections.util.JImmutables.*;
+
+public class SerializeViewsTest
+    extends TestCase
+{
+    private ObjectMapper mapper;
+
+    @Override
+    public void setUp()
+        throws Exception
+    {
+        mapper = new ObjectMapper();
+        mapper.registerModules(new JImmutableModule());
+    }
+
+    public void testListSlice()
+        throws Exception
+    {
+        JImmutableList<Integer> values = list();
+        for (int i = 0; i < 100; ++i) {
+            values = values.insertLast(i);
+        }
+        assertEquals("[10,11,12]", mapper.writeValueAsString(ListSlice.of(values, 10, 13)));
+        assertEquals("[]", mapper.writeValueAsString(ListSlice.of(values, 50, 50)));
+        assertEquals("[98,99]", mapper.writeValueAsString(ListSlice.page(values, 98, 10)));
+        assertEquals("[]", mapper.writeValueAsString(ListSlice.page(values, 200, 10)));
+        assertEquals("{\"page\":[0,1],\"total\":100}", mapper.writeValueAsString(new Page<>(ListSlice.page(values, 0, 2), values.size())));
+        try {
+            ListSlice.of(values, 90, 101);
+            fail();
+        } catch (IndexOutOfBoundsException ex) {
+            // expected
+        }
+    }
+
+    public void testSetRange()
+        throws Exception
+    {
+        JImmutableSet<String> values = sortedSet();
+        for (char c = 'a'; c <= 'z'; ++c) {
+            values = values.insert(String.valueOf(c));
+        }
+        assertEquals("[\"c\",\"d\",\"e\"]", mapper.writeValueAsString(SetRange.of(values, "c", "f")));
+        assertEquals("[\"x\",\"y\",\"z\"]", mapper.writeValueAsString(SetRange.of(values, "x", null)));
+        assertEquals("[\"a\",\"b\"]", mapper.writeValueAsString(SetRange.of(values, null, "c")));
+        assertEquals("[\"m\",\"n\"]", mapper.writeValueAsString(SetRange.page(values, "m", 2)));
+        assertEquals("[]", mapper.writeValueAsString(SetRange.page(values, "zz", 2)));
+    }
+
+    public void testMapRange()
+        throws Exception
+    {
+        JImmutableMap<Integer, String> values = sortedMap();
+        for (int i = 0; i < 50; ++i) {
+            values = values.assign(i * 2, "v" + i);
+        }
+        values = values.assign(7, null);
+        assertEquals("{\"6\":\"v3\",\"7\":null,\"8\":\"v4\"}", mapper.writeValueAsString(MapRange.of(values, 5, 9)));
+        assertEquals("{\"96\":\"v48\",\"98\":\"v49\"}", mapper.writeValueAsString(MapRange.page(values, 95, 10)));
+        assertEquals("{}", mapper.writeValueAsString(MapRange.of(values, 200, null)));
+        assertEquals("{\"page\":{\"0\":\"v0\",\"2\":\"v1\"},\"total\":51}", mapper.writeValueAsString(new Page<>(MapRange.page(values, null, 2), values.size())));
+
+        JImmutableMap<String, Integer> reversed = sortedMap();
+        assertEquals("{}", mapper.writeValueAsString(MapRange.of(reversed, "b", "a", 10, Comparator.reverseOrder())));
+    }
+
+    public static class Page<T>
+    {
+        private final T page;
+        private final int total;
+
+        public Page(T page,
+                    int total)
+        {
+            this.page = page;
+            this.total = total;
+        }
+
+        public T getPage()
+        {
+            return page;
+        }
+
+        public int getTotal()
+        {
+            return total;
+        }
+    }
+}
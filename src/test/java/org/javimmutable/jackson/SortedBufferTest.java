@@ -0,0 +1,119 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson;
+
+import junit.framework.TestCase;
+
+import java.math.BigDecimal;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+public class SortedBufferTest
+    extends TestCase
+{
+    public void testPresorted()
+    {
+        final SortedBuffer<Integer> buffer = new SortedBuffer<>(Comparator.naturalOrder(), true);
+        for (int i = 0; i < 100; ++i) {
+            buffer.add(i / 2);
+        }
+        assertTrue(buffer.isPresorted());
+        final List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 50; ++i) {
+            expected.add(i);
+        }
+        assertEquals(expected, buffer.sortedUniqueValues());
+    }
+
+    public void testUnsorted()
+    {
+        final SortedBuffer<Integer> buffer = new SortedBuffer<>(Comparator.naturalOrder(), true);
+        for (Integer value : Arrays.asList(5, 1, 5, 3, 1)) {
+            buffer.add(value);
+        }
+        assertFalse(buffer.isPresorted());
+        assertEquals(Arrays.asList(1, 3, 5), buffer.sortedUniqueValues());
+        assertTrue(buffer.isPresorted());
+    }
+
+    public void testLastDuplicateWins()
+    {
+        final SortedBuffer<Map.Entry<String, Integer>> buffer = new SortedBuffer<>(Map.Entry.comparingByKey(), false);
+        buffer.add(new AbstractMap.SimpleImmutableEntry<>("b", 1));
+        buffer.add(new AbstractMap.SimpleImmutableEntry<>("a", 2));
+        buffer.add(new AbstractMap.SimpleImmutableEntry<>("b", 3));
+        buffer.add(new AbstractMap.SimpleImmutableEntry<>("a", 4));
+        buffer.add(new AbstractMap.SimpleImmutableEntry<>("b", 5));
+        final List<Map.Entry<String, Integer>> values = buffer.sortedUniqueValues();
+        assertEquals(2, values.size());
+        assertEquals(new AbstractMap.SimpleImmutableEntry<>("a", 4), values.get(0));
+        assertEquals(new AbstractMap.SimpleImmutableEntry<>("b", 5), values.get(1));
+    }
+
+    public void testFirstDuplicateWins()
+    {
+        final SortedBuffer<BigDecimal> buffer = new SortedBuffer<>(Comparator.naturalOrder(), true);
+        buffer.add(new BigDecimal("2"));
+        buffer.add(new BigDecimal("1.0"));
+        buffer.add(new BigDecimal("1.00"));
+        buffer.add(new BigDecimal("2.0"));
+        buffer.add(new BigDecimal("1"));
+        final List<BigDecimal> values = buffer.sortedUniqueValues();
+        assertEquals(Arrays.asList(new BigDecimal("1.0"), new BigDecimal("2")), values);
+        assertEquals(1, values.get(0).scale());
+        assertEquals(0, values.get(1).scale());
+    }
+
+    public void testParallelSort()
+    {
+        final List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 3 * SortedBuffer.PARALLEL_SORT_THRESHOLD; ++i) {
+            expected.add(i);
+        }
+        final List<Integer> shuffled = new ArrayList<>(expected);
+        Collections.shuffle(shuffled, new Random(42));
+        final SortedBuffer<Integer> buffer = new SortedBuffer<>(Comparator.naturalOrder(), true);
+        shuffled.forEach(buffer::add);
+        shuffled.forEach(buffer::add);
+        assertEquals(expected, buffer.sortedUniqueValues());
+    }
+}
@@ -0,0 +1,145 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson;
+
+import com.fasterxml.jackson.annotation.JsonMerge;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import junit.framework.TestCase;
+import org.javimmutable.collections.JImmutableList;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.JImmutableSet;
+import org.javimmutable.collections.util.JImmutables;
+
+import static org.javimmutable.collections.util.JImmutables.*;
+
+public class UpdateTest
+    extends TestCase
+{
+    private ObjectMapper mapper;
+
+    @Override
+    public void setUp()
+        throws Exception
+    {
+        mapper = new ObjectMapper();
+        mapper.registerModules(new JImmutableModule());
+    }
+
+    public void testMap()
+        throws Exception
+    {
+        final JImmutableMap<String, Integer> original = JImmutables.<String, Integer>map().assign("a", 1).assign("b", 2);
+        final JImmutableMap<String, Integer> updated = mapper.readerForUpdating(original)
+            .forType(new TypeReference<JImmutableMap<String, Integer>>() {})
+            .readValue("{\"b\":20,\"c\":30}");
+        assertEquals(JImmutables.<String, Integer>map().assign("a", 1).assign("b", 20).assign("c", 30), updated);
+        assertEquals(JImmutables.<String, Integer>map().assign("a", 1).assign("b", 2), original);
+    }
+
+    public void testNestedMap()
+        throws Exception
+    {
+        final JImmutableMap<String, Integer> inner = JImmutables.<String, Integer>map().assign("x", 1).assign("y", 2);
+        final JImmutableMap<String, JImmutableMap<String, Integer>> original = JImmutables.<String, JImmutableMap<String, Integer>>map()
+            .assign("a", inner)
+            .assign("b", inner);
+        final JImmutableMap<String, JImmutableMap<String, Integer>> updated = mapper.readerForUpdating(original)
+            .forType(new TypeReference<JImmutableMap<String, JImmutableMap<String, Integer>>>() {})
+            .readValue("{\"a\":{\"y\":20,\"z\":30},\"c\":{\"q\":5}}");
+        assertSame(inner, updated.get("b"));
+        assertEquals(inner.assign("y", 20).assign("z", 30), updated.get("a"));
+        assertEquals(JImmutables.<String, Integer>map().assign("q", 5), updated.get("c"));
+        assertEquals(inner, original.get("a"));
+    }
+
+    public void testListAndSet()
+        throws Exception
+    {
+        final JImmutableList<Integer> list = list(1, 2);
+        final JImmutableList<Integer> updatedList = mapper.readerForUpdating(list)
+            .forType(new TypeReference<JImmutableList<Integer>>() {})
+            .readValue("[3,4]");
+        assertEquals(list(1, 2, 3, 4), updatedList);
+        assertEquals(list(1, 2), list);
+
+        final JImmutableSet<Integer> set = JImmutables.<Integer>set().insert(1).insert(2);
+        final JImmutableSet<Integer> updatedSet = mapper.readerForUpdating(set)
+            .forType(new TypeReference<JImmutableSet<Integer>>() {})
+            .readValue("[2,3]");
+        assertEquals(set.insert(3), updatedSet);
+        assertEquals(2, set.size());
+    }
+
+    public void testMergeProperty()
+        throws Exception
+    {
+        final Merged bean = new Merged();
+        final JImmutableMap<String, Integer> before = bean.getValues();
+        mapper.readerForUpdating(bean).readValue("{\"values\":{\"b\":2},\"names\":[\"z\"]}");
+        assertEquals(JImmutables.<String, Integer>map().assign("a", 1).assign("b", 2), bean.getValues());
+        assertEquals(list("x", "z"), bean.getNames());
+        assertEquals(JImmutables.<String, Integer>map().assign("a", 1), before);
+    }
+
+    public static class Merged
+    {
+        @JsonMerge
+        private JImmutableMap<String, Integer> values = JImmutables.<String, Integer>map().assign("a", 1);
+        @JsonMerge
+        private JImmutableList<String> names = list("x");
+
+        public JImmutableMap<String, Integer> getValues()
+        {
+            return values;
+        }
+
+        public void setValues(JImmutableMap<String, Integer> values)
+        {
+            this.values = values;
+        }
+
+        public JImmutableList<String> getNames()
+        {
+            return names;
+        }
+
+        public void setNames(JImmutableList<String> names)
+        {
+            this.names = names;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson.convert;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import junit.framework.TestCase;
+import org.javimmutable.collections.JImmutableList;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.JImmutableSet;
+import org.javimmutable.collections.tree.JImmutableTreeSet;
+import org.javimmutable.collections.util.JImmutables;
+import org.javimmutable.jackson.JImmutableModule;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+
+import static org.javimmutable.collections.util.JImmutables.*;
+
+public class CollectionConverterTest
+    extends TestCase
+{
+    private ObjectMapper mapper;
+    private CollectionConverter converter;
+
+    @Override
+    public void setUp()
+        throws Exception
+    {
+        mapper = new ObjectMapper();
+        mapper.registerModules(new JImmutableModule());
+        converter = new CollectionConverter(mapper);
+    }
+
+    public void testToJImmutable()
+    {
+        final Map<String, List<Integer>> source = new LinkedHashMap<>();
+        source.put("a", Arrays.asList(1, 2));
+        source.put("b", new ArrayList<>());
+        final JImmutableMap<String, JImmutableList<Integer>> converted = converter.convert(source, new TypeReference<JImmutableMap<String, JImmutableList<Integer>>>() {});
+        assertEquals(JImmutables.<String, JImmutableList<Integer>>map().assign("a", list(1, 2)).assign("b", list()), converted);
+        assertEquals(mapper.convertValue(source, new TypeReference<JImmutableMap<String, JImmutableList<Integer>>>() {}), converted);
+
+        final JImmutableSet<Integer> sorted = converter.convert(new HashSet<>(Arrays.asList(3, 1, 2)), new TypeReference<JImmutableTreeSet<Integer>>() {});
+        assertEquals(list(1, 2, 3), list(sorted));
+    }
+
+    public void testFromJImmutable()
+    {
+        final JImmutableMap<String, JImmutableSet<String>> source = JImmutables.<String, JImmutableSet<String>>map()
+            .assign("b", JImmutables.<String>set().insert("x"))
+            .assign("a", JImmutables.<String>set().insert("y").insert("z"));
+        final SortedMap<String, Set<String>> converted = converter.convert(source, new TypeReference<SortedMap<String, Set<String>>>() {});
+        assertEquals(Arrays.asList("a", "b"), new ArrayList<>(converted.keySet()));
+        assertEquals(new HashSet<>(Arrays.asList("y", "z")), converted.get("a"));
+
+        final List<List<Integer>> lists = converter.convert(list(list(1), list(2, 3)), new TypeReference<List<List<Integer>>>() {});
+        assertEquals(Arrays.asList(Arrays.asList(1), Arrays.asList(2, 3)), lists);
+    }
+
+    public void testElementConversion()
+    {
+        final Map<String, Object> source = new LinkedHashMap<>();
+        source.put("1", "10");
+        source.put("2", 20);
+        final JImmutableMap<Integer, Long> converted = converter.convert(source, new TypeReference<JImmutableMap<Integer, Long>>() {});
+        assertEquals(JImmutables.<Integer, Long>map().assign(1, 10L).assign(2, 20L), converted);
+
+        final JImmutableList<Point> points = converter.convert(Arrays.asList(new Point(1, 2)), new TypeReference<JImmutableList<Point>>() {});
+        assertEquals(1, points.get(0).x);
+        final JImmutableList<Map<String, Integer>> maps = converter.convert(Arrays.asList(new Point(3, 4)), new TypeReference<JImmutableList<Map<String, Integer>>>() {});
+        assertEquals(Integer.valueOf(4), maps.get(0).get("y"));
+    }
+
+    public static class Point
+    {
+        public int x;
+        public int y;
+
+        public Point()
+        {
+        }
+
+        public Point(int x,
+                     int y)
+        {
+            this.x = x;
+            this.y = y;
+        }
+    }
+}
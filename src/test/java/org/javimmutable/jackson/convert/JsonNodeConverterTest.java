@@ -0,0 +1,231 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson.convert;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.DeserializationContext;
+import com.fasterxml.jackson.databind.JsonDeserializer;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.JsonSerializer;
+import com.fasterxml.jackson.databind.KeyDeserializer;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import junit.framework.TestCase;
+import org.javimmutable.collections.JImmutableList;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.JImmutableSet;
+import org.javimmutable.collections.tree.JImmutableTreeMap;
+import org.javimmutable.collections.util.JImmutables;
+import org.javimmutable.jackson.JImmutableModule;
+
+import java.io.IOException;
+
+import static org.javimmutable.collections.util.JImmutables.*;
+
+public class JsonNodeConverterTest
+    extends TestCase
+{
+    private ObjectMapper mapper;
+    private JsonNodeConverter converter;
+
+    @Override
+    public void setUp()
+        throws Exception
+    {
+        mapper = new ObjectMapper();
+        mapper.registerModules(new JImmutableModule());
+        converter = new JsonNodeConverter(mapper);
+    }
+
+    public void testNestedCollections()
+        throws Exception
+    {
+        final String json = "{\"a\":[1,2,3],\"b\":[],\"c\":null}";
+        final JsonNode node = mapper.readTree(json);
+        final JImmutableMap<String, JImmutableList<Integer>> value = converter.fromNode(node, new TypeReference<JImmutableMap<String, JImmutableList<Integer>>>() {});
+        assertEquals(JImmutables.<String, JImmutableList<Integer>>map().assign("a", list(1, 2, 3)).assign("b", list()).assign("c", null), value);
+        assertEquals(mapper.readValue(json, new TypeReference<JImmutableMap<String, JImmutableList<Integer>>>() {}), value);
+        assertEquals(node, converter.toNode(value));
+    }
+
+    public void testSetsAndScalars()
+        throws Exception
+    {
+        final JsonNode node = mapper.readTree("[[\"x\",\"y\",\"x\"],[\"z\"]]");
+        final JImmutableList<JImmutableSet<String>> value = converter.fromNode(node, new TypeReference<JImmutableList<JImmutableSet<String>>>() {});
+        assertEquals(list(JImmutables.<String>set().insert("x").insert("y"), JImmutables.<String>set().insert("z")), value);
+
+        final JImmutableList<Long> longs = converter.fromNode(mapper.readTree("[1,9999999999]"), new TypeReference<JImmutableList<Long>>() {});
+        assertEquals(list(1L, 9999999999L), longs);
+
+        final JImmutableList<Double> doubles = converter.fromNode(mapper.readTree("[1,2.5]"), new TypeReference<JImmutableList<Double>>() {});
+        assertEquals(list(1.0, 2.5), doubles);
+        assertEquals(mapper.readTree("[1.0,2.5]"), converter.toNode(doubles));
+    }
+
+    public void testSortedAndKeys()
+        throws Exception
+    {
+        final JImmutableMap<Integer, String> value = converter.fromNode(mapper.readTree("{\"3\":\"c\",\"1\":\"a\",\"2\":\"b\"}"), new TypeReference<JImmutableTreeMap<Integer, String>>() {});
+        assertEquals(list(1, 2, 3), list(value.keys()));
+        assertEquals(mapper.readTree("{\"1\":\"a\",\"2\":\"b\",\"3\":\"c\"}"), converter.toNode(value));
+    }
+
+    public void testMapperElements()
+        throws Exception
+    {
+        final JImmutableList<Boolean> flags = converter.fromNode(mapper.readTree("[true,\"false\"]"), new TypeReference<JImmutableList<Boolean>>() {});
+        assertEquals(list(true, false), flags);
+
+        final JImmutableList<Point> points = converter.fromNode(mapper.readTree("[{\"x\":1,\"y\":2}]"), new TypeReference<JImmutableList<Point>>() {});
+        assertEquals(1, points.get(0).x);
+        assertEquals(2, points.get(0).y);
+        assertEquals(mapper.readTree("[{\"x\":1,\"y\":2}]"), converter.toNode(points));
+    }
+
+    public void testKeySerializers()
+        throws Exception
+    {
+        final SimpleModule module = new SimpleModule();
+        module.addKeySerializer(Cell.class, new JsonSerializer<Cell>()
+        {
+            @Override
+            public void serialize(Cell value,
+                                  JsonGenerator gen,
+                                  SerializerProvider serializers)
+                throws IOException
+            {
+                gen.writeFieldName(value.row + ":" + value.column);
+            }
+        });
+        mapper.registerModule(module);
+        final JImmutableMap<Cell, Integer> cells = JImmutables.<Cell, Integer>map().assign(new Cell(1, 2), 3).assign(new Cell(4, 5), 6);
+        assertEquals(mapper.readTree("{\"1:2\":3,\"4:5\":6}"), converter.toNode(cells));
+        assertEquals(mapper.valueToTree(cells), converter.toNode(cells));
+
+        final JImmutableMap<Integer, String> numbers = JImmutables.<Integer, String>map().assign(1, "a").assign(20, "b");
+        assertEquals(mapper.readTree("{\"1\":\"a\",\"20\":\"b\"}"), converter.toNode(numbers));
+    }
+
+    public void testCustomScalars()
+        throws Exception
+    {
+        final SimpleModule module = new SimpleModule();
+        module.addSerializer(Integer.class, new JsonSerializer<Integer>()
+        {
+            @Override
+            public void serialize(Integer value,
+                                  JsonGenerator gen,
+                                  SerializerProvider serializers)
+                throws IOException
+            {
+                gen.writeString("#" + value);
+            }
+        });
+        module.addDeserializer(String.class, new JsonDeserializer<String>()
+        {
+            @Override
+            public String deserialize(JsonParser p,
+                                      DeserializationContext ctxt)
+                throws IOException
+            {
+                return p.getValueAsString().toUpperCase();
+            }
+        });
+        module.addKeyDeserializer(Cell.class, new KeyDeserializer()
+        {
+            @Override
+            public Object deserializeKey(String key,
+                                         DeserializationContext ctxt)
+            {
+                final String[] parts = key.split(":");
+                return new Cell(Integer.parseInt(parts[0]), Integer.parseInt(parts[1]));
+            }
+        });
+        mapper.registerModule(module);
+
+        final JImmutableMap<String, Integer> numbers = JImmutables.<String, Integer>map().assign("a", 1);
+        assertEquals(mapper.readTree("{\"a\":\"#1\"}"), converter.toNode(numbers));
+        assertEquals(mapper.valueToTree(numbers), converter.toNode(numbers));
+
+        final JImmutableList<String> strings = converter.fromNode(mapper.readTree("[\"x\",\"y\"]"), new TypeReference<JImmutableList<String>>() {});
+        assertEquals(list("X", "Y"), strings);
+
+        final JImmutableMap<Cell, Long> cells = converter.fromNode(mapper.readTree("{\"1:2\":3}"), new TypeReference<JImmutableMap<Cell, Long>>() {});
+        final Cell cell = cells.keys().iterator().next();
+        assertEquals(1, cell.row);
+        assertEquals(2, cell.column);
+        assertEquals(Long.valueOf(3), cells.get(cell));
+    }
+
+    public void testErrors()
+        throws Exception
+    {
+        try {
+            converter.fromNode(mapper.readTree("[1]"), new TypeReference<JImmutableMap<String, Integer>>() {});
+            fail();
+        } catch (JsonMappingException ignored) {
+        }
+        try {
+            converter.fromNode(mapper.readTree("{\"a\":1}"), new TypeReference<JImmutableList<Integer>>() {});
+            fail();
+        } catch (JsonMappingException ignored) {
+        }
+    }
+
+    public static class Point
+    {
+        public int x;
+        public int y;
+    }
+
+    public static class Cell
+    {
+        private final int row;
+        private final int column;
+
+        public Cell(int row,
+                    int column)
+        {
+            this.row = row;
+            this.column = column;
+        }
+    }
+}
@@ -0,0 +1,130 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson.digest;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import junit.framework.TestCase;
+import org.javimmutable.collections.JImmutableList;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.util.JImmutables;
+import org.javimmutable.jackson.JImmutableModule;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import static org.javimmutable.collections.util.JImmutables.*;
+
+public class ContentHasherTest
+    extends TestCase
+{
+    private ContentHasher hasher;
+
+    @Override
+    public void setUp()
+        throws Exception
+    {
+        ObjectMapper mapper = new ObjectMapper();
+        mapper.registerModules(new JImmutableModule());
+        hasher = new ContentHasher(mapper);
+    }
+
+    public void testCanonical()
+        throws Exception
+    {
+        final JImmutableMap<String, Integer> hashed = JImmutables.<String, Integer>map().assign("a", 1).assign("b", 2);
+        final JImmutableMap<String, Integer> sorted = JImmutables.<String, Integer>sortedMap().assign("b", 2).assign("a", 1);
+        final JImmutableMap<String, Integer> inorder = JImmutables.<String, Integer>insertOrderMap().assign("b", 2).assign("a", 1);
+        assertTrue(Arrays.equals(hasher.hash(hashed), hasher.hash(sorted)));
+        assertEquals(hasher.etag(hashed), hasher.etag(inorder));
+
+        assertTrue(Arrays.equals(hasher.hash(JImmutables.<Integer>set().insert(1).insert(2)), hasher.hash(JImmutables.<Integer>sortedSet().insert(2).insert(1))));
+        assertFalse(Arrays.equals(hasher.hash(list(1, 2)), hasher.hash(list(2, 1))));
+        assertFalse(Arrays.equals(hasher.hash(list(1, 2)), hasher.hash(JImmutables.<Integer>set().insert(1).insert(2))));
+        assertFalse(Arrays.equals(hasher.hash(hashed), hasher.hash(hashed.assign("a", 3))));
+        assertFalse(Arrays.equals(hasher.hash(JImmutables.<String, String>map().assign("a", "b")), hasher.hash(JImmutables.<String, String>map().assign("b", "a"))));
+        assertFalse(Arrays.equals(hasher.hash(list("1")), hasher.hash(list(1))));
+        assertFalse(Arrays.equals(hasher.hash(list((Object)null)), hasher.hash(list())));
+        assertTrue(hasher.etag(hashed).startsWith("\""));
+    }
+
+    public void testSharedChildrenAreCached()
+        throws Exception
+    {
+        JImmutableMap<String, JImmutableList<Integer>> catalog = JImmutables.map();
+        for (int i = 0; i < 10; ++i) {
+            catalog = catalog.assign("k" + i, list(i, i + 1));
+        }
+        final String before = hasher.etag(catalog);
+        assertEquals(11, hasher.cachedCount());
+        assertEquals(before, hasher.etag(catalog));
+        assertEquals(11, hasher.cachedCount());
+
+        final JImmutableMap<String, JImmutableList<Integer>> changed = catalog.assign("k3", list(-1));
+        final String after = hasher.etag(changed);
+        assertFalse(before.equals(after));
+        // only the new map and the new list were hashed
+        assertEquals(13, hasher.cachedCount());
+        assertEquals(before, hasher.etag(changed.assign("k3", list(3, 4))));
+    }
+
+    public void testLeafEncoding()
+        throws Exception
+    {
+        final byte[] a = sha256("v\"a\"");
+        final byte[] b = sha256("v{\"x\":1,\"y\":2}");
+        assertTrue(Arrays.equals(a, hasher.hash("a")));
+        final MessageDigest digest = MessageDigest.getInstance("SHA-256");
+        digest.update((byte)'l');
+        digest.update(ByteBuffer.allocate(4).putInt(3).array());
+        digest.update(a);
+        digest.update(b);
+        digest.update(sha256("n"));
+        final Map<String, Integer> leaf = new LinkedHashMap<>();
+        leaf.put("y", 2);
+        leaf.put("x", 1);
+        assertTrue(Arrays.equals(digest.digest(), hasher.hash(list("a", leaf, null))));
+    }
+
+    private static byte[] sha256(String text)
+        throws Exception
+    {
+        return MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+    }
+}
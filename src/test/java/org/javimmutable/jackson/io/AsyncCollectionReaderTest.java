@@ -0,0 +1,193 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson.io;
+
+import com.fasterxml.jackson.core.JsonParseException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import junit.framework.TestCase;
+import org.javimmutable.collections.JImmutableList;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.JImmutableSet;
+import org.javimmutable.collections.util.JImmutables;
+import org.javimmutable.jackson.JImmutableLimits;
+import org.javimmutable.jackson.JImmutableModule;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.Pipe;
+import java.nio.charset.StandardCharsets;
+
+import static org.javimmutable.collections.util.JImmutables.*;
+
+public class AsyncCollectionReaderTest
+    extends TestCase
+{
+    private ObjectMapper mapper;
+
+    @Override
+    public void setUp()
+        throws Exception
+    {
+        mapper = new ObjectMapper();
+        mapper.registerModules(new JImmutableModule());
+    }
+
+    public void testListFedOneByteAtATime()
+        throws Exception
+    {
+        final JImmutableList<JImmutableMap<String, Integer>> expected = list(map(), singleton("a", 1), singleton("b", null));
+        final byte[] bytes = "[ {}, {\"a\":1}, {\"b\":null} ]".getBytes(StandardCharsets.UTF_8);
+        final AsyncCollectionReader<JImmutableList<JImmutableMap<String, Integer>>> reader = AsyncCollectionReader.forType(mapper, new TypeReference<JImmutableList<JImmutableMap<String, Integer>>>() {});
+        for (int i = 0; i < bytes.length; ++i) {
+            assertFalse(reader.isDone());
+            assertEquals(i == bytes.length - 1, reader.feed(bytes, i, 1));
+        }
+        reader.endOfInput();
+        assertEquals(expected, reader.getResult());
+    }
+
+    public void testMapAndSetFromPipe()
+        throws Exception
+    {
+        JImmutableMap<String, JImmutableList<String>> expectedMap = map();
+        for (int i = 0; i < 1000; ++i) {
+            expectedMap = expectedMap.assign("key" + i, list("a" + i, "b" + i));
+        }
+        assertEquals(expectedMap, readFromPipe(mapper.writeValueAsBytes(expectedMap), new TypeReference<JImmutableMap<String, JImmutableList<String>>>() {}));
+
+        JImmutableSet<Integer> expectedSet = set();
+        for (int i = 0; i < 1000; ++i) {
+            expectedSet = expectedSet.insert(i * 31);
+        }
+        assertEquals(expectedSet, readFromPipe(mapper.writeValueAsBytes(expectedSet), new TypeReference<JImmutableSet<Integer>>() {}));
+    }
+
+    public void testIncompleteInput()
+        throws Exception
+    {
+        final byte[] bytes = "[1,2,".getBytes(StandardCharsets.UTF_8);
+        final AsyncCollectionReader<JImmutableList<Integer>> reader = AsyncCollectionReader.forType(mapper, new TypeReference<JImmutableList<Integer>>() {});
+        assertFalse(reader.feed(bytes, 0, bytes.length));
+        try {
+            reader.endOfInput();
+            fail();
+        } catch (JsonParseException ex) {
+            // expected
+        }
+        try {
+            reader.getResult();
+            fail();
+        } catch (IllegalStateException ex) {
+            // expected
+        }
+    }
+
+    public void testNonStringKeys()
+        throws Exception
+    {
+        final JImmutableMap<Integer, String> expected = JImmutables.<Integer, String>map().assign(1, "a").assign(-20, "b");
+        assertEquals(expected, readFromPipe(mapper.writeValueAsBytes(expected), new TypeReference<JImmutableMap<Integer, String>>() {}));
+    }
+
+    public void testLimits()
+        throws Exception
+    {
+        final ObjectMapper limited = new ObjectMapper();
+        limited.registerModules(new JImmutableModule(JImmutableLimits.NONE.withMaxElements(3).withMaxDepth(2)));
+
+        final AsyncCollectionReader<JImmutableList<Integer>> reader = AsyncCollectionReader.forType(limited, new TypeReference<JImmutableList<Integer>>() {});
+        final byte[] ok = "[1,2,3".getBytes(StandardCharsets.UTF_8);
+        reader.feed(ok, 0, ok.length);
+        final byte[] tooMany = ",4,".getBytes(StandardCharsets.UTF_8);
+        try {
+            reader.feed(tooMany, 0, tooMany.length);
+            fail();
+        } catch (JsonMappingException ex) {
+            assertTrue(ex.getMessage().contains("element limit"));
+        }
+
+        final TypeReference<JImmutableList<JImmutableList<JImmutableList<Integer>>>> nested = new TypeReference<JImmutableList<JImmutableList<JImmutableList<Integer>>>>() {};
+        final byte[] twoLevels = "[[],[]]".getBytes(StandardCharsets.UTF_8);
+        final AsyncCollectionReader<JImmutableList<JImmutableList<JImmutableList<Integer>>>> shallow = AsyncCollectionReader.forType(limited, nested);
+        assertTrue(shallow.feed(twoLevels, 0, twoLevels.length));
+        final byte[] threeLevels = "[[[1]]]".getBytes(StandardCharsets.UTF_8);
+        try {
+            AsyncCollectionReader.forType(limited, nested).feed(threeLevels, 0, threeLevels.length);
+            fail();
+        } catch (JsonMappingException ex) {
+            assertTrue(ex.getMessage().contains("nested deeper"));
+        }
+    }
+
+    private <T> T readFromPipe(byte[] bytes,
+                               TypeReference<T> type)
+        throws Exception
+    {
+        final Pipe pipe = Pipe.open();
+        final Thread writer = new Thread(() -> {
+            try {
+                for (int offset = 0; offset < bytes.length; offset += 113) {
+                    final ByteBuffer chunk = ByteBuffer.wrap(bytes, offset, Math.min(113, bytes.length - offset));
+                    while (chunk.hasRemaining()) {
+                        pipe.sink().write(chunk);
+                    }
+                }
+                pipe.sink().close();
+            } catch (Exception ex) {
+                throw new RuntimeException(ex);
+            }
+        });
+        writer.start();
+
+        final AsyncCollectionReader<T> reader = AsyncCollectionReader.forType(mapper, type);
+        final ByteBuffer buffer = ByteBuffer.allocate(256);
+        while (pipe.source().read(buffer) >= 0) {
+            buffer.flip();
+            reader.feed(buffer.array(), buffer.position(), buffer.remaining());
+            buffer.clear();
+        }
+        reader.endOfInput();
+        writer.join();
+        return reader.getResult();
+    }
+
+    private static JImmutableMap<String, Integer> singleton(String key,
+                                                            Integer value)
+    {
+        return JImmutables.<String, Integer>map().assign(key, value);
+    }
+}
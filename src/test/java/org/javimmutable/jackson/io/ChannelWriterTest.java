@@ -0,0 +1,127 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson.io;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import junit.framework.TestCase;
+import org.javimmutable.collections.JImmutableList;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.jackson.JImmutableModule;
+
+import java.io.ByteArrayOutputStream;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.Pipe;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.javimmutable.collections.util.JImmutables.*;
+
+public class ChannelWriterTest
+    extends TestCase
+{
+    private ObjectMapper mapper;
+
+    @Override
+    public void setUp()
+        throws Exception
+    {
+        mapper = new ObjectMapper();
+        mapper.registerModules(new JImmutableModule());
+    }
+
+    public void testFileChannel()
+        throws Exception
+    {
+        JImmutableList<String> values = list();
+        for (int i = 0; i < 10000; ++i) {
+            values = values.insertLast("value-" + i);
+        }
+
+        final Path file = Files.createTempFile("channel", ".json");
+        try {
+            final ChannelWriter writer = new ChannelWriter(mapper.writer(), 100);
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                writer.writeValue(channel, values);
+            }
+            assertEquals(values, mapper.readValue(file.toFile(), new TypeReference<JImmutableList<String>>() {}));
+
+            // the same writer and buffer can be reused
+            try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+                writer.writeValue(channel, list("x", "y"));
+            }
+            assertEquals(list("x", "y"), mapper.readValue(file.toFile(), new TypeReference<JImmutableList<String>>() {}));
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    public void testPipe()
+        throws Exception
+    {
+        JImmutableMap<String, Integer> values = map();
+        for (int i = 0; i < 10000; ++i) {
+            values = values.assign("key-" + i, i);
+        }
+
+        final Pipe pipe = Pipe.open();
+        final AtomicReference<byte[]> received = new AtomicReference<>();
+        final Thread reader = new Thread(() -> {
+            try (InputStream input = Channels.newInputStream(pipe.source())) {
+                final ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+                final byte[] buffer = new byte[512];
+                int count;
+                while ((count = input.read(buffer)) >= 0) {
+                    bytes.write(buffer, 0, count);
+                }
+                received.set(bytes.toByteArray());
+            } catch (Exception ex) {
+                throw new RuntimeException(ex);
+            }
+        });
+        reader.start();
+
+        new ChannelWriter(mapper.writer(), 1000).writeValue(pipe.sink(), values);
+        pipe.sink().close();
+        reader.join();
+
+        assertEquals(values, mapper.readValue(received.get(), new TypeReference<JImmutableMap<String, Integer>>() {}));
+    }
+}
@@ -0,0 +1,139 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson.io;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import com.fasterxml.jackson.annotation.JsonPropertyOrder;
+import com.fasterxml.jackson.dataformat.csv.CsvMapper;
+import junit.framework.TestCase;
+import org.javimmutable.collections.JImmutableList;
+
+import java.io.StringReader;
+import java.io.StringWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Objects;
+
+import static org.javimmutable.collections.util.JImmutables.*;
+
+public class CsvRowsTest
+    extends TestCase
+{
+    private CsvRows<Row> csv;
+    private Path file;
+
+    @Override
+    public void setUp()
+        throws Exception
+    {
+        csv = new CsvRows<>(new CsvMapper(), Row.class);
+        file = Files.createTempFile("rows", ".csv");
+    }
+
+    @Override
+    public void tearDown()
+        throws Exception
+    {
+        Files.deleteIfExists(file);
+    }
+
+    public void testStrings()
+        throws Exception
+    {
+        final JImmutableList<Row> rows = list(new Row("a", 1), new Row("b,c", 2));
+        final StringWriter out = new StringWriter();
+        csv.write(rows, out);
+        assertEquals("name,size\na,1\n\"b,c\",2\n", out.toString());
+        assertEquals(rows, csv.read(new StringReader(out.toString())));
+        assertEquals(list(), csv.read(new StringReader("name,size\n")));
+    }
+
+    public void testFile()
+        throws Exception
+    {
+        JImmutableList<Row> rows = list();
+        for (int i = 0; i < 100_000; ++i) {
+            rows = rows.insertLast(new Row("row-" + i, i));
+        }
+        csv.write(rows, file);
+        assertEquals(rows, csv.read(file));
+    }
+
+    @JsonPropertyOrder({"name", "size"})
+    public static class Row
+    {
+        private final String name;
+        private final int size;
+
+        @JsonCreator
+        public Row(@JsonProperty("name") String name,
+                   @JsonProperty("size") int size)
+        {
+            this.name = name;
+            this.size = size;
+        }
+
+        public String getName()
+        {
+            return name;
+        }
+
+        public int getSize()
+        {
+            return size;
+        }
+
+        @Override
+        public boolean equals(Object o)
+        {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final Row row = (Row)o;
+            return size == row.size && Objects.equals(name, row.name);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return Objects.hash(name, size);
+        }
+    }
+}
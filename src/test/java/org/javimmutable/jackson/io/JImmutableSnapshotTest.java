@@ -0,0 +1,187 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson.io;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import junit.framework.TestCase;
+import org.javimmutable.collections.JImmutableList;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.JImmutableSet;
+import org.javimmutable.collections.inorder.JImmutableInsertOrderMap;
+import org.javimmutable.collections.inorder.JImmutableInsertOrderSet;
+import org.javimmutable.collections.tree.JImmutableTreeMap;
+import org.javimmutable.collections.util.JImmutables;
+import org.javimmutable.jackson.JImmutableModule;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Collectors;
+
+import static org.javimmutable.collections.util.JImmutables.*;
+
+public class JImmutableSnapshotTest
+    extends TestCase
+{
+    private ObjectMapper mapper;
+    private JImmutableSnapshot snapshot;
+    private Path file;
+
+    @Override
+    public void setUp()
+        throws Exception
+    {
+        mapper = new ObjectMapper();
+        mapper.registerModules(new JImmutableModule());
+        snapshot = new JImmutableSnapshot(mapper);
+        file = Files.createTempFile("collection", ".snapshot");
+    }
+
+    @Override
+    public void tearDown()
+        throws Exception
+    {
+        Files.deleteIfExists(file);
+    }
+
+    public void testList()
+        throws Exception
+    {
+        final TypeReference<JImmutableList<String>> type = new TypeReference<JImmutableList<String>>() {};
+        JImmutableList<String> list = list();
+        for (int i = 0; i < 1000; ++i) {
+            list = list.insertLast((i % 100 == 0) ? null : "s" + i);
+        }
+        snapshot.write(file, list, type);
+        assertEquals(list, snapshot.read(file, type));
+
+        snapshot.write(file, JImmutables.<String>list(), type);
+        assertEquals(list(), snapshot.read(file, type));
+    }
+
+    public void testNestedValues()
+        throws Exception
+    {
+        final TypeReference<JImmutableList<JImmutableMap<String, Integer>>> type = new TypeReference<JImmutableList<JImmutableMap<String, Integer>>>() {};
+        final JImmutableList<JImmutableMap<String, Integer>> list = list(JImmutables.<String, Integer>map().assign("a", 1),
+                                                                         JImmutables.<String, Integer>map().assign("b", 2).assign("c", 3));
+        snapshot.write(file, list, type);
+        assertEquals(list, snapshot.read(file, type));
+    }
+
+    public void testSets()
+        throws Exception
+    {
+        final TypeReference<JImmutableSet<Integer>> type = new TypeReference<JImmutableSet<Integer>>() {};
+        final JImmutableSet<Integer> hash = JImmutables.<Integer>set().insertAll(Arrays.asList(5, 3, 9, 1));
+        snapshot.write(file, hash, type);
+        assertEquals(hash, snapshot.read(file, type));
+
+        final JImmutableSet<Integer> sorted = JImmutables.<Integer>sortedSet().insertAll(Arrays.asList(5, 3, 9, 1));
+        snapshot.write(file, sorted, type);
+        final JImmutableSet<Integer> sortedCopy = snapshot.read(file, type);
+        assertEquals(sorted.getClass(), sortedCopy.getClass());
+        assertEquals(Arrays.asList(1, 3, 5, 9), sortedCopy.getSet().stream().collect(Collectors.toList()));
+
+        final JImmutableSet<Integer> ordered = insertOrderSet(5, 3, 9, 1);
+        snapshot.write(file, ordered, type);
+        final JImmutableSet<Integer> orderedCopy = snapshot.read(file, type);
+        assertTrue(orderedCopy instanceof JImmutableInsertOrderSet);
+        assertEquals(Arrays.asList(5, 3, 9, 1), orderedCopy.getSet().stream().collect(Collectors.toList()));
+    }
+
+    public void testMaps()
+        throws Exception
+    {
+        final TypeReference<JImmutableMap<Integer, String>> type = new TypeReference<JImmutableMap<Integer, String>>() {};
+        JImmutableMap<Integer, String> hash = map();
+        JImmutableMap<Integer, String> sorted = sortedMap();
+        JImmutableMap<Integer, String> ordered = insertOrderMap();
+        for (int i = 500; i > 0; --i) {
+            final String value = (i == 7) ? null : "v" + i;
+            hash = hash.assign(i, value);
+            sorted = sorted.assign(i, value);
+            ordered = ordered.assign(i, value);
+        }
+        snapshot.write(file, hash, type);
+        assertEquals(hash, snapshot.read(file, type));
+
+        snapshot.write(file, sorted, type);
+        final JImmutableMap<Integer, String> sortedCopy = snapshot.read(file, type);
+        assertTrue(sortedCopy instanceof JImmutableTreeMap);
+        assertEquals(sorted, sortedCopy);
+
+        snapshot.write(file, ordered, type);
+        final JImmutableMap<Integer, String> orderedCopy = snapshot.read(file, type);
+        assertTrue(orderedCopy instanceof JImmutableInsertOrderMap);
+        assertEquals(Integer.valueOf(500), orderedCopy.iterator().next().getKey());
+        assertEquals(ordered, orderedCopy);
+    }
+
+    public void testInvalidFiles()
+        throws Exception
+    {
+        final TypeReference<JImmutableList<String>> type = new TypeReference<JImmutableList<String>>() {};
+        snapshot.write(file, list("alpha", "beta", "gamma"), type);
+        final byte[] bytes = Files.readAllBytes(file);
+        Files.write(file, Arrays.copyOf(bytes, bytes.length - 3));
+        try {
+            snapshot.read(file, type);
+            fail();
+        } catch (EOFException ignored) {
+            // expected
+        }
+
+        Files.write(file, bytes);
+        try {
+            snapshot.read(file, new TypeReference<JImmutableMap<String, String>>() {});
+            fail();
+        } catch (IOException ignored) {
+            // expected
+        }
+
+        Files.write(file, "not a snapshot".getBytes());
+        try {
+            snapshot.read(file, type);
+            fail();
+        } catch (IOException ignored) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,113 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson.io;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import junit.framework.TestCase;
+import org.javimmutable.collections.JImmutableList;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.jackson.JImmutableModule;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static org.javimmutable.collections.util.JImmutables.*;
+
+public class MappedFileReaderTest
+    extends TestCase
+{
+    private ObjectMapper mapper;
+    private Path file;
+
+    @Override
+    public void setUp()
+        throws Exception
+    {
+        mapper = new ObjectMapper();
+        mapper.registerModules(new JImmutableModule());
+        file = Files.createTempFile("mapped", ".json");
+    }
+
+    @Override
+    public void tearDown()
+        throws Exception
+    {
+        Files.deleteIfExists(file);
+    }
+
+    public void testSingleSegment()
+        throws Exception
+    {
+        JImmutableMap<String, JImmutableList<Integer>> expected = map();
+        for (int i = 0; i < 100; ++i) {
+            expected = expected.assign("k" + i, list(i, -i, i * i));
+        }
+        mapper.writeValue(file.toFile(), expected);
+
+        final ObjectReader reader = mapper.readerFor(new TypeReference<JImmutableMap<String, JImmutableList<Integer>>>() {});
+        assertEquals(expected, MappedFileReader.readValue(reader, file));
+    }
+
+    public void testChainedSegments()
+        throws Exception
+    {
+        JImmutableList<String> expected = list();
+        for (int i = 0; i < 500; ++i) {
+            expected = expected.insertLast("value-" + i);
+        }
+        mapper.writeValue(file.toFile(), expected);
+
+        final ObjectReader reader = mapper.readerFor(new TypeReference<JImmutableList<String>>() {});
+        for (long segmentSize : new long[]{1, 7, 64, 4096}) {
+            assertEquals(expected, MappedFileReader.readValue(reader, file, segmentSize));
+        }
+    }
+
+    public void testEmptyFile()
+        throws Exception
+    {
+        final ObjectReader reader = mapper.readerFor(new TypeReference<JImmutableList<String>>() {});
+        try {
+            MappedFileReader.readValue(reader, file);
+            fail();
+        } catch (IOException ex) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,148 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson.io;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import junit.framework.TestCase;
+import org.javimmutable.collections.JImmutableList;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.util.JImmutables;
+import org.javimmutable.jackson.JImmutableModule;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.javimmutable.collections.util.JImmutables.*;
+
+public class NdjsonReaderTest
+    extends TestCase
+{
+    private ObjectMapper mapper;
+    private ExecutorService executor;
+
+    @Override
+    public void setUp()
+        throws Exception
+    {
+        mapper = new ObjectMapper();
+        mapper.registerModules(new JImmutableModule());
+        executor = Executors.newFixedThreadPool(4);
+    }
+
+    @Override
+    public void tearDown()
+        throws Exception
+    {
+        executor.shutdownNow();
+    }
+
+    public void testList()
+        throws Exception
+    {
+        final StringBuilder json = new StringBuilder();
+        JImmutableList<Integer> expected = list();
+        for (int i = 0; i < 1000; ++i) {
+            json.append(i).append('\n');
+            expected = expected.insertLast(i);
+        }
+        for (int blockSize : new int[]{1, 7, 64, 4096}) {
+            final NdjsonReader<Integer> reader = NdjsonReader.forType(mapper, mapper.constructType(Integer.class), executor, blockSize, 3);
+            assertEquals(expected, reader.readList(stream(json.toString())));
+        }
+        final NdjsonReader<Integer> reader = NdjsonReader.forType(mapper, Integer.class, executor);
+        assertEquals(list(), reader.readList(stream("")));
+        assertEquals(list(1, 2, 3), reader.readList(stream("1\n\n2\n3")));
+    }
+
+    @SuppressWarnings("unchecked")
+    public void testMap()
+        throws Exception
+    {
+        final String json = "{\"id\":\"a\",\"n\":1}\n{\"id\":\"b\",\"n\":2}\n{\"id\":\"a\",\"n\":3}\n";
+        for (int blockSize : new int[]{1, 16, 4096}) {
+            final NdjsonReader<Map> reader = NdjsonReader.forType(mapper, mapper.constructType(Map.class), executor, blockSize, 2);
+            final JImmutableMap<Object, Map> records = reader.readMap(stream(json), record -> record.get("id"));
+            assertEquals(2, records.size());
+            assertEquals(3, records.get("a").get("n"));
+            assertEquals(2, records.get("b").get("n"));
+        }
+    }
+
+    public void testFile()
+        throws Exception
+    {
+        final Path file = Files.createTempFile("records", ".ndjson");
+        try {
+            final StringBuilder json = new StringBuilder();
+            JImmutableMap<String, JImmutableList<Integer>> expected = JImmutables.map();
+            for (int i = 0; i < 500; ++i) {
+                json.append("[").append(i).append(",").append(-i).append("]\n");
+                expected = expected.assign(String.valueOf(i), list(i, -i));
+            }
+            Files.write(file, json.toString().getBytes(StandardCharsets.UTF_8));
+            final NdjsonReader<JImmutableList<Integer>> reader = NdjsonReader.forType(mapper, new TypeReference<JImmutableList<Integer>>() {}, executor);
+            assertEquals(expected, reader.readMap(file, record -> String.valueOf(record.get(0))));
+            assertEquals(500, reader.readList(file).size());
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    public void testInvalid()
+        throws Exception
+    {
+        final NdjsonReader<Integer> reader = NdjsonReader.forType(mapper, mapper.constructType(Integer.class), executor, 4, 2);
+        try {
+            reader.readList(stream("1\n2\n3\n{\n5\n6\n"));
+            fail();
+        } catch (JsonProcessingException ex) {
+            // expected
+        }
+    }
+
+    private static InputStream stream(String json)
+    {
+        return new ByteArrayInputStream(json.getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,160 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson.patch;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import junit.framework.TestCase;
+import org.javimmutable.collections.JImmutableList;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.JImmutableSet;
+import org.javimmutable.collections.util.JImmutables;
+import org.javimmutable.jackson.JImmutableModule;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.javimmutable.collections.util.JImmutables.*;
+
+public class JImmutableHistoryTest
+    extends TestCase
+{
+    private static final TypeReference<JImmutableMap<String, JImmutableList<Integer>>> LISTS = new TypeReference<JImmutableMap<String, JImmutableList<Integer>>>() {};
+
+    private ObjectMapper mapper;
+    private JImmutableHistory history;
+
+    @Override
+    public void setUp()
+        throws Exception
+    {
+        mapper = new ObjectMapper();
+        mapper.registerModules(new JImmutableModule());
+        history = new JImmutableHistory(mapper);
+    }
+
+    public void testMapOfLists()
+        throws Exception
+    {
+        final JImmutableMap<String, JImmutableList<Integer>> v1 = JImmutables.<String, JImmutableList<Integer>>map()
+            .assign("a", list(1, 2, 3))
+            .assign("b", list(9));
+        final JImmutableMap<String, JImmutableList<Integer>> v2 = v1.assign("a", list(1, 20, 3)).assign("c", list());
+        final JImmutableMap<String, JImmutableList<Integer>> v3 = v2.delete("b");
+        final JImmutableList<JImmutableMap<String, JImmutableList<Integer>>> versions = list(v1, v2, v2, v3);
+
+        final byte[] bytes = history.writeValueAsBytes(versions, LISTS);
+        assertEquals("[{\"a\":[1,2,3],\"b\":[9]},{\"assign\":[[\"c\",[]]],\"update\":[[\"a\",{\"prefix\":1,\"suffix\":1,\"insert\":[20]}]]},{},{\"delete\":[\"b\"]}]",
+                     new String(bytes, StandardCharsets.UTF_8));
+
+        final JImmutableList<JImmutableMap<String, JImmutableList<Integer>>> copy = history.read(bytes, LISTS);
+        assertEquals(versions, copy);
+        assertSame(copy.get(1), copy.get(2));
+        assertSame(copy.get(0).get("b"), copy.get(1).get("b"));
+        assertSame(copy.get(1).get("c"), copy.get(3).get("c"));
+    }
+
+    public void testLargeMap()
+        throws Exception
+    {
+        final TypeReference<JImmutableMap<Integer, String>> type = new TypeReference<JImmutableMap<Integer, String>>() {};
+        JImmutableMap<Integer, String> map = map();
+        for (int i = 0; i < 1000; ++i) {
+            map = map.assign(i, "v" + i);
+        }
+        JImmutableList<JImmutableMap<Integer, String>> versions = JImmutables.<JImmutableMap<Integer, String>>list().insertLast(map);
+        for (int i = 0; i < 50; ++i) {
+            map = map.assign(i * 7, "changed" + i).delete(1000 - i).assign(2000 + i, null);
+            versions = versions.insertLast(map);
+        }
+        final byte[] bytes = history.writeValueAsBytes(versions, type);
+        final byte[] full = mapper.writerFor(new TypeReference<JImmutableList<JImmutableMap<Integer, String>>>() {}).writeValueAsBytes(versions);
+        assertTrue(bytes.length * 10 < full.length);
+        assertEquals(versions, history.read(bytes, type));
+    }
+
+    public void testLists()
+        throws Exception
+    {
+        final TypeReference<JImmutableList<String>> type = new TypeReference<JImmutableList<String>>() {};
+        final JImmutableList<String> v1 = list("a", "b", "c", "d");
+        final JImmutableList<JImmutableList<String>> versions = list(v1,
+                                                                     v1.insertLast("e"),
+                                                                     v1.insertFirst("z"),
+                                                                     v1.delete(1).delete(1),
+                                                                     list(),
+                                                                     list("x", "x"),
+                                                                     null,
+                                                                     list("y"));
+        final byte[] bytes = history.writeValueAsBytes(versions, type);
+        assertEquals(versions, history.read(bytes, type));
+        assertEquals(list(), history.read(history.writeValueAsBytes(JImmutables.<JImmutableList<String>>list(), type), type));
+    }
+
+    public void testSets()
+        throws Exception
+    {
+        final TypeReference<JImmutableSet<Integer>> type = new TypeReference<JImmutableSet<Integer>>() {};
+        final JImmutableSet<Integer> v1 = JImmutables.<Integer>set().insert(1).insert(2).insert(3);
+        final JImmutableList<JImmutableSet<Integer>> versions = list(v1, v1.insert(4), v1.delete(2).insert(5), v1.delete(2).insert(5).delete(1));
+        final byte[] bytes = history.writeValueAsBytes(versions, type);
+        assertTrue(new String(bytes, StandardCharsets.UTF_8).endsWith(",{\"insert\":[4]},{\"insert\":[5],\"delete\":[2,4]},{\"delete\":[1]}]"));
+        assertEquals(versions, history.read(bytes, type));
+    }
+
+    public void testInvalid()
+        throws Exception
+    {
+        try {
+            history.read("{}".getBytes(StandardCharsets.UTF_8), LISTS);
+            fail();
+        } catch (JsonMappingException ignored) {
+            // expected
+        }
+        try {
+            history.read("[{},{\"bogus\":[]}]".getBytes(StandardCharsets.UTF_8), LISTS);
+            fail();
+        } catch (JsonMappingException ignored) {
+            // expected
+        }
+        try {
+            history.read("[[1],{\"prefix\":2}]".getBytes(StandardCharsets.UTF_8), new TypeReference<JImmutableList<Integer>>() {});
+            fail();
+        } catch (JsonMappingException ignored) {
+            // expected
+        }
+    }
+}
@@ -0,0 +1,136 @@
+///###////////////////////////////////////////////////////////////////////////
+//
+// Burton Computer Corporation
+// http://www.burton-computer.com
+//
+// Copyright (c) 2021, Burton Computer Corporation
+// All rights reserved.
+//
+// Redistribution and use in source and binary forms, with or without
+// modification, are permitted provided that the following conditions are met:
+//
+//     Redistributions of source code must retain the above copyright
+//     notice, this list of conditions and the following disclaimer.
+//
+//     Redistributions in binary form must reproduce the above copyright
+//     notice, this list of conditions and the following disclaimer in
+//     the documentation and/or other materials provided with the
+//     distribution.
+//
+//     Neither the name of the Burton Computer Corporation nor the names
+//     of its contributors may be used to endorse or promote products
+//     derived from this software without specific prior written permission.
+//
+// THIS SOFTWARE IS PROVIDED BY THE COPYRIGHT HOLDERS AND CONTRIBUTORS
+// "AS IS" AND ANY EXPRESS OR IMPLIED WARRANTIES, INCLUDING, BUT NOT
+// LIMITED TO, THE IMPLIED WARRANTIES OF MERCHANTABILITY AND FITNESS FOR
+// A PARTICULAR PURPOSE ARE DISCLAIMED. IN NO EVENT SHALL THE COPYRIGHT
+// HOLDER OR CONTRIBUTORS BE LIABLE FOR ANY DIRECT, INDIRECT, INCIDENTAL,
+// SPECIAL, EXEMPLARY, OR CONSEQUENTIAL DAMAGES (INCLUDING, BUT NOT
+// LIMITED TO, PROCUREMENT OF SUBSTITUTE GOODS OR SERVICES; LOSS OF USE,
+// DATA, OR PROFITS; OR BUSINESS INTERRUPTION) HOWEVER CAUSED AND ON ANY
+// THEORY OF LIABILITY, WHETHER IN CONTRACT, STRICT LIABILITY, OR TORT
+// (INCLUDING NEGLIGENCE OR OTHERWISE) ARISING IN ANY WAY OUT OF THE USE
+// OF THIS SOFTWARE, EVEN IF ADVISED OF THE POSSIBILITY OF SUCH DAMAGE.
+
+package org.javimmutable.jackson.patch;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonMappingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import junit.framework.TestCase;
+import org.javimmutable.collections.JImmutableList;
+import org.javimmutable.collections.JImmutableMap;
+import org.javimmutable.collections.JImmutableSet;
+import org.javimmutable.collections.util.JImmutables;
+import org.javimmutable.jackson.JImmutableModule;
+
+import static org.javimmutable.collections.util.JImmutables.*;
+
+public class JImmutablePatchTest
+    extends TestCase
+{
+    private static final TypeReference<JImmutableMap<String, JImmutableList<Integer>>> LISTS = new TypeReference<JImmutableMap<String, JImmutableList<Integer>>>() {};
+
+    private ObjectMapper mapper;
+    private JImmutablePatch patcher;
+
+    @Override
+    public void setUp()
+        throws Exception
+    {
+        mapper = new ObjectMapper();
+        mapper.registerModules(new JImmutableModule());
+        patcher = new JImmutablePatch(mapper);
+    }
+
+    public void testMapOfLists()
+        throws Exception
+    {
+        final JImmutableList<Integer> unchanged = list(9);
+        final JImmutableMap<String, JImmutableList<Integer>> original = JImmutables.<String, JImmutableList<Integer>>map()
+            .assign("a", list(1, 2, 3))
+            .assign("b", unchanged);
+
+        assertEquals(JImmutables.<String, JImmutableList<Integer>>map().assign("a", list(0, 1, 2, 3, 4)).assign("b", unchanged),
+                     patch(original, LISTS, "[{\"op\":\"add\",\"path\":\"/a/0\",\"value\":0},{\"op\":\"add\",\"path\":\"/a/-\",\"value\":4}]"));
+        assertEquals(JImmutables.<String, JImmutableList<Integer>>map().assign("a", list(1, 3)).assign("b", unchanged),
+                     patch(original, LISTS, "[{\"op\":\"remove\",\"path\":\"/a/1\"}]"));
+        assertEquals(JImmutables.<String, JImmutableList<Integer>>map().assign("a", list(1, 20, 3)).assign("b", unchanged),
+                     patch(original, LISTS, "[{\"op\":\"test\",\"path\":\"/a/1\",\"value\":2},{\"op\":\"replace\",\"path\":\"/a/1\",\"value\":20}]"));
+        assertEquals(JImmutables.<String, JImmutableList<Integer>>map().assign("b", unchanged).assign("c", list(7, 8)),
+                     patch(original, LISTS, "[{\"op\":\"remove\",\"path\":\"/a\"},{\"op\":\"add\",\"path\":\"/c\",\"value\":[7,8]}]"));
+        assertEquals(JImmutables.<String, JImmutableList<Integer>>map().assign("a", list(1, 2, 3)).assign("c", unchanged),
+                     patch(original, LISTS, "[{\"op\":\"move\",\"from\":\"/b\",\"path\":\"/c\"}]"));
+        assertEquals(JImmutables.<String, JImmutableList<Integer>>map().assign("a", list(1, 2, 3, 9)).assign("b", unchanged),
+                     patch(original, LISTS, "[{\"op\":\"copy\",\"from\":\"/b/0\",\"path\":\"/a/-\"}]"));
+
+        // untouched children are shared rather than copied
+        assertSame(unchanged, patch(original, LISTS, "[{\"op\":\"add\",\"path\":\"/a/-\",\"value\":4}]").get("b"));
+        assertEquals(list(1, 2, 3), original.get("a"));
+    }
+
+    public void testSetsAndKeys()
+        throws Exception
+    {
+        final TypeReference<JImmutableMap<Integer, JImmutableSet<String>>> type = new TypeReference<JImmutableMap<Integer, JImmutableSet<String>>>() {};
+        final JImmutableMap<Integer, JImmutableSet<String>> original = JImmutables.<Integer, JImmutableSet<String>>map()
+            .assign(1, JImmutables.<String>set().insert("x").insert("y"));
+        final JImmutableMap<Integer, JImmutableSet<String>> patched = patch(original, type, "[{\"op\":\"add\",\"path\":\"/1/-\",\"value\":\"z\"},{\"op\":\"remove\",\"path\":\"/1/x\"}]");
+        assertEquals(JImmutables.<String>set().insert("y").insert("z"), patched.get(1));
+    }
+
+    public void testErrors()
+        throws Exception
+    {
+        final JImmutableMap<String, JImmutableList<Integer>> original = JImmutables.<String, JImmutableList<Integer>>map().assign("a", list(1));
+        verifyError(original, "[{\"op\":\"test\",\"path\":\"/a/0\",\"value\":2}]");
+        verifyError(original, "[{\"op\":\"remove\",\"path\":\"/b\"}]");
+        verifyError(original, "[{\"op\":\"replace\",\"path\":\"/a/5\",\"value\":2}]");
+        verifyError(original, "[{\"op\":\"add\",\"path\":\"/a/x\",\"value\":2}]");
+        verifyError(original, "[{\"op\":\"frobnicate\",\"path\":\"/a\"}]");
+        verifyError(original, "[{\"op\":\"add\",\"path\":\"/a/0/x\",\"value\":2}]");
+        assertEquals(list(1), original.get("a"));
+    }
+
+    private void verifyError(JImmutableMap<String, JImmutableList<Integer>> original,
+                             String patch)
+        throws Exception
+    {
+        try {
+            patch(original, LISTS, patch);
+            fail();
+        } catch (JsonMappingException ignored) {
+        }
+    }
+
+    private <T> T patch(T value,
+                        TypeReference<T> type,
+                        String patch)
+        throws Exception
+    {
+        final JsonNode patchNode = mapper.readTree(patch);
+        return patcher.apply(value, type, patchNode);
+    }
+}